@@ -0,0 +1,106 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.benchmarks;
+
+import com.bfemmer.datecodes.BatchEncoder;
+import com.bfemmer.datecodes.DateCodes;
+import com.bfemmer.datecodes.ParallelEncoder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to encode a batch of random timestamps from the last ten years, one at a time, in bulk,
+ * and in bulk across a fork-join pool with one thread per core.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchEncodeBenchmark {
+    @Param({"Air", "Ocean"})
+    public String conveyanceType;
+
+    @Param({"1000", "1000000"})
+    public int batchSize;
+
+    private static final ForkJoinPool pool = new ForkJoinPool();
+
+    private final TimeZone zone = TimeZone.getTimeZone("America/New_York");
+    private int type;
+    private long[] timesInMillis;
+    private char[] buffer;
+
+    @Setup
+    public void setUp() {
+        type = DateCodes.conveyanceType(conveyanceType);
+        timesInMillis = new long[batchSize];
+        buffer = new char[batchSize * DateCodes.codeLength(type)];
+
+        Random random = new Random(1);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < batchSize; i++) {
+            timesInMillis[i] = now - (long) (random.nextDouble() * 3650 * DateCodes.MILLIS_PER_DAY);
+        }
+    }
+
+    @Benchmark
+    public char[] encodeEach() {
+        int length = DateCodes.codeLength(type);
+        for (int i = 0; i < batchSize; i++) {
+            long codeMillis = DateCodes.isUtc(type)
+                    ? timesInMillis[i] : timesInMillis[i] + zone.getOffset(timesInMillis[i]);
+            DateCodes.encode(type, codeMillis, buffer, i * length);
+        }
+        return buffer;
+    }
+
+    @Benchmark
+    public char[] batch() {
+        BatchEncoder.encode(type, zone, timesInMillis, 0, batchSize, buffer, 0);
+        return buffer;
+    }
+
+    @Benchmark
+    public char[] parallel() {
+        ParallelEncoder.encode(type, zone, timesInMillis, 0, batchSize, buffer, 0, pool);
+        return buffer;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.benchmarks;
+
+import com.bfemmer.datecodes.CalendarDates;
+import com.bfemmer.datecodes.DateCodeBuilder;
+import com.bfemmer.datecodes.DateCodeBuilderFactory;
+import com.bfemmer.datecodes.DateCodes;
+import com.bfemmer.datecodes.DecodeTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of reverse-calculating valid and invalid codes of each conveyance type.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DecodeBenchmark {
+    private static final int REFERENCE_YEAR = 2016;
+    private static final int REFERENCE_DAY = DateCodes.epochDayOf(REFERENCE_YEAR, 12, 31);
+
+    /**
+     * Conveyance type and code separated by a colon. The last three are invalid codes.
+     */
+    @Param({"Air:N29", "Surface:060", "Ocean:6060", "Air:O29", "Surface:367", "Ocean:60A0"})
+    public String input;
+
+    private DateCodeBuilder builder;
+    private String code;
+    private int type;
+    private final int[] hours = new int[DateCodes.MAX_CANDIDATES];
+    private final CalendarDates calendarDates = new CalendarDates();
+
+    @Setup
+    public void setUp() {
+        String conveyanceType = input.substring(0, input.indexOf(':'));
+        code = input.substring(input.indexOf(':') + 1);
+        type = DateCodes.conveyanceType(conveyanceType);
+        builder = DateCodeBuilderFactory.getDateCodeBuilder(conveyanceType);
+    }
+
+    /**
+     * The call the mobile app makes. Invalid codes are reported with an exception.
+     */
+    @Benchmark
+    public List<Date> getCalendarDatesForCode() {
+        try {
+            return builder.getCalendarDatesForCode(code);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The same reverse calculation into a reused {@link CalendarDates}. Invalid codes are
+     * reported with a count instead of an exception.
+     */
+    @Benchmark
+    public int getCalendarDates() {
+        calendarDates.clear();
+        return builder.getCalendarDates(code, calendarDates);
+    }
+
+    @Benchmark
+    public int decodeCalculated() {
+        return DateCodes.decode(type, code, REFERENCE_DAY, hours, 0);
+    }
+
+    @Benchmark
+    public int decodeTable() {
+        return DecodeTable.forYear(REFERENCE_YEAR).decode(type, code, hours, 0);
+    }
+}
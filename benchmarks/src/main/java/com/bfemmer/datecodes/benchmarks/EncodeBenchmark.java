@@ -0,0 +1,129 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.benchmarks;
+
+import com.bfemmer.datecodes.DateCodeBuilder;
+import com.bfemmer.datecodes.DateCodeBuilderFactory;
+import com.bfemmer.datecodes.DateCodes;
+import com.bfemmer.datecodes.ZoneOffsets;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of calculating the current code for each conveyance type.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EncodeBenchmark {
+    @Param({"Air", "Surface", "Ocean"})
+    public String conveyanceType;
+
+    private DateCodeBuilder builder;
+    private int type;
+    private final char[] buffer = new char[4];
+    private long timeInMillis;
+    private final TimeZone zone = TimeZone.getTimeZone("America/New_York");
+    private long startOfYearMillis;
+    private long offsetInYear;
+
+    @Setup
+    public void setUp() {
+        builder = DateCodeBuilderFactory.getDateCodeBuilder(conveyanceType);
+        type = DateCodes.conveyanceType(conveyanceType);
+        timeInMillis = System.currentTimeMillis();
+        startOfYearMillis = timeInMillis - 365 * DateCodes.MILLIS_PER_DAY;
+    }
+
+    /**
+     * The call both apps make: look up the builder and ask it for the current code.
+     */
+    @Benchmark
+    public String getCode() {
+        return DateCodeBuilderFactory.getDateCodeBuilder(conveyanceType).getCode();
+    }
+
+    /**
+     * Encodes a timestamp that moves a day and an hour every call, so the builder's cached code
+     * never hits.
+     */
+    @Benchmark
+    public String getCodeForChangingTime() {
+        timeInMillis += DateCodes.MILLIS_PER_DAY + DateCodes.MILLIS_PER_HOUR;
+        return builder.getCode(timeInMillis);
+    }
+
+    /**
+     * Primitive encode into a reused buffer.
+     */
+    @Benchmark
+    public char[] encode() {
+        DateCodes.encode(type, System.currentTimeMillis(), buffer, 0);
+        return buffer;
+    }
+
+    /**
+     * @return instant moving by a day and an hour every call, cycling through the past year so it
+     * stays within the window of {@link ZoneOffsets}
+     */
+    private long nextInstantInYear() {
+        offsetInYear = (offsetInYear + DateCodes.MILLIS_PER_DAY + DateCodes.MILLIS_PER_HOUR)
+                % (365 * DateCodes.MILLIS_PER_DAY);
+        return startOfYearMillis + offsetInYear;
+    }
+
+    /**
+     * Local time through the zone, as every encode did before offsets were cached.
+     */
+    @Benchmark
+    public long zoneOffset() {
+        long utcMillis = nextInstantInYear();
+        return utcMillis + zone.getOffset(utcMillis);
+    }
+
+    /**
+     * Local time through the cached transitions of the zone.
+     */
+    @Benchmark
+    public long cachedZoneOffset() {
+        return ZoneOffsets.forZone(zone).toLocalMillis(nextInstantInYear());
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.benchmarks;
+
+import com.bfemmer.datecodes.DateCodeBuilderFactory;
+import com.bfemmer.datecodes.DateCodeParser;
+import com.bfemmer.datecodes.DateCodes;
+import com.bfemmer.datecodes.DecodeTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Input handling done by MainActivity before a code is decoded. The regular expression and
+ * exception based validation the activity originally used is kept here as a baseline for
+ * {@link DateCodeParser}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MainActivityBenchmark {
+    @Param({"N29", "060", "6060", "12", "12345"})
+    public String dateCode;
+
+    private DateFormat dateFormat = new SimpleDateFormat("MM/dd/yyyy hh:mm:ss", Locale.getDefault());
+    private List<Date> airDates;
+    private final int[] hours = new int[DateCodes.MAX_CANDIDATES];
+
+    @Setup
+    public void setUp() {
+        airDates = DateCodeBuilderFactory.getDateCodeBuilder("Air").getCalendarDatesForCode("N28");
+    }
+
+    // Original MainActivity.validateDateCodeLength
+    private void validateDateCodeLength(String dateCode) {
+        if (dateCode.length() < 3)
+            throw new IllegalArgumentException("length insufficient");
+        if (dateCode.length() > 4)
+            throw new IllegalArgumentException("length insufficient");
+    }
+
+    // Original MainActivity.getConveyanceTypeFromDateCode
+    private String getConveyanceTypeFromDateCode(String dateCode) {
+        String conveyanceType = "Air";
+
+        if (dateCode.length() == 4) conveyanceType = "Ocean";
+        if (dateCode.length() == 3) {
+            if (dateCode.substring(0, 1).toUpperCase().matches("\\d")) conveyanceType = "Surface";
+        }
+
+        return conveyanceType;
+    }
+
+    @Benchmark
+    public String getConveyanceTypeFromDateCode() {
+        return getConveyanceTypeFromDateCode(dateCode);
+    }
+
+    /**
+     * Invalid lengths are reported with an exception, as in the activity.
+     */
+    @Benchmark
+    public boolean validateDateCodeLength() {
+        try {
+            validateDateCodeLength(dateCode);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public int classify() {
+        return DateCodeParser.classify(dateCode);
+    }
+
+    /**
+     * Classification, validation, and decoding in one pass.
+     */
+    @Benchmark
+    public int parse() {
+        return DateCodeParser.parse(dateCode, DecodeTable.forYear(2016), hours, 0);
+    }
+
+    /**
+     * Formatting loop of MainActivity.launchDateResultsActivityWithCode for a full list of Air
+     * candidates. Independent of the code parameter.
+     */
+    @Benchmark
+    public List<String> formatDates() {
+        List<String> values = new ArrayList<>();
+        for (Date date : airDates) {
+            values.add(dateFormat.format(date));
+        }
+        return values;
+    }
+}
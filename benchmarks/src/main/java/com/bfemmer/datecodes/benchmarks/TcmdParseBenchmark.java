@@ -0,0 +1,95 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.benchmarks;
+
+import com.bfemmer.datecodes.DecodeTable;
+import com.bfemmer.datecodes.TcmdBatch;
+import com.bfemmer.datecodes.TcmdRecordParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records per microsecond parsed and decoded from a direct buffer of newline terminated TCMD card
+ * images with random Surface and Ocean date shipped and received codes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TcmdParseBenchmark {
+    private static final int RECORDS = 10000;
+
+    private final TcmdRecordParser parser =
+            new TcmdRecordParser(61, 4, 71, 4, new DecodeTable(2016));
+    private final TcmdBatch batch = new TcmdBatch(1024);
+    private ByteBuffer records;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        records = ByteBuffer.allocateDirect(RECORDS * (TcmdRecordParser.RECORD_LENGTH + 1));
+        byte[] record = new byte[TcmdRecordParser.RECORD_LENGTH + 1];
+        for (int i = 0; i < RECORDS; i++) {
+            for (int j = 0; j < TcmdRecordParser.RECORD_LENGTH; j++) {
+                record[j] = (byte) ('A' + random.nextInt(26));
+            }
+            String shipped = String.format("%03d ", 1 + random.nextInt(365));
+            String received = String.format("%d%03d", random.nextInt(10), 1 + random.nextInt(365));
+            for (int j = 0; j < 4; j++) {
+                record[60 + j] = (byte) shipped.charAt(j);
+                record[70 + j] = (byte) received.charAt(j);
+            }
+            record[TcmdRecordParser.RECORD_LENGTH] = '\n';
+            records.put(record);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public int parse() {
+        records.clear();
+        int count = 0;
+        while (records.hasRemaining()) {
+            parser.parse(records, batch);
+            count += batch.getCandidateCount(0, TcmdBatch.RECEIVED);
+        }
+        return count;
+    }
+}
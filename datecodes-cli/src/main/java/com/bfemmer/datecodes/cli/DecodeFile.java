@@ -0,0 +1,149 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.cli;
+
+import com.bfemmer.datecodes.DecodeTable;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Command line entry point: decodes the date code field of every line of a manifest or TCMD
+ * export and writes the lines back out annotated with their calendar dates. Codes are decoded
+ * relative to the current year unless {@code --year} is given.
+ */
+public final class DecodeFile {
+    private static final String USAGE =
+            "usage: decodefile (--columns START:LENGTH | --delimiter CHAR --field N)\n"
+                    + "                  [--year YEAR] [--output FILE] [--progress] INPUT\n"
+                    + "\n"
+                    + "  --columns START:LENGTH  code is in a fixed column range (first column is 1)\n"
+                    + "  --delimiter CHAR        fields are separated by CHAR ('tab' for a tab)\n"
+                    + "  --field N               code is field N (first field is 1)\n"
+                    + "  --year YEAR             decode relative to YEAR instead of this year\n"
+                    + "  --output FILE           write to FILE instead of standard output\n"
+                    + "  --progress              report throughput every 10 seconds\n";
+
+    private DecodeFile() {
+    }
+
+    public static void main(String[] args) {
+        String columns = null;
+        String delimiter = null;
+        String field = null;
+        String year = null;
+        String output = null;
+        String input = null;
+        boolean progress = false;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--columns")) {
+                    columns = args[++i];
+                } else if (arg.equals("--delimiter")) {
+                    delimiter = args[++i];
+                } else if (arg.equals("--field")) {
+                    field = args[++i];
+                } else if (arg.equals("--year")) {
+                    year = args[++i];
+                } else if (arg.equals("--output")) {
+                    output = args[++i];
+                } else if (arg.equals("--progress")) {
+                    progress = true;
+                } else if (arg.startsWith("--") || input != null) {
+                    throw new IllegalArgumentException("unexpected argument " + arg);
+                } else {
+                    input = arg;
+                }
+            }
+            if (input == null) throw new IllegalArgumentException("no input file");
+
+            FieldSelector selector = parseSelector(columns, delimiter, field);
+            DecodeTable table = year == null
+                    ? DecodeTable.forCurrentYear() : DecodeTable.forYear(Integer.parseInt(year));
+
+            ManifestDecoder decoder = new ManifestDecoder(selector, table);
+            if (progress) decoder.setProgress(System.err);
+            System.err.println(run(decoder, input, output));
+        } catch (ArrayIndexOutOfBoundsException e) {
+            usage("missing value for " + args[args.length - 1]);
+        } catch (IllegalArgumentException e) {
+            usage(e.getMessage());
+        } catch (IOException e) {
+            System.err.println("decodefile: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static DecodeStats run(ManifestDecoder decoder, String input, String output)
+            throws IOException {
+        FileInputStream in = new FileInputStream(input);
+        try {
+            FileChannel inChannel = in.getChannel();
+            if (output == null) {
+                WritableByteChannel out = Channels.newChannel(System.out);
+                DecodeStats stats = decoder.decode(inChannel, out);
+                System.out.flush();
+                return stats;
+            }
+
+            FileOutputStream out = new FileOutputStream(output);
+            try {
+                return decoder.decode(inChannel, out.getChannel());
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    static FieldSelector parseSelector(String columns, String delimiter, String field) {
+        if (columns != null && delimiter == null && field == null) {
+            int colon = columns.indexOf(':');
+            if (colon < 0) throw new IllegalArgumentException("--columns needs START:LENGTH");
+            return FieldSelector.columns(Integer.parseInt(columns.substring(0, colon)),
+                    Integer.parseInt(columns.substring(colon + 1)));
+        }
+        if (columns == null && delimiter != null && field != null) {
+            if (delimiter.equals("tab")) delimiter = "\t";
+            if (delimiter.length() != 1 || delimiter.charAt(0) > 0x7F) {
+                throw new IllegalArgumentException("--delimiter must be a single ASCII character");
+            }
+            return FieldSelector.delimited((byte) delimiter.charAt(0), Integer.parseInt(field));
+        }
+        throw new IllegalArgumentException("give either --columns or --delimiter and --field");
+    }
+
+    private static void usage(String message) {
+        System.err.println("decodefile: " + message);
+        System.err.print(USAGE);
+        System.exit(2);
+    }
+}
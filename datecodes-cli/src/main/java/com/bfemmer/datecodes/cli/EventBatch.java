@@ -0,0 +1,104 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.cli;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Micro-batch of event lines passed from the reader to the encoder of an {@link EventPipeline}.
+ * Batches are pooled, so the pipeline allocates nothing per event once running. Bytes after the
+ * last complete line are the start of a line still being read, and are moved to the next batch.
+ */
+final class EventBatch {
+    /**
+     * Marks a line whose timestamp is missing or cannot be parsed.
+     */
+    static final long NO_TIME = Long.MIN_VALUE;
+
+    final byte[] data;
+    final ByteBuffer view;
+    final int[] lineStarts;
+    final int[] lineEnds;
+    final long[] timesInMillis;
+
+    // Lines found so far, index after the terminator of the last of them, and bytes read into
+    // data including a partial last line
+    int count;
+    int end;
+    int filled;
+
+    // System.nanoTime() when the first line of the batch was read
+    long readNanos;
+
+    EventBatch(int maxBytes, int maxLines) {
+        data = new byte[maxBytes];
+        view = ByteBuffer.wrap(data);
+        lineStarts = new int[maxLines];
+        lineEnds = new int[maxLines];
+        timesInMillis = new long[maxLines];
+    }
+
+    boolean isFull() {
+        return count == lineStarts.length || filled == data.length;
+    }
+
+    /**
+     * Finds the complete lines among {@code filled} bytes read so far, after the last line found.
+     *
+     * @param scanFrom index to look for line terminators from
+     */
+    void scanLines(int scanFrom) {
+        for (int i = scanFrom; i < filled && count < lineStarts.length; i++) {
+            if (data[i] != '\n') continue;
+            lineStarts[count] = end;
+            lineEnds[count] = i > end && data[i - 1] == '\r' ? i - 1 : i;
+            count++;
+            end = i + 1;
+        }
+    }
+
+    /**
+     * Ends the partial last line, if any, as the input has ended.
+     */
+    void endLastLine() {
+        if (end < filled && count < lineStarts.length) {
+            lineStarts[count] = end;
+            lineEnds[count] = filled;
+            count++;
+            end = filled;
+        }
+    }
+
+    /**
+     * Starts this batch with the bytes of {@code previous} after its last complete line.
+     */
+    void startAfter(EventBatch previous) {
+        filled = previous.filled - previous.end;
+        System.arraycopy(previous.data, previous.end, data, 0, filled);
+        previous.filled = previous.end;
+        count = 0;
+        end = 0;
+        readNanos = filled == 0 ? 0 : System.nanoTime();
+    }
+}
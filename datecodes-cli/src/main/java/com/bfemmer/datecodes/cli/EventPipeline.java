@@ -0,0 +1,288 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.cli;
+
+import com.bfemmer.datecodes.BatchEncoder;
+import com.bfemmer.datecodes.DateCodeBuilderFactory;
+import com.bfemmer.datecodes.DateCodes;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.TimeZone;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming counterpart of {@link ManifestDecoder}: reads event lines from an {@link EventSource}
+ * as they arrive, encodes the timestamp field of each (see {@link EventTimestamps}) into the code
+ * of one conveyance type, and writes every line back out followed by a separator and the code,
+ * or {@code INVALID}. Lines are written with a {@code \n} terminator. Codes are calculated in the
+ * zone of {@link DateCodeBuilderFactory} at the time each batch is encoded.
+ *
+ * A reader thread fills micro-batches from the source. A batch is handed to the encoder as soon
+ * as the source has no more input ready, when it is full, or {@link #MAX_BATCH_DELAY_NANOS} after
+ * its first line, so batches stay small while events trickle in and grow during a burst. Batches
+ * come from a fixed pool: when the encoder falls behind, the reader waits for one to be freed and
+ * the input stays in the source, so memory use is bounded however large the burst.
+ */
+final class EventPipeline {
+    static final int DEFAULT_BATCH_BYTES = 256 * 1024;
+    static final int DEFAULT_BATCH_LINES = 4096;
+    static final int DEFAULT_QUEUE_CAPACITY = 4;
+
+    private static final long MAX_BATCH_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final byte[] INVALID = {'I', 'N', 'V', 'A', 'L', 'I', 'D'};
+
+    // Handed to the encoder after the last batch
+    private static final EventBatch END = new EventBatch(0, 0);
+
+    private final EventSource source;
+    private final FieldSelector selector;
+    private final int conveyanceType;
+    private final byte separator;
+    private final BlockingQueue<EventBatch> free;
+    private final BlockingQueue<EventBatch> filled;
+    private final StreamStats stats = new StreamStats();
+    private final byte[] codes;
+    private final ByteBuffer output;
+
+    private PrintStream statsOutput;
+    private long statsIntervalNanos;
+    private volatile boolean stopped;
+    private volatile IOException readFailure;
+    private Thread reader;
+
+    EventPipeline(EventSource source, FieldSelector selector, int conveyanceType) {
+        this(source, selector, conveyanceType,
+                DEFAULT_BATCH_BYTES, DEFAULT_BATCH_LINES, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param batchBytes size of a batch, which is also the longest line accepted
+     * @param batchLines most lines in a batch
+     * @param queueCapacity most batches waiting for the encoder
+     */
+    EventPipeline(EventSource source, FieldSelector selector, int conveyanceType,
+                  int batchBytes, int batchLines, int queueCapacity) {
+        this.source = source;
+        this.selector = selector;
+        this.conveyanceType = conveyanceType;
+        this.separator = selector.isDelimited() ? selector.getDelimiter() : (byte) '\t';
+
+        // One batch being filled and one being written besides those queued. The pool is what
+        // bounds the queue; the queue has room for every batch and END, so handing over and
+        // ending never block
+        int poolSize = queueCapacity + 2;
+        free = new ArrayBlockingQueue<EventBatch>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            free.add(new EventBatch(batchBytes, batchLines));
+        }
+        filled = new ArrayBlockingQueue<EventBatch>(poolSize + 1);
+
+        // A whole batch fits in the output buffer with a separator, code, and newline per line
+        int codeLength = DateCodes.codeLength(conveyanceType);
+        int annotationLength = 2 + Math.max(codeLength, INVALID.length);
+        codes = new byte[batchLines * codeLength];
+        output = ByteBuffer.allocate(batchBytes + batchLines * annotationLength);
+    }
+
+    StreamStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @param statsOutput stream to report {@link StreamStats} to every {@code intervalNanos}, or
+     *                    null
+     */
+    void setStatsOutput(PrintStream statsOutput, long intervalNanos) {
+        this.statsOutput = statsOutput;
+        this.statsIntervalNanos = intervalNanos;
+    }
+
+    /**
+     * Reads on a new thread and encodes and writes on the calling one, until the source ends or
+     * {@link #stop()} is called.
+     */
+    void run(WritableByteChannel out) throws IOException {
+        reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                read();
+            }
+        }, "event-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        try {
+            encodeAndWrite(out);
+        } finally {
+            stop();
+        }
+        if (readFailure != null) throw readFailure;
+    }
+
+    /**
+     * Stops reading; batches already read are dropped. May be called from any thread.
+     */
+    void stop() {
+        if (stopped) return;
+        stopped = true;
+        reader.interrupt();
+        try {
+            // Unblocks a read waiting on a pipe or socket
+            source.close();
+        } catch (IOException e) {
+            // Stopping anyway
+        }
+    }
+
+    private void read() {
+        try {
+            EventBatch batch = free.take();
+            while (!stopped) {
+                int read = 0;
+                if (!batch.isFull()) {
+                    // Wait for input only when there is nothing to hand over yet
+                    read = source.read(batch.data, batch.filled, batch.data.length - batch.filled,
+                            batch.count == 0);
+                    if (read < 0) {
+                        batch.endLastLine();
+                        if (batch.count > 0) filled.add(batch);
+                        break;
+                    }
+                    if (batch.filled == 0) batch.readNanos = System.nanoTime();
+                    int scanFrom = batch.filled;
+                    batch.filled += read;
+                    batch.scanLines(scanFrom);
+                }
+
+                if (batch.count == 0) {
+                    if (batch.filled == batch.data.length) {
+                        throw new IOException("line longer than " + batch.data.length + " bytes");
+                    }
+                } else if (read == 0 || batch.isFull()
+                        || System.nanoTime() - batch.readNanos >= MAX_BATCH_DELAY_NANOS) {
+                    batch = handOff(batch);
+                }
+            }
+        } catch (IOException e) {
+            if (!stopped) readFailure = e;
+        } catch (InterruptedException e) {
+            // Stopped
+        } finally {
+            filled.add(END);
+        }
+    }
+
+    /**
+     * Queues the complete lines of {@code batch} for the encoder.
+     *
+     * @return batch to continue in, starting with the partial last line of {@code batch}
+     */
+    private EventBatch handOff(EventBatch batch) throws IOException, InterruptedException {
+        EventBatch next = free.poll();
+        if (next == null) {
+            // Encoder is behind; leave the input in the source until it catches up
+            long waitStart = System.nanoTime();
+            next = free.take();
+            stats.recordBackpressure(System.nanoTime() - waitStart);
+        }
+        next.startAfter(batch);
+        next.scanLines(0);
+        stats.setLagBytes(source.getLagBytes());
+        filled.add(batch);
+        return next;
+    }
+
+    private void encodeAndWrite(WritableByteChannel out) throws IOException {
+        long nextReportNanos = System.nanoTime() + statsIntervalNanos;
+        try {
+            while (true) {
+                EventBatch batch;
+                if (statsOutput == null) {
+                    batch = filled.take();
+                } else {
+                    batch = filled.poll(nextReportNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    long now = System.nanoTime();
+                    if (now >= nextReportNanos) {
+                        statsOutput.println(stats.getReport());
+                        nextReportNanos = now + statsIntervalNanos;
+                    }
+                    if (batch == null) continue;
+                }
+                if (batch == END) break;
+
+                write(batch, out);
+                free.add(batch);
+            }
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("interrupted while encoding events");
+        }
+    }
+
+    private void write(EventBatch batch, WritableByteChannel out) throws IOException {
+        TimeZone zone = DateCodeBuilderFactory.getTimeZone();
+        int count = batch.count;
+        long[] times = batch.timesInMillis;
+        int invalid = 0;
+        for (int i = 0; i < count; i++) {
+            long found = selector.find(batch.view, batch.lineStarts[i], batch.lineEnds[i]);
+            times[i] = found == FieldSelector.NOT_FOUND ? EventBatch.NO_TIME
+                    : EventTimestamps.parse(batch.view, FieldSelector.start(found),
+                    FieldSelector.end(found), zone);
+            if (times[i] == EventBatch.NO_TIME) invalid++;
+        }
+
+        // Encode each run of valid timestamps in one call
+        int codeLength = DateCodes.codeLength(conveyanceType);
+        for (int i = 0; i < count; ) {
+            int runEnd = i;
+            while (runEnd < count && times[runEnd] != EventBatch.NO_TIME) runEnd++;
+            if (runEnd > i) {
+                BatchEncoder.encode(conveyanceType, zone, times, i, runEnd, codes, i * codeLength);
+            }
+            i = runEnd + 1;
+        }
+
+        output.clear();
+        for (int i = 0; i < count; i++) {
+            output.put(batch.data, batch.lineStarts[i], batch.lineEnds[i] - batch.lineStarts[i]);
+            output.put(separator);
+            if (times[i] == EventBatch.NO_TIME) {
+                output.put(INVALID);
+            } else {
+                output.put(codes, i * codeLength, codeLength);
+            }
+            output.put((byte) '\n');
+        }
+        output.flip();
+        while (output.hasRemaining()) out.write(output);
+
+        stats.recordBatch(count, invalid, batch.end, System.nanoTime() - batch.readNanos);
+    }
+}
@@ -0,0 +1,46 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.cli;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Input of an {@link EventPipeline}: a byte stream of newline-terminated event lines that may
+ * grow without end, such as a log file being appended to, a pipe, or a socket.
+ */
+interface EventSource extends Closeable {
+    /**
+     * @param block whether to wait for input when none is available yet
+     * @return number of bytes read; 0 if none are available and {@code block} is false, or if
+     * waiting was cut short; -1 once the source has ended for good
+     */
+    int read(byte[] dst, int offset, int length, boolean block) throws IOException;
+
+    /**
+     * @return bytes known to be waiting in the source beyond what has been read, or 0 if the
+     * source cannot tell
+     */
+    long getLagBytes() throws IOException;
+}
@@ -0,0 +1,135 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.cli;
+
+import com.bfemmer.datecodes.DateCodes;
+import com.bfemmer.datecodes.Zones;
+
+import java.nio.ByteBuffer;
+import java.util.TimeZone;
+
+/**
+ * Parses the timestamp field of an event line without allocating. Accepted are epoch
+ * milliseconds, and ISO 8601 date-times {@code yyyy-MM-ddTHH:mm[:ss[.fraction]]} with a space or
+ * {@code T} between date and time, followed by {@code Z}, an offset {@code +HH:mm} or
+ * {@code -HHmm}, or nothing for local time in the zone the codes are calculated in.
+ */
+final class EventTimestamps {
+    private EventTimestamps() {
+    }
+
+    /**
+     * @return UTC epoch milliseconds, or {@link EventBatch#NO_TIME} if the field is not a timestamp
+     */
+    static long parse(ByteBuffer line, int start, int end, TimeZone zone) {
+        if (start == end) return EventBatch.NO_TIME;
+        if (isDigits(line, start, end)) {
+            return end - start <= 18 ? epochMillis(line, start, end) : EventBatch.NO_TIME;
+        }
+        if (end - start < 16) return EventBatch.NO_TIME;
+
+        int year = digits(line, start, 4);
+        int month = digits(line, start + 5, 2);
+        int day = digits(line, start + 8, 2);
+        int hour = digits(line, start + 11, 2);
+        int minute = digits(line, start + 14, 2);
+        byte separator = line.get(start + 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || hour < 0 || hour > 23
+                || minute < 0 || minute > 59 || day > DateCodes.lengthOfMonth(year, month)
+                || line.get(start + 4) != '-' || line.get(start + 7) != '-'
+                || (separator != 'T' && separator != ' ') || line.get(start + 13) != ':') {
+            return EventBatch.NO_TIME;
+        }
+
+        int position = start + 16;
+        long millis = 0;
+        if (position < end && line.get(position) == ':') {
+            int second = position + 3 <= end ? digits(line, position + 1, 2) : -1;
+            if (second < 0 || second > 59) return EventBatch.NO_TIME;
+            millis = second * 1000L;
+            position += 3;
+
+            if (position < end && (line.get(position) == '.' || line.get(position) == ',')) {
+                // Keep milliseconds, ignore finer digits
+                int scale = 100;
+                for (position++; position < end && isDigit(line.get(position)); position++) {
+                    millis += (line.get(position) - '0') * scale;
+                    scale /= 10;
+                }
+            }
+        }
+
+        long localMillis = DateCodes.epochDayOf(year, month, day) * DateCodes.MILLIS_PER_DAY
+                + hour * DateCodes.MILLIS_PER_HOUR + minute * 60000L + millis;
+        if (position == end) return Zones.toUtcMillis(zone, localMillis);
+        if (line.get(position) == 'Z' && position + 1 == end) return localMillis;
+
+        int sign = line.get(position) == '+' ? 1 : line.get(position) == '-' ? -1 : 0;
+        int offsetHours = position + 3 <= end ? digits(line, position + 1, 2) : -1;
+        int offsetMinutes = -1;
+        if (position + 6 == end && line.get(position + 3) == ':') {
+            offsetMinutes = digits(line, position + 4, 2);
+        } else if (position + 5 == end) {
+            offsetMinutes = digits(line, position + 3, 2);
+        }
+        if (sign == 0 || offsetHours < 0 || offsetHours > 18 || offsetMinutes < 0
+                || offsetMinutes > 59) {
+            return EventBatch.NO_TIME;
+        }
+        long offsetMillis = offsetHours * DateCodes.MILLIS_PER_HOUR + offsetMinutes * 60000L;
+        return localMillis - sign * offsetMillis;
+    }
+
+    /**
+     * @return value of {@code count} decimal digits, or -1 if any is not a digit
+     */
+    private static int digits(ByteBuffer line, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            byte b = line.get(i);
+            if (!isDigit(b)) return -1;
+            value = value * 10 + b - '0';
+        }
+        return value;
+    }
+
+    private static long epochMillis(ByteBuffer line, int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + line.get(i) - '0';
+        }
+        return value;
+    }
+
+    private static boolean isDigits(ByteBuffer line, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!isDigit(line.get(i))) return false;
+        }
+        return true;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
@@ -0,0 +1,119 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.cli;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Locates the date code field within a line of an export file, either at a fixed column range or
+ * as the n-th field between delimiters. Surrounding spaces are not part of the field.
+ */
+final class FieldSelector {
+    static final long NOT_FOUND = -1;
+
+    private final int startColumn;
+    private final int length;
+    private final byte delimiter;
+    private final int field;
+
+    private FieldSelector(int startColumn, int length, byte delimiter, int field) {
+        this.startColumn = startColumn;
+        this.length = length;
+        this.delimiter = delimiter;
+        this.field = field;
+    }
+
+    /**
+     * @param startColumn first column of the field, counting from 1
+     * @param length width of the field
+     */
+    static FieldSelector columns(int startColumn, int length) {
+        if (startColumn < 1 || length < 1) {
+            throw new IllegalArgumentException("invalid column range " + startColumn + ":" + length);
+        }
+        return new FieldSelector(startColumn - 1, length, (byte) 0, 0);
+    }
+
+    /**
+     * @param delimiter single byte field separator, e.g. ',' or '\t'
+     * @param field number of the field, counting from 1
+     */
+    static FieldSelector delimited(byte delimiter, int field) {
+        if (field < 1) throw new IllegalArgumentException("invalid field " + field);
+        return new FieldSelector(0, 0, delimiter, field - 1);
+    }
+
+    boolean isDelimited() {
+        return length == 0;
+    }
+
+    byte getDelimiter() {
+        return delimiter;
+    }
+
+    /**
+     * @param line buffer holding the line
+     * @param lineStart index of the first byte of the line
+     * @param lineEnd index after the last byte of the line, excluding the line terminator
+     * @return start index in the high and end index in the low 32 bits, or {@link #NOT_FOUND} if
+     * the line is too short or has too few fields
+     */
+    long find(ByteBuffer line, int lineStart, int lineEnd) {
+        int start;
+        int end;
+        if (isDelimited()) {
+            start = lineStart;
+            for (int i = 0; i < field; i++) {
+                start = indexOf(line, delimiter, start, lineEnd);
+                if (start < 0) return NOT_FOUND;
+                start++;
+            }
+            end = indexOf(line, delimiter, start, lineEnd);
+            if (end < 0) end = lineEnd;
+        } else {
+            start = lineStart + startColumn;
+            if (start >= lineEnd) return NOT_FOUND;
+            end = Math.min(start + length, lineEnd);
+        }
+
+        while (start < end && line.get(start) == ' ') start++;
+        while (end > start && line.get(end - 1) == ' ') end--;
+        return ((long) start << 32) | end;
+    }
+
+    static int start(long found) {
+        return (int) (found >>> 32);
+    }
+
+    static int end(long found) {
+        return (int) found;
+    }
+
+    static int indexOf(ByteBuffer buffer, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == value) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.cli;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Follows an append-only file like {@code tail -F}: reads to the end, then polls for more. The
+ * file is reopened from the start when it is truncated or replaced (log rotation), once the old
+ * file has been read to its end. The file is the buffer, so a slow consumer only makes the
+ * source fall further behind, which {@link #getLagBytes()} reports.
+ */
+final class FileTailSource implements EventSource {
+    static final long DEFAULT_POLL_MILLIS = 100;
+
+    private final File file;
+    private final long pollMillis;
+    private FileInputStream in;
+    private FileChannel channel;
+    private Object fileKey;
+    private long position;
+
+    /**
+     * @param fromStart whether to read the lines already in the file, or only new ones
+     */
+    FileTailSource(File file, boolean fromStart, long pollMillis) throws IOException {
+        this.file = file;
+        this.pollMillis = pollMillis;
+        open();
+        if (!fromStart) position = channel.size();
+    }
+
+    private void open() throws IOException {
+        in = new FileInputStream(file);
+        channel = in.getChannel();
+        fileKey = fileKey();
+        position = 0;
+    }
+
+    private Object fileKey() throws IOException {
+        return Files.readAttributes(file.toPath(), BasicFileAttributes.class).fileKey();
+    }
+
+    @Override
+    public int read(byte[] dst, int offset, int length, boolean block) throws IOException {
+        while (true) {
+            int read = channel.read(ByteBuffer.wrap(dst, offset, length), position);
+            if (read > 0) {
+                position += read;
+                return read;
+            }
+
+            if (channel.size() < position || isReplaced()) {
+                // Truncated, or rotated and the old file is read to its end
+                in.close();
+                open();
+                continue;
+            }
+            if (!block) return 0;
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException("interrupted while tailing " + file);
+            }
+        }
+    }
+
+    private boolean isReplaced() throws IOException {
+        if (!file.exists()) return false;
+        Object key = fileKey();
+        return key != null && !key.equals(fileKey);
+    }
+
+    @Override
+    public long getLagBytes() throws IOException {
+        return Math.max(0, channel.size() - position);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
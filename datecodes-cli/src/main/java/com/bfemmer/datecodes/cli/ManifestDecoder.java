@@ -0,0 +1,218 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.cli;
+
+import com.bfemmer.datecodes.AsciiSequence;
+import com.bfemmer.datecodes.DateCodeParser;
+import com.bfemmer.datecodes.DateCodes;
+import com.bfemmer.datecodes.DecodeTable;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams an export file through memory-mapped windows, decodes the date code field of every line,
+ * and writes each line back out followed by a separator and its candidate dates
+ * ({@code yyyy-MM-dd HH:00}, local time for Surface and Ocean and {@code yyyy-MM-dd HH:00Z} for
+ * Air, separated by {@code ;}) or {@code INVALID}.
+ *
+ * Memory use is bounded by one mapped window and one output buffer regardless of the file size,
+ * and nothing is allocated per line. Lines must fit in a window.
+ */
+final class ManifestDecoder {
+    static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final int OUTPUT_BUFFER_SIZE = 1024 * 1024;
+    private static final byte NEWLINE = '\n';
+    private static final byte[] INVALID = {'I', 'N', 'V', 'A', 'L', 'I', 'D'};
+
+    // Parser result for a line without a code field
+    private static final int MISSING = DateCodeParser.classify(null);
+
+    // Longest annotation: separator and every Air candidate with its separator
+    private static final int MAX_ANNOTATION_LENGTH = 1 + DateCodes.MAX_CANDIDATES * 18;
+
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final FieldSelector selector;
+    private final DecodeTable table;
+    private final byte separator;
+    private final int windowSize;
+    private final ByteBuffer output = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+    private final AsciiSequence code = new AsciiSequence();
+    private final int[] hours = new int[DateCodes.MAX_CANDIDATES];
+    private PrintStream progress;
+
+    // Second view of the current window for bulk copies, so the window's limit stays put
+    private ByteBuffer copyView;
+
+    ManifestDecoder(FieldSelector selector, DecodeTable table) {
+        this(selector, table, DEFAULT_WINDOW_SIZE);
+    }
+
+    ManifestDecoder(FieldSelector selector, DecodeTable table, int windowSize) {
+        this.selector = selector;
+        this.table = table;
+        this.separator = selector.isDelimited() ? selector.getDelimiter() : (byte) '\t';
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * @param progress stream to report throughput to every few seconds, or null
+     */
+    void setProgress(PrintStream progress) {
+        this.progress = progress;
+    }
+
+    DecodeStats decode(FileChannel in, WritableByteChannel out) throws IOException {
+        DecodeStats stats = new DecodeStats();
+        long startNanos = System.nanoTime();
+        long nextProgressNanos = startNanos + PROGRESS_INTERVAL_NANOS;
+        output.clear();
+
+        long size = in.size();
+        long position = 0;
+        while (position < size) {
+            int length = (int) Math.min(windowSize, size - position);
+            boolean lastWindow = position + length == size;
+            MappedByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY, position, length);
+            copyView = window.duplicate();
+
+            int lineStart = 0;
+            while (lineStart < length) {
+                int newline = FieldSelector.indexOf(window, NEWLINE, lineStart, length);
+                if (newline < 0 && !lastWindow) break;
+
+                int next = newline < 0 ? length : newline + 1;
+                int lineEnd = newline < 0 ? length : newline;
+                if (lineEnd > lineStart && window.get(lineEnd - 1) == '\r') lineEnd--;
+                writeLine(window, lineStart, lineEnd, next, out, stats);
+                lineStart = next;
+            }
+
+            if (lineStart == 0) {
+                throw new IOException("line at byte " + position + " is longer than "
+                        + windowSize + " bytes");
+            }
+            position += lineStart;
+            stats.bytesRead = position;
+
+            long now = System.nanoTime();
+            if (progress != null && now >= nextProgressNanos) {
+                stats.elapsedNanos = now - startNanos;
+                progress.println(stats);
+                nextProgressNanos = now + PROGRESS_INTERVAL_NANOS;
+            }
+        }
+
+        flush(out);
+        stats.elapsedNanos = System.nanoTime() - startNanos;
+        return stats;
+    }
+
+    /**
+     * Writes the line and its terminator with the decoded dates in between.
+     */
+    private void writeLine(ByteBuffer window, int lineStart, int lineEnd, int next,
+                           WritableByteChannel out, DecodeStats stats) throws IOException {
+        stats.records++;
+
+        copy(lineStart, lineEnd, out);
+        if (output.remaining() < MAX_ANNOTATION_LENGTH) flush(out);
+        output.put(separator);
+
+        int result = decodeField(window, lineStart, lineEnd);
+        if (DateCodeParser.isValid(result)) {
+            stats.validCodes++;
+            boolean utc = DateCodes.isUtc(DateCodeParser.type(result));
+            for (int i = 0; i < DateCodeParser.count(result); i++) {
+                if (i > 0) output.put((byte) ';');
+                putDateHour(hours[i], utc);
+            }
+        } else {
+            stats.invalidCodes++;
+            output.put(INVALID);
+        }
+
+        copy(lineEnd, next, out);
+    }
+
+    private int decodeField(ByteBuffer window, int lineStart, int lineEnd) {
+        long found = selector.find(window, lineStart, lineEnd);
+        if (found == FieldSelector.NOT_FOUND) return MISSING;
+
+        code.set(window, FieldSelector.start(found), FieldSelector.end(found));
+        return DateCodeParser.parse(code, table, hours, 0);
+    }
+
+    /**
+     * Writes {@code yyyy-MM-dd HH:00} for a local epoch hour, or {@code yyyy-MM-dd HH:00Z} for a
+     * UTC one.
+     */
+    private void putDateHour(int epochHour, boolean utc) {
+        int epochDay = (int) DateCodes.floorDiv(epochHour, DateCodes.HOURS_PER_DAY);
+        int date = DateCodes.civilDate(epochDay);
+        putDigits(DateCodes.packedYear(date), 4);
+        output.put((byte) '-');
+        putDigits(DateCodes.packedMonth(date), 2);
+        output.put((byte) '-');
+        putDigits(DateCodes.packedDay(date), 2);
+        output.put((byte) ' ');
+        putDigits(epochHour - epochDay * DateCodes.HOURS_PER_DAY, 2);
+        output.put((byte) ':').put((byte) '0').put((byte) '0');
+        if (utc) output.put((byte) 'Z');
+    }
+
+    private void putDigits(int value, int count) {
+        int position = output.position();
+        for (int i = position + count - 1; i >= position; i--, value /= 10) {
+            output.put(i, (byte) ('0' + value % 10));
+        }
+        output.position(position + count);
+    }
+
+    private void copy(int from, int to, WritableByteChannel out) throws IOException {
+        copyView.limit(to).position(from);
+        if (to - from > output.remaining()) {
+            flush(out);
+            if (to - from > output.remaining()) {
+                // Longer than the output buffer: write straight from the mapped window
+                while (copyView.hasRemaining()) out.write(copyView);
+                return;
+            }
+        }
+        output.put(copyView);
+    }
+
+    private void flush(WritableByteChannel out) throws IOException {
+        output.flip();
+        while (output.hasRemaining()) out.write(output);
+        output.clear();
+    }
+}
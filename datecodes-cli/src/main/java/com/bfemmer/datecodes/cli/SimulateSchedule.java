@@ -0,0 +1,114 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.cli;
+
+import com.bfemmer.datecodes.DateCodes;
+import com.bfemmer.datecodes.ScheduleSimulation;
+import com.bfemmer.datecodes.Zones;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.TimeZone;
+
+/**
+ * Command line entry point: replays a calendar year of the code schedule of one conveyance type
+ * in one zone with a simulated clock and prints wakeups, recalculations, and code transitions per
+ * day. Exits with status 1 if a wrong code would have been shown.
+ */
+public final class SimulateSchedule {
+    private static final String USAGE =
+            "usage: simulateschedule --type TYPE --zone ZONE --year YEAR [--tick SECONDS]\n"
+                    + "\n"
+                    + "  --type TYPE      Air, Surface, or Ocean\n"
+                    + "  --zone ZONE      time zone id, e.g. America/New_York\n"
+                    + "  --year YEAR      calendar year to replay\n"
+                    + "  --tick SECONDS   also wake up every SECONDS, e.g. 60 for ambient mode\n";
+
+    private SimulateSchedule() {
+    }
+
+    public static void main(String[] args) {
+        String type = null;
+        String zoneId = null;
+        String year = null;
+        String tick = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--type")) {
+                    type = args[++i];
+                } else if (arg.equals("--zone")) {
+                    zoneId = args[++i];
+                } else if (arg.equals("--year")) {
+                    year = args[++i];
+                } else if (arg.equals("--tick")) {
+                    tick = args[++i];
+                } else {
+                    throw new IllegalArgumentException("unexpected argument " + arg);
+                }
+            }
+            if (type == null || zoneId == null || year == null) {
+                throw new IllegalArgumentException("--type, --zone, and --year are required");
+            }
+
+            int conveyanceType = DateCodes.conveyanceType(type);
+            if (conveyanceType == DateCodes.UNKNOWN) {
+                throw new IllegalArgumentException("unknown conveyance type " + type);
+            }
+            TimeZone zone = TimeZone.getTimeZone(zoneId);
+            if (!zone.getID().equals(zoneId)) {
+                throw new IllegalArgumentException("unknown zone " + zoneId);
+            }
+
+            ScheduleSimulation simulation = new ScheduleSimulation(conveyanceType, zone);
+            if (tick != null) simulation.setTickMillis(Long.parseLong(tick) * 1000);
+            int replayYear = Integer.parseInt(year);
+            simulation.run(startOfYear(zone, replayYear), startOfYear(zone, replayYear + 1));
+
+            Writer out = new OutputStreamWriter(System.out, "US-ASCII");
+            simulation.writeReport(out);
+            out.flush();
+            if (simulation.getMismatches() != 0) System.exit(1);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            usage("missing value for " + args[args.length - 1]);
+        } catch (IllegalArgumentException e) {
+            usage(e.getMessage());
+        } catch (IOException e) {
+            System.err.println("simulateschedule: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static long startOfYear(TimeZone zone, int year) {
+        return Zones.toUtcMillis(zone, DateCodes.epochDayOf(year, 1, 1) * DateCodes.MILLIS_PER_DAY);
+    }
+
+    private static void usage(String message) {
+        System.err.println("simulateschedule: " + message);
+        System.err.print(USAGE);
+        System.exit(2);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.cli;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * Accepts connections on a loopback port, one at a time, and reads events from each until it is
+ * closed. A consumer that falls behind stops the reads, and TCP flow control then blocks the
+ * sender. A line left unterminated by a closing connection is terminated, so it is not joined to
+ * the first line of the next connection.
+ */
+final class SocketSource implements EventSource {
+    private final ServerSocket serverSocket;
+    private volatile Socket socket;
+    private InputStream in;
+    private byte lastByte = '\n';
+
+    SocketSource(int port) throws IOException {
+        serverSocket = new ServerSocket(port, 1, InetAddress.getLoopbackAddress());
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public int read(byte[] dst, int offset, int length, boolean block) throws IOException {
+        while (true) {
+            if (in == null) {
+                if (!block) return 0;
+                socket = serverSocket.accept();
+                in = socket.getInputStream();
+            }
+            if (!block && in.available() == 0) return 0;
+
+            int read = in.read(dst, offset, length);
+            if (read > 0) {
+                lastByte = dst[offset + read - 1];
+                return read;
+            }
+
+            socket.close();
+            in = null;
+            if (lastByte != '\n') {
+                lastByte = '\n';
+                dst[offset] = '\n';
+                return 1;
+            }
+        }
+    }
+
+    @Override
+    public long getLagBytes() throws IOException {
+        return in == null ? 0 : in.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        if (socket != null) socket.close();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.cli;
+
+import com.bfemmer.datecodes.LatencyHistogram;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counters of an {@link EventPipeline}, updated once per batch by its threads and read by
+ * whoever reports them. Lag is the time from reading an event to writing it out enriched, kept
+ * in microseconds since the last report.
+ */
+final class StreamStats {
+    private final LatencyHistogram lag = new LatencyHistogram();
+    private final long startNanos = System.nanoTime();
+    private long events;
+    private long invalidEvents;
+    private long batches;
+    private long bytes;
+    private long backpressureWaits;
+    private long backpressureNanos;
+    private long lagBytes;
+
+    private long lastReportNanos = startNanos;
+    private long lastReportEvents;
+
+    synchronized void recordBatch(int count, int invalid, int byteCount, long lagNanos) {
+        events += count;
+        invalidEvents += invalid;
+        batches++;
+        bytes += byteCount;
+        lag.recordValue(TimeUnit.NANOSECONDS.toMicros(lagNanos));
+    }
+
+    /**
+     * Records that the reader had to wait for the encoder to free a batch.
+     */
+    synchronized void recordBackpressure(long waitNanos) {
+        backpressureWaits++;
+        backpressureNanos += waitNanos;
+    }
+
+    synchronized void setLagBytes(long lagBytes) {
+        this.lagBytes = lagBytes;
+    }
+
+    synchronized long getEvents() {
+        return events;
+    }
+
+    synchronized long getInvalidEvents() {
+        return invalidEvents;
+    }
+
+    synchronized long getBatches() {
+        return batches;
+    }
+
+    synchronized long getBackpressureWaits() {
+        return backpressureWaits;
+    }
+
+    synchronized long getLagBytes() {
+        return lagBytes;
+    }
+
+    /**
+     * @return one line with the throughput and lag since the previous report and the totals so
+     * far; starts a new reporting interval
+     */
+    synchronized String getReport() {
+        long now = System.nanoTime();
+        double intervalSeconds = (now - lastReportNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        double totalSeconds = (now - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        String report = String.format(Locale.US,
+                "%.0f events/s, lag p50 %.1f p99 %.1f max %.1f ms, %d bytes behind; "
+                        + "total %d events (%d invalid) in %d batches, %.0f events/s, "
+                        + "%d MB, backpressure %d waits %.2f s",
+                intervalSeconds == 0 ? 0 : (events - lastReportEvents) / intervalSeconds,
+                lag.getValueAtPercentile(50) / 1000.0, lag.getValueAtPercentile(99) / 1000.0,
+                lag.getMaxValue() / 1000.0, lagBytes,
+                events, invalidEvents, batches, totalSeconds == 0 ? 0 : events / totalSeconds,
+                bytes / (1024 * 1024), backpressureWaits,
+                backpressureNanos / (double) TimeUnit.SECONDS.toNanos(1));
+        lastReportNanos = now;
+        lastReportEvents = events;
+        lag.reset();
+        return report;
+    }
+}
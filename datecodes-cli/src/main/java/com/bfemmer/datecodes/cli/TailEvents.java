@@ -0,0 +1,153 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.cli;
+
+import com.bfemmer.datecodes.DateCodes;
+
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Command line entry point: follows a shipment-event log, a pipe, or a loopback socket and writes
+ * every event line back out followed by the date code of its timestamp as soon as it arrives.
+ * Throughput and lag are reported to standard error.
+ */
+public final class TailEvents {
+    private static final String USAGE =
+            "usage: tailevents (--columns START:LENGTH | --delimiter CHAR --field N)\n"
+                    + "                  [--type TYPE] [--from-start] [--output FILE]\n"
+                    + "                  [--stats SECONDS] (FILE | - | --listen PORT)\n"
+                    + "\n"
+                    + "  --columns START:LENGTH  timestamp is in a fixed column range (first column is 1)\n"
+                    + "  --delimiter CHAR        fields are separated by CHAR ('tab' for a tab)\n"
+                    + "  --field N               timestamp is field N (first field is 1)\n"
+                    + "  --type TYPE             Air, Surface, or Ocean (default Air)\n"
+                    + "  --from-start            also encode the lines already in FILE\n"
+                    + "  --output FILE           append to FILE instead of standard output\n"
+                    + "  --stats SECONDS         report throughput and lag every SECONDS\n"
+                    + "                          (default 10, 0 for never)\n"
+                    + "  -                       read standard input or a pipe until it ends\n"
+                    + "  --listen PORT           read connections to localhost:PORT one at a time\n"
+                    + "\n"
+                    + "Timestamps are epoch milliseconds or ISO 8601 date-times.\n";
+
+    private TailEvents() {
+    }
+
+    public static void main(String[] args) {
+        String columns = null;
+        String delimiter = null;
+        String field = null;
+        String type = "Air";
+        String output = null;
+        String statsSeconds = "10";
+        String listen = null;
+        String input = null;
+        boolean fromStart = false;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--columns")) {
+                    columns = args[++i];
+                } else if (arg.equals("--delimiter")) {
+                    delimiter = args[++i];
+                } else if (arg.equals("--field")) {
+                    field = args[++i];
+                } else if (arg.equals("--type")) {
+                    type = args[++i];
+                } else if (arg.equals("--from-start")) {
+                    fromStart = true;
+                } else if (arg.equals("--output")) {
+                    output = args[++i];
+                } else if (arg.equals("--stats")) {
+                    statsSeconds = args[++i];
+                } else if (arg.equals("--listen")) {
+                    listen = args[++i];
+                } else if ((arg.startsWith("--") && !arg.equals("-")) || input != null) {
+                    throw new IllegalArgumentException("unexpected argument " + arg);
+                } else {
+                    input = arg;
+                }
+            }
+            if ((input == null) == (listen == null)) {
+                throw new IllegalArgumentException("give either an input or --listen");
+            }
+
+            FieldSelector selector = DecodeFile.parseSelector(columns, delimiter, field);
+            int conveyanceType = DateCodes.conveyanceType(type);
+            if (conveyanceType == DateCodes.UNKNOWN) {
+                throw new IllegalArgumentException("unknown conveyance type " + type);
+            }
+            long statsInterval = TimeUnit.SECONDS.toNanos(Long.parseLong(statsSeconds));
+
+            EventSource source = openSource(input, listen, fromStart);
+            EventPipeline pipeline = new EventPipeline(source, selector, conveyanceType);
+            if (statsInterval > 0) pipeline.setStatsOutput(System.err, statsInterval);
+            run(pipeline, output);
+            if (statsInterval > 0) System.err.println(pipeline.getStats().getReport());
+        } catch (ArrayIndexOutOfBoundsException e) {
+            usage("missing value for " + args[args.length - 1]);
+        } catch (IllegalArgumentException e) {
+            usage(e.getMessage());
+        } catch (IOException e) {
+            System.err.println("tailevents: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static EventSource openSource(String input, String listen, boolean fromStart)
+            throws IOException {
+        if (listen != null) return new SocketSource(Integer.parseInt(listen));
+        if (input.equals("-")) return new StreamSource(System.in);
+
+        File file = new File(input);
+        if (file.isFile()) {
+            return new FileTailSource(file, fromStart, FileTailSource.DEFAULT_POLL_MILLIS);
+        }
+        // Named pipe
+        return new StreamSource(new FileInputStream(file));
+    }
+
+    private static void run(EventPipeline pipeline, String output) throws IOException {
+        // Unbuffered, so every batch reaches the output as soon as it is encoded
+        FileOutputStream out = output == null
+                ? new FileOutputStream(FileDescriptor.out) : new FileOutputStream(output, true);
+        try {
+            pipeline.run(out.getChannel());
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void usage(String message) {
+        System.err.println("tailevents: " + message);
+        System.err.print(USAGE);
+        System.exit(2);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.cli;
+
+import com.bfemmer.datecodes.DateCodeBuilderFactory;
+import com.bfemmer.datecodes.DateCodes;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class EventPipelineTest {
+    private static final FieldSelector SECOND_FIELD = FieldSelector.delimited((byte) ',', 2);
+
+    private final TimeZone defaultZone = DateCodeBuilderFactory.getTimeZone();
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        DateCodeBuilderFactory.setTimeZone(TimeZone.getTimeZone("UTC"));
+        file = File.createTempFile("events", ".log");
+    }
+
+    @After
+    public void tearDown() {
+        DateCodeBuilderFactory.setTimeZone(defaultZone);
+        file.delete();
+    }
+
+    private static EventSource stream(String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.US_ASCII);
+        return new StreamSource(new ByteArrayInputStream(bytes));
+    }
+
+    private static String lines(String prefix, int count) {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            content.append(prefix).append(i).append(",2016-02-29T13:00Z\n");
+        }
+        return content.toString();
+    }
+
+    private void append(String content) throws IOException {
+        FileOutputStream out = new FileOutputStream(file, true);
+        try {
+            out.write(content.getBytes(StandardCharsets.US_ASCII));
+        } finally {
+            out.close();
+        }
+    }
+
+    @Test
+    public void appendsCodeOfEachTimestamp() throws IOException {
+        // Batches of two short lines, so lines are split across batches
+        EventPipeline pipeline = new EventPipeline(stream("E1,1456704000000\n"
+                + "E2,2016-02-29T13:45:10.5Z\r\n"
+                + "E3,2016-02-29 08:00-05:00,LOAD\n"
+                + "E4,2016-02-30T08:00Z\n"
+                + "E5\n"
+                + "E6,2016-02-29T23:00"), SECOND_FIELD, DateCodes.AIR, 32, 2, 1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        pipeline.run(Channels.newChannel(out));
+
+        assertEquals("E1,1456704000000,A60\n"
+                + "E2,2016-02-29T13:45:10.5Z,P60\n"
+                + "E3,2016-02-29 08:00-05:00,LOAD,P60\n"
+                + "E4,2016-02-30T08:00Z,INVALID\n"
+                + "E5,INVALID\n"
+                + "E6,2016-02-29T23:00,Z60\n",
+                new String(out.toByteArray(), StandardCharsets.US_ASCII));
+        assertEquals(6, pipeline.getStats().getEvents());
+        assertEquals(2, pipeline.getStats().getInvalidEvents());
+    }
+
+    @Test
+    public void rejectsLineLongerThanBatch() {
+        EventPipeline pipeline = new EventPipeline(stream(lines("LONG-EVENT-", 1)),
+                SECOND_FIELD, DateCodes.SURFACE, 16, 4, 1);
+        try {
+            pipeline.run(Channels.newChannel(new ByteArrayOutputStream()));
+            fail();
+        } catch (IOException e) {
+            assertEquals("line longer than 16 bytes", e.getMessage());
+        }
+    }
+
+    @Test
+    public void waitsForSlowOutputInsteadOfBuffering() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WritableByteChannel slowOut = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                int length = src.remaining();
+                out.write(src.array(), src.position(), length);
+                src.position(src.limit());
+                return length;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        EventPipeline pipeline = new EventPipeline(stream(lines("E", 500)),
+                SECOND_FIELD, DateCodes.OCEAN, 1024, 4, 2);
+        pipeline.run(slowOut);
+
+        assertEquals(lines("E", 500).replace("Z\n", "Z,6060\n"),
+                new String(out.toByteArray(), StandardCharsets.US_ASCII));
+        assertEquals(500, pipeline.getStats().getEvents());
+        assertTrue(pipeline.getStats().getBackpressureWaits() > 0);
+    }
+
+    @Test
+    public void tailsLinesAppendedToFile() throws Exception {
+        append(lines("OLD", 3));
+        FileTailSource source = new FileTailSource(file, false, 10);
+        final EventPipeline pipeline = new EventPipeline(source, SECOND_FIELD, DateCodes.SURFACE);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    pipeline.run(Channels.newChannel(out));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        thread.start();
+
+        append("NEW0,2016-02-29T13:00Z\nNEW1,");
+        append("2016-12-31T23:59Z\n");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pipeline.getStats().getEvents() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        pipeline.stop();
+        thread.join();
+
+        assertEquals("NEW0,2016-02-29T13:00Z,060\nNEW1,2016-12-31T23:59Z,366\n",
+                new String(out.toByteArray(), StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.cli;
+
+import com.bfemmer.datecodes.DecodeTable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class ManifestDecoderTest {
+    private final DecodeTable table = new DecodeTable(2016);
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("manifest", ".txt");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    private String decode(FieldSelector selector, String content, int windowSize)
+            throws IOException {
+        FileOutputStream writer = new FileOutputStream(file);
+        writer.write(content.getBytes(StandardCharsets.US_ASCII));
+        writer.close();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RandomAccessFile in = new RandomAccessFile(file, "r");
+        try {
+            new ManifestDecoder(selector, table, windowSize)
+                    .decode(in.getChannel(), Channels.newChannel(out));
+        } finally {
+            in.close();
+        }
+        return new String(out.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    public void decodesDelimitedField() throws IOException {
+        String output = decode(FieldSelector.delimited((byte) ',', 2),
+                "W1,060,X\nW2, 6060 ,X\r\nW3,,X\nW4,B05", ManifestDecoder.DEFAULT_WINDOW_SIZE);
+
+        assertEquals("W1,060,X,2016-02-29 00:00\n"
+                + "W2, 6060 ,X,2016-02-29 00:00\r\n"
+                + "W3,,X,INVALID\n"
+                + "W4,B05,2015-11-01 01:00Z;2016-01-05 01:00Z;2016-04-14 01:00Z;"
+                + "2016-07-23 01:00Z;2016-10-31 01:00Z", output);
+    }
+
+    @Test
+    public void decodesColumnsAcrossWindows() throws IOException {
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 1; i <= 200; i++) {
+            String dayOfYear = String.format("%03d", i);
+            input.append("REC").append(dayOfYear).append("  ").append(dayOfYear).append('\n');
+            expected.append("REC").append(dayOfYear).append("  ").append(dayOfYear)
+                    .append('\t').append("2016-").append(monthDay(i))
+                    .append(" 00:00\n");
+        }
+
+        assertEquals(expected.toString(),
+                decode(FieldSelector.columns(7, 5), input.toString(), 64));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsLineLongerThanWindow() throws IOException {
+        decode(FieldSelector.columns(1, 3), "060 and then a very long line\n060\n", 8);
+    }
+
+    private static String monthDay(int dayOfYear) {
+        int[] lengths = {31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+        int month = 0;
+        while (dayOfYear > lengths[month]) dayOfYear -= lengths[month++];
+        return String.format("%02d-%02d", month + 1, dayOfYear);
+    }
+}
@@ -0,0 +1,178 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.server;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embeddable HTTP service giving other systems the codes and dates {@code DateCodeBuilderFactory}
+ * produces, on the JDK's built-in server.
+ *
+ * Endpoints: {@code /encode}, {@code /encode/batch}, {@code /decode}, {@code /decode/batch}, and
+ * {@code /metrics}; see {@link EncodeEndpoint} and {@link DecodeEndpoint}. Batch bodies are either
+ * a JSON array (with {@code Content-Type: application/json}) or one item per line, and responses
+ * are JSON when the request body is JSON, the client accepts JSON, or {@code format=json} is
+ * passed.
+ *
+ * Connections are kept alive between requests. The server's selector thread accepts and reads
+ * requests and hands them to a small fixed pool, since handlers never block on anything but the
+ * client.
+ *
+ * The JDK server reads its settings once, when it first loads. {@link #main} defaults
+ * {@code sun.net.httpserver.nodelay} to true and {@code sun.net.httpserver.maxIdleConnections} to
+ * 1000; applications embedding the server should pass them as {@code -D} flags to the launcher.
+ * Without TCP_NODELAY, small keep-alive responses can wait on delayed acknowledgements for tens of
+ * milliseconds.
+ */
+public final class DateCodeServer {
+    public static final int DEFAULT_PORT = 8484;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ServerMetrics metrics = new ServerMetrics();
+
+    /**
+     * @param address address to listen on; port 0 picks a free port
+     * @param threads number of request handler threads
+     */
+    public DateCodeServer(InetSocketAddress address, int threads) throws IOException {
+        server = HttpServer.create(address, 0);
+        executor = Executors.newFixedThreadPool(threads, new HandlerThreadFactory());
+        server.setExecutor(executor);
+
+        Endpoint[] endpoints = {
+                new EncodeEndpoint(metrics, false),
+                new EncodeEndpoint(metrics, true),
+                new DecodeEndpoint(metrics, false),
+                new DecodeEndpoint(metrics, true),
+                new MetricsEndpoint(metrics)
+        };
+        for (Endpoint endpoint : endpoints) {
+            server.createContext("/" + endpoint.getName(), endpoint);
+        }
+    }
+
+    private static void setDefaultProperty(String key, String value) {
+        if (System.getProperty(key) == null) System.setProperty(key, value);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting connections, waits up to {@code delaySeconds} for exchanges in progress, and
+     * stops the handler threads.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * @return report of request counts and latency percentiles per endpoint, as served at
+     * {@code /metrics}
+     */
+    public String getMetricsReport() {
+        return metrics.getReport();
+    }
+
+    ServerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Usage: {@code datecode-server [--bind ADDRESS] [--port PORT] [--threads N]}. Listens on the
+     * loopback interface unless an address (e.g. 0.0.0.0 for the LAN) is given.
+     */
+    public static void main(String[] args) throws IOException {
+        // Must be set before the first server is created; -D flags take precedence
+        setDefaultProperty("sun.net.httpserver.nodelay", "true");
+        setDefaultProperty("sun.net.httpserver.maxIdleConnections", "1000");
+
+        InetAddress bind = InetAddress.getLoopbackAddress();
+        int port = DEFAULT_PORT;
+        int threads = Runtime.getRuntime().availableProcessors() * 2;
+
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                usage();
+            } else if (args[i].equals("--bind")) {
+                bind = InetAddress.getByName(args[i + 1]);
+            } else if (args[i].equals("--port")) {
+                port = Integer.parseInt(args[i + 1]);
+            } else if (args[i].equals("--threads")) {
+                threads = Integer.parseInt(args[i + 1]);
+            } else {
+                usage();
+            }
+        }
+
+        final DateCodeServer server = new DateCodeServer(new InetSocketAddress(bind, port), threads);
+        server.start();
+        System.err.println("listening on " + server.getAddress());
+
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                server.stop(1);
+                System.err.print(server.getMetricsReport());
+            }
+        });
+    }
+
+    private static void usage() {
+        System.err.println("usage: datecode-server [--bind ADDRESS] [--port PORT] [--threads N]");
+        System.exit(2);
+    }
+
+    private static final class HandlerThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "datecode-server-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.server;
+
+import com.bfemmer.datecodes.DateCodeBuilderFactory;
+import com.bfemmer.datecodes.DateCodeParser;
+import com.bfemmer.datecodes.DateCodes;
+import com.bfemmer.datecodes.DecodeTable;
+import com.bfemmer.datecodes.Zones;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * {@code /decode?code=Z53&zone=America/New_York&year=2016} returns every instant (UTC epoch
+ * milliseconds) the code may stand for; {@code /decode/batch} does the same for each code in the
+ * body. The conveyance type is inferred from the format of each code, and codes are decoded
+ * relative to the current time of {@link DateCodeBuilderFactory#getClock()} in the zone, or to
+ * the whole of {@code year} if it is given.
+ *
+ * Each result is a line of the code, a tab, and comma-separated instants or {@code INVALID} and
+ * the reason, or with JSON an object with {@code code}, {@code type}, and {@code dates}, or
+ * {@code code} and {@code error}.
+ */
+final class DecodeEndpoint extends Endpoint {
+    private static final String[] STATUS_NAMES = {"ok", "empty", "length", "format", "range"};
+
+    private final boolean batch;
+
+    DecodeEndpoint(ServerMetrics metrics, boolean batch) {
+        super(batch ? "decode/batch" : "decode", metrics);
+        this.batch = batch;
+    }
+
+    @Override
+    void respond(Request request, StringBuilder body) throws IOException {
+        if (!request.getSubPath().isEmpty()) throw new IllegalArgumentException("unknown path");
+
+        TimeZone zone = getZone(request);
+        String year = request.getParameter("year");
+        long now = DateCodeBuilderFactory.getClock().currentTimeMillis();
+        DecodeTable table = year != null
+                ? DecodeTable.forYear((int) parseLong("year", year))
+                : DecodeTable.forInstant(zone, now);
+
+        List<String> codes;
+        if (batch) {
+            codes = request.readItems();
+        } else {
+            String code = request.getParameter("code");
+            if (code == null) throw new IllegalArgumentException("missing code parameter");
+            codes = Collections.singletonList(code);
+        }
+
+        boolean json = request.isJson();
+        int[] hours = new int[DateCodes.MAX_CANDIDATES];
+        if (json && batch) body.append('[');
+        for (int i = 0; i < codes.size(); i++) {
+            String code = codes.get(i);
+            int result = DateCodeParser.parse(code, table, hours, 0);
+            if (json) {
+                if (i > 0) body.append(',');
+                appendJson(body, code, result, hours, zone);
+            } else {
+                appendLine(body, code, result, hours, zone);
+            }
+        }
+        if (json && batch) body.append(']');
+    }
+
+    private static void appendLine(StringBuilder body, String code, int result, int[] hours,
+                                   TimeZone zone) {
+        body.append(code).append('\t');
+        if (DateCodeParser.isValid(result)) {
+            for (int i = 0; i < DateCodeParser.count(result); i++) {
+                if (i > 0) body.append(',');
+                body.append(Zones.codeHourToUtcMillis(DateCodeParser.type(result), zone,
+                        hours[i]));
+            }
+        } else {
+            body.append("INVALID ").append(STATUS_NAMES[DateCodeParser.status(result)]);
+        }
+        body.append('\n');
+    }
+
+    private static void appendJson(StringBuilder body, String code, int result, int[] hours,
+                                   TimeZone zone) {
+        body.append("{\"code\":");
+        JsonArrays.appendString(body, code);
+        if (DateCodeParser.isValid(result)) {
+            body.append(",\"type\":\"")
+                    .append(DateCodes.conveyanceName(DateCodeParser.type(result)))
+                    .append("\",\"dates\":[");
+            for (int i = 0; i < DateCodeParser.count(result); i++) {
+                if (i > 0) body.append(',');
+                body.append(Zones.codeHourToUtcMillis(DateCodeParser.type(result), zone,
+                        hours[i]));
+            }
+            body.append("]}");
+        } else {
+            body.append(",\"error\":\"")
+                    .append(STATUS_NAMES[DateCodeParser.status(result)]).append("\"}");
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.server;
+
+import com.bfemmer.datecodes.BatchEncoder;
+import com.bfemmer.datecodes.DateCodeBuilderFactory;
+import com.bfemmer.datecodes.DateCodes;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * {@code /encode?type=Air&zone=America/New_York&time=1456790400000} returns the code of one
+ * instant (now by {@link DateCodeBuilderFactory#getClock()} if {@code time} is left out);
+ * {@code /encode/batch} returns the codes of the epoch milliseconds in the body, in order. The zone defaults to the server's zone.
+ */
+final class EncodeEndpoint extends Endpoint {
+    private final boolean batch;
+
+    EncodeEndpoint(ServerMetrics metrics, boolean batch) {
+        super(batch ? "encode/batch" : "encode", metrics);
+        this.batch = batch;
+    }
+
+    @Override
+    void respond(Request request, StringBuilder body) throws IOException {
+        if (!request.getSubPath().isEmpty()) throw new IllegalArgumentException("unknown path");
+
+        int type = getConveyanceType(request);
+        TimeZone zone = getZone(request);
+
+        long[] timesInMillis;
+        if (batch) {
+            List<String> items = request.readItems();
+            timesInMillis = new long[items.size()];
+            for (int i = 0; i < timesInMillis.length; i++) {
+                timesInMillis[i] = parseLong("time", items.get(i));
+            }
+        } else {
+            String time = request.getParameter("time");
+            timesInMillis = new long[]{time == null
+                    ? DateCodeBuilderFactory.getClock().currentTimeMillis()
+                    : parseLong("time", time)};
+        }
+
+        int length = DateCodes.codeLength(type);
+        char[] codes = new char[timesInMillis.length * length];
+        BatchEncoder.encode(type, zone, timesInMillis, 0, timesInMillis.length, codes, 0);
+
+        boolean json = request.isJson();
+        if (json) body.append(batch ? "[" : "{\"code\":");
+        for (int i = 0; i < timesInMillis.length; i++) {
+            if (json) {
+                if (i > 0) body.append(',');
+                body.append('"').append(codes, i * length, length).append('"');
+            } else {
+                body.append(codes, i * length, length).append('\n');
+            }
+        }
+        if (json) body.append(batch ? "]" : "}");
+    }
+}
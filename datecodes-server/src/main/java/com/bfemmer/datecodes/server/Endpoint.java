@@ -0,0 +1,152 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.server;
+
+import com.bfemmer.datecodes.DateCodeBuilderFactory;
+import com.bfemmer.datecodes.DateCodes;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.nio.charset.Charset;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Base handler: times the exchange, turns {@link IllegalArgumentException}s into 400 responses
+ * (413 for a body over {@link Request#MAX_BODY_BYTES}), and always sends a fixed length response
+ * so the connection can be kept alive.
+ */
+abstract class Endpoint implements HttpHandler {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // TimeZone.getTimeZone is synchronized and slow, and zone ids repeat from request to request
+    private static final ConcurrentMap<String, TimeZone> zones =
+            new ConcurrentHashMap<String, TimeZone>();
+
+    private final String name;
+    private final ServerMetrics metrics;
+
+    Endpoint(String name, ServerMetrics metrics) {
+        this.name = name;
+        this.metrics = metrics;
+        metrics.register(name);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Writes the response body for a request.
+     *
+     * @throws IllegalArgumentException if the request is not valid
+     */
+    abstract void respond(Request request, StringBuilder body) throws IOException;
+
+    /**
+     * @return whether the response body is JSON
+     */
+    boolean isJsonResponse(Request request) {
+        return request.isJson();
+    }
+
+    /**
+     * @return zone named by the {@code zone} parameter, or the zone of
+     * {@link DateCodeBuilderFactory} if there is none
+     */
+    static TimeZone getZone(Request request) {
+        String id = request.getParameter("zone");
+        if (id == null) return DateCodeBuilderFactory.getTimeZone();
+
+        TimeZone zone = zones.get(id);
+        if (zone == null) {
+            zone = TimeZone.getTimeZone(id);
+            if (!zone.getID().equals(id)) throw new IllegalArgumentException("unknown zone " + id);
+            zones.putIfAbsent(id, zone);
+        }
+        return zone;
+    }
+
+    /**
+     * @return conveyance type named by the {@code type} parameter, Air if there is none
+     */
+    static int getConveyanceType(Request request) {
+        String name = request.getParameter("type");
+        if (name == null) return DateCodes.AIR;
+
+        int type = DateCodes.conveyanceType(name);
+        if (type == DateCodes.UNKNOWN) throw new IllegalArgumentException("unknown type " + name);
+        return type;
+    }
+
+    static long parseLong(String name, String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a number: " + value);
+        }
+    }
+
+    @Override
+    public final void handle(HttpExchange exchange) throws IOException {
+        long startNanos = System.nanoTime();
+        boolean error = true;
+        try {
+            Request request = null;
+            StringBuilder body = new StringBuilder();
+            int status = HttpURLConnection.HTTP_OK;
+            try {
+                // Malformed query escapes are rejected while parsing the request
+                request = new Request(exchange);
+                respond(request, body);
+                error = false;
+            } catch (Request.BodyTooLargeException e) {
+                status = HttpURLConnection.HTTP_ENTITY_TOO_LARGE;
+                body.setLength(0);
+                body.append(e.getMessage()).append('\n');
+            } catch (IllegalArgumentException e) {
+                status = HttpURLConnection.HTTP_BAD_REQUEST;
+                body.setLength(0);
+                body.append(e.getMessage()).append('\n');
+            }
+
+            byte[] bytes = body.toString().getBytes(UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", (!error && isJsonResponse(request)
+                    ? "application/json" : "text/plain") + "; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+            if (bytes.length > 0) {
+                OutputStream out = exchange.getResponseBody();
+                out.write(bytes);
+                out.close();
+            }
+        } finally {
+            exchange.close();
+            metrics.record(name, System.nanoTime() - startNanos, error);
+        }
+    }
+}
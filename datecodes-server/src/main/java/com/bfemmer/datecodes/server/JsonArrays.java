@@ -0,0 +1,120 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.server;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Just enough JSON for the batch endpoints: reading a flat array of strings or numbers, and
+ * writing strings.
+ */
+final class JsonArrays {
+    private JsonArrays() {
+    }
+
+    /**
+     * @return elements of the array; numbers are returned as written
+     * @throws IllegalArgumentException if the text is not a flat array of strings and numbers
+     */
+    static List<String> parse(String json) {
+        List<String> values = new ArrayList<String>();
+        int i = skipWhitespace(json, 0);
+        if (i == json.length() || json.charAt(i) != '[') throw malformed(json);
+        i = skipWhitespace(json, i + 1);
+        if (i < json.length() && json.charAt(i) == ']') {
+            return checkEnd(json, i + 1, values);
+        }
+
+        while (i < json.length()) {
+            StringBuilder value = new StringBuilder();
+            if (json.charAt(i) == '"') {
+                i++;
+                while (i < json.length() && json.charAt(i) != '"') {
+                    char c = json.charAt(i++);
+                    if (c == '\\') {
+                        if (i == json.length()) throw malformed(json);
+                        c = json.charAt(i++);
+                        if (c == 'u') {
+                            if (i + 4 > json.length()) throw malformed(json);
+                            c = (char) Integer.parseInt(json.substring(i, i + 4), 16);
+                            i += 4;
+                        } else if (c == 'n') {
+                            c = '\n';
+                        } else if (c == 't') {
+                            c = '\t';
+                        } else if (c == 'r') {
+                            c = '\r';
+                        }
+                    }
+                    value.append(c);
+                }
+                if (i == json.length()) throw malformed(json);
+                i++;
+            } else {
+                while (i < json.length() && "-+.eE0123456789".indexOf(json.charAt(i)) >= 0) {
+                    value.append(json.charAt(i++));
+                }
+                if (value.length() == 0) throw malformed(json);
+            }
+            values.add(value.toString());
+
+            i = skipWhitespace(json, i);
+            if (i == json.length()) break;
+            if (json.charAt(i) == ']') return checkEnd(json, i + 1, values);
+            if (json.charAt(i) != ',') break;
+            i = skipWhitespace(json, i + 1);
+        }
+        throw malformed(json);
+    }
+
+    static void appendString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    private static List<String> checkEnd(String json, int i, List<String> values) {
+        if (skipWhitespace(json, i) != json.length()) throw malformed(json);
+        return values;
+    }
+
+    private static int skipWhitespace(String json, int i) {
+        while (i < json.length() && Character.isWhitespace(json.charAt(i))) i++;
+        return i;
+    }
+
+    private static IllegalArgumentException malformed(String json) {
+        return new IllegalArgumentException("expected a JSON array of strings or numbers");
+    }
+}
@@ -0,0 +1,48 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.server;
+
+/**
+ * {@code /metrics} returns the request counts and latency percentiles of every endpoint;
+ * {@code /metrics?reset=true} also starts a new measurement period.
+ */
+final class MetricsEndpoint extends Endpoint {
+    private final ServerMetrics metrics;
+
+    MetricsEndpoint(ServerMetrics metrics) {
+        super("metrics", metrics);
+        this.metrics = metrics;
+    }
+
+    @Override
+    boolean isJsonResponse(Request request) {
+        return false;
+    }
+
+    @Override
+    void respond(Request request, StringBuilder body) {
+        body.append(metrics.getReport());
+        if ("true".equals(request.getParameter("reset"))) metrics.reset();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.server;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Query parameters, body, and preferred format of an exchange.
+ */
+final class Request {
+    private static final String JSON = "application/json";
+
+    /**
+     * Largest body read; batches beyond it are rejected with 413 rather than buffered.
+     */
+    static final int MAX_BODY_BYTES = 1 << 20;
+
+    private final HttpExchange exchange;
+    private final Map<String, String> parameters = new HashMap<String, String>();
+
+    Request(HttpExchange exchange) {
+        this.exchange = exchange;
+
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    parameters.put(decode(pair.substring(0, equals)),
+                            decode(pair.substring(equals + 1)));
+                }
+            }
+        }
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    String getMethod() {
+        return exchange.getRequestMethod();
+    }
+
+    /**
+     * @return path below the endpoint's context, e.g. "/batch", or "" for the endpoint itself
+     */
+    String getSubPath() {
+        String path = exchange.getRequestURI().getPath();
+        String context = exchange.getHttpContext().getPath();
+        return path.length() > context.length() ? path.substring(context.length()) : "";
+    }
+
+    String getParameter(String name) {
+        return parameters.get(name);
+    }
+
+    /**
+     * @return whether the body is JSON, or the client asked for a JSON response
+     */
+    boolean isJson() {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        return (contentType != null && contentType.startsWith(JSON))
+                || (accept != null && accept.contains(JSON))
+                || "json".equals(parameters.get("format"));
+    }
+
+    /**
+     * @return elements of a JSON array body, or the non-blank lines of any other body
+     */
+    List<String> readItems() throws IOException {
+        String body = readBody();
+        boolean json = exchange.getRequestHeaders().getFirst("Content-Type") != null
+                && exchange.getRequestHeaders().getFirst("Content-Type").startsWith(JSON);
+        if (json) return JsonArrays.parse(body);
+
+        List<String> items = new ArrayList<String>();
+        for (String line : body.split("\r?\n")) {
+            String item = line.trim();
+            if (!item.isEmpty()) items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * @throws BodyTooLargeException if the body is longer than {@link #MAX_BODY_BYTES}
+     */
+    private String readBody() throws IOException {
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (length != null && length.length() > 0
+                && Long.parseLong(length.trim()) > MAX_BODY_BYTES) {
+            throw new BodyTooLargeException();
+        }
+
+        // Chunked bodies have no length up front
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        InputStream in = exchange.getRequestBody();
+        for (int read; (read = in.read(buffer)) > 0; ) {
+            if (body.size() + read > MAX_BODY_BYTES) throw new BodyTooLargeException();
+            body.write(buffer, 0, read);
+        }
+        return body.toString("UTF-8");
+    }
+
+    /**
+     * Thrown when a body is longer than {@link #MAX_BODY_BYTES}; answered with 413.
+     */
+    static final class BodyTooLargeException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        BodyTooLargeException() {
+            super("body is longer than " + MAX_BODY_BYTES + " bytes");
+        }
+    }
+}
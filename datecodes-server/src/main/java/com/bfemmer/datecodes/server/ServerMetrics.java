@@ -0,0 +1,98 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.server;
+
+import com.bfemmer.datecodes.LatencyHistogram;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request count, error count, and latency histogram per endpoint. Latency is measured from the
+ * time a handler starts until its response has been written. Thread-safe.
+ */
+final class ServerMetrics {
+    private final Map<String, EndpointMetrics> endpoints = new TreeMap<String, EndpointMetrics>();
+
+    synchronized void register(String endpoint) {
+        endpoints.put(endpoint, new EndpointMetrics());
+    }
+
+    void record(String endpoint, long elapsedNanos, boolean error) {
+        EndpointMetrics metrics;
+        synchronized (this) {
+            metrics = endpoints.get(endpoint);
+        }
+        synchronized (metrics) {
+            metrics.latency.recordValue(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+            if (error) metrics.errors++;
+        }
+    }
+
+    synchronized long getRequestCount(String endpoint) {
+        EndpointMetrics metrics = endpoints.get(endpoint);
+        synchronized (metrics) {
+            return metrics.latency.getTotalCount();
+        }
+    }
+
+    synchronized void reset() {
+        for (EndpointMetrics metrics : endpoints.values()) {
+            synchronized (metrics) {
+                metrics.latency.reset();
+                metrics.errors = 0;
+            }
+        }
+    }
+
+    /**
+     * One line per endpoint with its request and error counts and latency in microseconds.
+     */
+    synchronized String getReport() {
+        StringBuilder report = new StringBuilder(
+                "endpoint requests errors mean_us p50_us p90_us p99_us p99.9_us max_us\n");
+        for (Map.Entry<String, EndpointMetrics> entry : endpoints.entrySet()) {
+            EndpointMetrics metrics = entry.getValue();
+            synchronized (metrics) {
+                LatencyHistogram latency = metrics.latency;
+                report.append(String.format(Locale.US, "%s %d %d %.0f %d %d %d %d %d%n",
+                        entry.getKey(), latency.getTotalCount(), metrics.errors,
+                        latency.getMean(),
+                        latency.getValueAtPercentile(50),
+                        latency.getValueAtPercentile(90),
+                        latency.getValueAtPercentile(99),
+                        latency.getValueAtPercentile(99.9),
+                        latency.getMaxValue()));
+            }
+        }
+        return report.toString();
+    }
+
+    private static final class EndpointMetrics {
+        final LatencyHistogram latency = new LatencyHistogram();
+        long errors;
+    }
+}
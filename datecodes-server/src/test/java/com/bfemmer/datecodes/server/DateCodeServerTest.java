@@ -0,0 +1,195 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes.server;
+
+import com.bfemmer.datecodes.Clock;
+import com.bfemmer.datecodes.DateCodeBuilderFactory;
+import com.bfemmer.datecodes.DateCodes;
+import com.bfemmer.datecodes.SimulatedClock;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DateCodeServerTest {
+    private static final TimeZone ZONE = TimeZone.getTimeZone("America/New_York");
+
+    private DateCodeServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new DateCodeServer(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        URL url = new URL("http", "localhost", server.getAddress().getPort(), path);
+        return (HttpURLConnection) url.openConnection();
+    }
+
+    private static String read(HttpURLConnection connection) throws IOException {
+        InputStream in = connection.getResponseCode() < 400
+                ? connection.getInputStream() : connection.getErrorStream();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        for (int read; (read = in.read(buffer)) > 0; ) {
+            body.write(buffer, 0, read);
+        }
+        in.close();
+        return body.toString("UTF-8");
+    }
+
+    private String get(String path) throws IOException {
+        return read(open(path));
+    }
+
+    private String post(String path, String contentType, String body) throws IOException {
+        HttpURLConnection connection = open(path);
+        connection.setDoOutput(true);
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", contentType);
+        OutputStream out = connection.getOutputStream();
+        out.write(body.getBytes(StandardCharsets.UTF_8));
+        out.close();
+        return read(connection);
+    }
+
+    private static long utc(int year, int month, int day, int hour) {
+        long localMillis = (DateCodes.epochDayOf(year, month, day) * 24L + hour)
+                * DateCodes.MILLIS_PER_HOUR;
+        return localMillis - ZONE.getOffset(localMillis - ZONE.getRawOffset());
+    }
+
+    private static long zulu(int year, int month, int day, int hour) {
+        return (DateCodes.epochDayOf(year, month, day) * 24L + hour) * DateCodes.MILLIS_PER_HOUR;
+    }
+
+    @Test
+    public void encodesSingleAndBatch() throws IOException {
+        long leapDay = utc(2016, 2, 29, 13) + 1234;
+        // 7:47 PM EDT on June 1, 2016 is 2347Z on Julian day 153
+        assertEquals("Z53\n",
+                get("/encode?type=Air&zone=America/New_York&time=1464824820000"));
+        assertEquals("{\"code\":\"6060\"}",
+                get("/encode?type=ocean&zone=America/New_York&format=json&time=" + leapDay));
+
+        assertEquals("060\n061\n", post("/encode/batch?type=Surface&zone=America/New_York",
+                "text/plain", leapDay + "\n\n" + (leapDay + DateCodes.MILLIS_PER_DAY) + "\n"));
+        assertEquals("[\"Z53\",\"A54\"]", post("/encode/batch?zone=America/New_York",
+                "application/json", "[1464824820000, " + (1464824820000L + 3600000) + "]"));
+    }
+
+    @Test
+    public void decodesSingleAndBatch() throws IOException {
+        assertEquals("6060\t" + utc(2016, 2, 29, 0) + "\n",
+                get("/decode?code=6060&year=2016&zone=America/New_York"));
+
+        String lines = post("/decode/batch?year=2016&zone=America/New_York", "text/plain",
+                "060\nO01\n");
+        assertEquals("060\t" + utc(2016, 2, 29, 0) + "\nO01\tINVALID format\n", lines);
+
+        // Julian day 352 of 2015 and days 052, 152, 252, and 352 of 2016, at 0100Z
+        String json = post("/decode/batch?year=2016&zone=America/New_York",
+                "application/json", "[\"B52\", \"367\"]");
+        assertTrue(json, json.startsWith("[{\"code\":\"B52\",\"type\":\"Air\",\"dates\":["
+                + zulu(2015, 12, 18, 1) + "," + zulu(2016, 2, 21, 1) + ","));
+        assertTrue(json, json.endsWith(zulu(2016, 12, 17, 1) + "]},"
+                + "{\"code\":\"367\",\"error\":\"range\"}]"));
+    }
+
+    @Test
+    public void decodesRelativeToFactoryClock() throws IOException {
+        DateCodeBuilderFactory.setClock(new SimulatedClock(1464824820000L));
+        try {
+            // Only the candidates up to June 1, 2016
+            assertEquals("B52\t" + zulu(2015, 12, 18, 1) + "," + zulu(2016, 2, 21, 1) + ","
+                    + zulu(2016, 5, 31, 1) + "\n", get("/decode?code=B52&zone=America/New_York"));
+            assertEquals("Z53\n", get("/encode?zone=America/New_York"));
+        } finally {
+            DateCodeBuilderFactory.setClock(Clock.SYSTEM);
+        }
+    }
+
+    @Test
+    public void rejectsOversizedBody() throws IOException {
+        StringBuilder body = new StringBuilder();
+        while (body.length() <= Request.MAX_BODY_BYTES) {
+            body.append("1464824820000\n");
+        }
+        HttpURLConnection connection = open("/encode/batch");
+        connection.setDoOutput(true);
+        connection.setRequestMethod("POST");
+        OutputStream out = connection.getOutputStream();
+        out.write(body.toString().getBytes(StandardCharsets.UTF_8));
+        out.close();
+        assertEquals(413, connection.getResponseCode());
+    }
+
+    @Test
+    public void rejectsBadRequests() throws IOException {
+        HttpURLConnection connection = open("/encode?type=Rail");
+        assertEquals(400, connection.getResponseCode());
+        assertEquals("unknown type Rail\n", read(connection));
+
+        assertEquals(400, open("/decode?code=N29&zone=Mars/Olympus").getResponseCode());
+        assertEquals(400, open("/decode").getResponseCode());
+        assertEquals(400, open("/decode?code=%zz").getResponseCode());
+    }
+
+    @Test
+    public void recordsLatency() throws IOException, InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            get("/encode");
+        }
+        open("/encode?type=Rail").getResponseCode();
+
+        // Latency is recorded once the response is written, which may be after it is read
+        for (int i = 0; i < 100 && server.getMetrics().getRequestCount("encode") < 11; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(11, server.getMetrics().getRequestCount("encode"));
+        String report = get("/metrics");
+        assertTrue(report, report.contains("\nencode 11 1 "));
+    }
+}
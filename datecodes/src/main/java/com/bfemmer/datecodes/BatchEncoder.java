@@ -0,0 +1,103 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.util.TimeZone;
+
+/**
+ * Encodes arrays of timestamps, e.g. the ship and receive times of a whole manifest, into a
+ * caller-supplied buffer without allocating. Codes are written back to back at a fixed width of
+ * {@link DateCodes#codeLength(int)} characters, so the code of {@code timesInMillis[i]} starts at
+ * {@code offset + (i - from) * codeLength}.
+ *
+ * The day digits of a code ({@link DateCodes#dayDigits}) are only calculated when the day changes
+ * between consecutive timestamps, which makes sorted input cheaper still. See
+ * {@link ParallelEncoder} for batches large enough to be worth spreading across cores.
+ */
+public final class BatchEncoder {
+    private BatchEncoder() {
+    }
+
+    /**
+     * @param type conveyance type
+     * @param zone zone the codes are calculated in; not used for Air, whose codes are in Zulu time
+     * @param timesInMillis UTC epoch milliseconds
+     * @param from index of the first timestamp to encode
+     * @param to index after the last timestamp to encode
+     * @param dst destination for the codes
+     * @param offset index in {@code dst} of the first character written
+     * @return number of characters written
+     */
+    public static int encode(int type, TimeZone zone, long[] timesInMillis, int from, int to,
+                             char[] dst, int offset) {
+        return encode(type, zone, timesInMillis, from, to, dst, null, offset);
+    }
+
+    /**
+     * Same as {@link #encode(int, TimeZone, long[], int, int, char[], int)}, writing the codes as
+     * ASCII bytes.
+     */
+    public static int encode(int type, TimeZone zone, long[] timesInMillis, int from, int to,
+                             byte[] dst, int offset) {
+        return encode(type, zone, timesInMillis, from, to, null, dst, offset);
+    }
+
+    // Writes to whichever of chars and bytes is not null
+    private static int encode(int type, TimeZone zone, long[] timesInMillis, int from, int to,
+                              char[] chars, byte[] bytes, int offset) {
+        int length = DateCodes.codeLength(type);
+        boolean air = type == DateCodes.AIR;
+        ZoneOffsets offsets = DateCodes.isUtc(type) ? null : ZoneOffsets.forZone(zone);
+        int lastEpochDay = Integer.MIN_VALUE;
+        int digits = 0;
+
+        int position = offset;
+        for (int i = from; i < to; i++) {
+            long codeMillis = offsets == null
+                    ? timesInMillis[i] : offsets.toLocalMillis(timesInMillis[i]);
+            int epochDay = DateCodes.epochDay(codeMillis);
+            if (epochDay != lastEpochDay) {
+                digits = DateCodes.dayDigits(type, epochDay);
+                lastEpochDay = epochDay;
+            }
+
+            int end = position + length;
+            if (air) put(chars, bytes, position, DateCodes.hourCode(DateCodes.hourOfDay(codeMillis)));
+            for (int j = end - 1, value = digits; j >= (air ? position + 1 : position); j--) {
+                put(chars, bytes, j, (char) ('0' + value % 10));
+                value /= 10;
+            }
+            position = end;
+        }
+        return position - offset;
+    }
+
+    private static void put(char[] chars, byte[] bytes, int index, char c) {
+        if (chars != null) {
+            chars[index] = c;
+        } else {
+            bytes[index] = (byte) c;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.util.Arrays;
+import java.util.TimeZone;
+
+/**
+ * Reusable, column oriented alternative to the {@code List<Date>} returned by
+ * {@link DateCodeBuilder#getCalendarDatesForCode(String)}. The candidates of every code added are
+ * stored back to back as an epoch day and an hour of the day, in UTC for Air and local time for
+ * Surface and Ocean (see {@link DateCodes#decode}), and each code keeps the index of its first
+ * candidate, so decoding any number of codes into a cleared instance allocates
+ * nothing once its arrays have grown to fit.
+ *
+ * Instances are not thread-safe.
+ */
+public final class CalendarDates {
+    private static final int INITIAL_CODES = 16;
+
+    private int size;
+    private int[] codeStarts = new int[INITIAL_CODES + 1];
+    private int[] counts = new int[INITIAL_CODES];
+    private int[] epochDays = new int[INITIAL_CODES * DateCodes.MAX_CANDIDATES];
+    private byte[] hours = new byte[INITIAL_CODES * DateCodes.MAX_CANDIDATES];
+    private boolean[] utc = new boolean[INITIAL_CODES * DateCodes.MAX_CANDIDATES];
+
+    /**
+     * Removes every code, keeping the arrays for reuse.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return number of codes added since the last {@link #clear()}
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of candidates of all codes
+     */
+    public int getCandidateCount() {
+        return codeStarts[size];
+    }
+
+    /**
+     * @return number of candidates of a code, or {@link DateCodes#INVALID} if it is not valid
+     */
+    public int getCount(int code) {
+        checkCode(code);
+        return counts[code];
+    }
+
+    public boolean isValid(int code) {
+        return getCount(code) != DateCodes.INVALID;
+    }
+
+    /**
+     * @return index of the first candidate of a code, for {@link #getEpochDay(int)} and
+     * {@link #getHour(int)}
+     */
+    public int getStart(int code) {
+        checkCode(code);
+        return codeStarts[code];
+    }
+
+    /**
+     * @param candidate index of the candidate among all codes
+     * @return epoch day of the candidate, UTC for Air and local for Surface and Ocean
+     */
+    public int getEpochDay(int candidate) {
+        return epochDays[candidate];
+    }
+
+    /**
+     * @param candidate index of the candidate among all codes
+     * @return hour of the day of the candidate; always 0 for Surface and Ocean
+     */
+    public int getHour(int candidate) {
+        return hours[candidate];
+    }
+
+    /**
+     * @return epoch milliseconds at which the candidate starts; {@code zone} is only used for
+     * Surface and Ocean candidates, since Air candidates are already in UTC
+     */
+    public long getTimeInMillis(int candidate, TimeZone zone) {
+        long codeMillis = epochDays[candidate] * DateCodes.MILLIS_PER_DAY
+                + hours[candidate] * DateCodes.MILLIS_PER_HOUR;
+        return utc[candidate] ? codeMillis : Zones.toUtcMillis(zone, codeMillis);
+    }
+
+    /**
+     * Decodes a code with {@code table} and appends it with its candidates, oldest first. Invalid
+     * codes are appended with no candidates.
+     *
+     * @return number of candidates, or {@link DateCodes#INVALID} if the code is not valid
+     */
+    public int add(DecodeTable table, int type, CharSequence code) {
+        if (size == counts.length) {
+            counts = Arrays.copyOf(counts, size * 2);
+            codeStarts = Arrays.copyOf(codeStarts, size * 2 + 1);
+        }
+        int start = codeStarts[size];
+        if (start + DateCodes.MAX_CANDIDATES > epochDays.length) {
+            epochDays = Arrays.copyOf(epochDays, epochDays.length * 2);
+            hours = Arrays.copyOf(hours, hours.length * 2);
+            utc = Arrays.copyOf(utc, utc.length * 2);
+        }
+
+        // Decode epoch hours straight into the day column, then split them
+        int count = table.decode(type, code, epochDays, start);
+        for (int i = start; i < start + Math.max(count, 0); i++) {
+            int epochHour = epochDays[i];
+            epochDays[i] = (int) DateCodes.floorDiv(epochHour, DateCodes.HOURS_PER_DAY);
+            hours[i] = (byte) (epochHour - epochDays[i] * DateCodes.HOURS_PER_DAY);
+            utc[i] = DateCodes.isUtc(type);
+        }
+
+        counts[size] = count;
+        codeStarts[++size] = start + Math.max(count, 0);
+        return count;
+    }
+
+    private void checkCode(int code) {
+        if (code < 0 || code >= size) throw new IndexOutOfBoundsException("code " + code);
+    }
+}
@@ -0,0 +1,212 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Lazy iterator over every calendar date a code may represent within a window of epoch days, for
+ * codes that are not tied to a reference year (e.g. when auditing old documents). Days and hours
+ * are in the time of the conveyance type, as for {@link DateCodes#decode}: UTC for Air, local for
+ * Surface and Ocean. Candidates are produced in ascending order as epoch hours, one matching day
+ * of the year (Air) or one year (Surface and Ocean) at a time, so even a window of centuries is
+ * never materialized.
+ *
+ * Iterators can be split in the manner of a spliterator with {@link #trySplit()}; see
+ * {@link ParallelCandidates} for a fork-join traversal. Instances are not thread-safe.
+ */
+public final class CandidateIterator {
+    private static final int NONE = Integer.MIN_VALUE;
+
+    // An Air code matches up to four days of a year, 100 days apart
+    private static final int AIR_DAYS_PER_YEAR = 4;
+    private static final int AIR_DAY_STEP = 100;
+
+    private final int type;
+    private final int hour;
+    // Day of the year; the first one matching the code for Air
+    private final int day;
+    private final int fromEpochDay;
+    private final int toEpochDay;
+    private final int step;
+
+    // Year * 4 + index of the matching day in the year for Air, year for Surface and Ocean
+    private int period;
+    private int endPeriod;
+    private int nextEpochDay = NONE;
+
+    private CandidateIterator(int type, int hour, int day, int fromEpochDay, int toEpochDay,
+                              int period, int endPeriod, int step) {
+        this.type = type;
+        this.hour = hour;
+        this.day = day;
+        this.fromEpochDay = fromEpochDay;
+        this.toEpochDay = toEpochDay;
+        this.period = period;
+        this.endPeriod = endPeriod;
+        this.step = step;
+    }
+
+    /**
+     * Creates an iterator over the candidates of a code of any conveyance type (inferred as by
+     * {@link DateCodeParser}).
+     *
+     * @param code code to decode
+     * @param fromEpochDay first epoch day of the window
+     * @param toEpochDay last epoch day of the window, inclusive
+     * @return iterator, or null if the code is not valid
+     */
+    public static CandidateIterator forCode(CharSequence code, int fromEpochDay, int toEpochDay) {
+        int classified = DateCodeParser.classify(code);
+        if (!DateCodeParser.isValid(classified)) return null;
+
+        int type = DateCodeParser.type(classified);
+        if (!DateCodes.isWellFormed(type, code)) return null;
+
+        int fromYear = DateCodes.yearOf(fromEpochDay);
+        int toYear = DateCodes.yearOf(toEpochDay);
+
+        switch (type) {
+            case DateCodes.AIR: {
+                int hour = DateCodes.hourCodeIndex(code.charAt(0));
+                int firstDay = DateCodes.firstAirDayOfYear(DateCodes.parseDigits(code, 1, 2));
+                return new CandidateIterator(DateCodes.AIR, hour, firstDay, fromEpochDay,
+                        toEpochDay, fromYear * AIR_DAYS_PER_YEAR,
+                        toYear * AIR_DAYS_PER_YEAR + AIR_DAYS_PER_YEAR - 1, 1);
+            }
+            case DateCodes.SURFACE: {
+                int dayOfYear = DateCodes.parseDigits(code, 0, 3);
+                if (dayOfYear < 1 || dayOfYear > 366) return null;
+                return new CandidateIterator(DateCodes.SURFACE, 0, dayOfYear,
+                        fromEpochDay, toEpochDay, fromYear, toYear, 1);
+            }
+            default: {
+                int yearDigit = DateCodes.digit(code.charAt(0));
+                int dayOfYear = DateCodes.parseDigits(code, 1, 3);
+                if (dayOfYear < 1 || dayOfYear > 366) return null;
+                int firstYear = fromYear + DateCodes.floorMod10(yearDigit - fromYear);
+                return new CandidateIterator(DateCodes.OCEAN, 0, dayOfYear,
+                        fromEpochDay, toEpochDay, firstYear, toYear, 10);
+            }
+        }
+    }
+
+    /**
+     * @return first epoch day of the years {@link DateCodes#decode} searches for the conveyance
+     * type: the year before the reference year for Air (of which decode only keeps the last
+     * matching day), the reference year for Surface, and the nine years before it for Ocean
+     */
+    public static int defaultWindowStart(int type, int referenceYear) {
+        int years = type == DateCodes.AIR ? 1 : type == DateCodes.OCEAN ? 9 : 0;
+        return DateCodes.epochDayOf(referenceYear - years, 1, 1);
+    }
+
+    /**
+     * @param referenceDay reference day passed to {@link DateCodes#decode}, e.g.
+     *                     {@link DecodeTable#getReferenceDay(int)}
+     * @return last epoch day {@link DateCodes#decode} keeps: the reference day itself for Air,
+     * whose later candidates are dropped, and the end of the reference year otherwise
+     */
+    public static int defaultWindowEnd(int type, int referenceDay) {
+        return type == DateCodes.AIR
+                ? referenceDay : DateCodes.epochDayOf(DateCodes.yearOf(referenceDay), 12, 31);
+    }
+
+    public int getConveyanceType() {
+        return type;
+    }
+
+    public boolean hasNext() {
+        while (nextEpochDay == NONE && period <= endPeriod) {
+            int epochDay = candidate(period);
+            period += step;
+            if (epochDay != NONE && epochDay >= fromEpochDay && epochDay <= toEpochDay) {
+                nextEpochDay = epochDay;
+            }
+        }
+        return nextEpochDay != NONE;
+    }
+
+    /**
+     * @return next candidate as an epoch hour
+     * @throws NoSuchElementException if there are no more candidates
+     */
+    public int nextEpochHour() {
+        if (!hasNext()) throw new NoSuchElementException();
+        int epochHour = nextEpochDay * DateCodes.HOURS_PER_DAY + hour;
+        nextEpochDay = NONE;
+        return epochHour;
+    }
+
+    /**
+     * Writes up to {@code length} candidates into {@code dst}.
+     *
+     * @return number of candidates written; less than {@code length} only when exhausted
+     */
+    public int next(int[] dst, int offset, int length) {
+        int count = 0;
+        while (count < length && hasNext()) {
+            dst[offset + count++] = nextEpochHour();
+        }
+        return count;
+    }
+
+    /**
+     * @return upper bound on the number of candidates remaining
+     */
+    public long estimateSize() {
+        long periods = period > endPeriod ? 0 : (endPeriod - period) / step + 1;
+        return periods + (nextEpochDay == NONE ? 0 : 1);
+    }
+
+    /**
+     * Splits off the first half of the remaining window into a new iterator, leaving this
+     * iterator with the second half.
+     *
+     * @return iterator over the earlier candidates, or null if the window is too small to split
+     */
+    public CandidateIterator trySplit() {
+        int periods = period > endPeriod ? 0 : (endPeriod - period) / step + 1;
+        if (periods < 2) return null;
+
+        int mid = period + (periods / 2) * step;
+        CandidateIterator prefix = new CandidateIterator(type, hour, day, fromEpochDay, toEpochDay,
+                period, mid - step, step);
+        prefix.nextEpochDay = nextEpochDay;
+        nextEpochDay = NONE;
+        period = mid;
+        return prefix;
+    }
+
+    private int candidate(int index) {
+        int year = index;
+        int dayOfYear = day;
+        if (type == DateCodes.AIR) {
+            year = (int) DateCodes.floorDiv(index, AIR_DAYS_PER_YEAR);
+            dayOfYear += (index - year * AIR_DAYS_PER_YEAR) * AIR_DAY_STEP;
+        }
+        return dayOfYear <= DateCodes.lengthOfYear(year)
+                ? DateCodes.epochDayOf(year, 1, 1) + dayOfYear - 1 : NONE;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * {@link DateCodeBuilder} backed by {@link DateCodes}. The most recently produced code is kept
+ * and returned again until the Zulu hour (Air) or local day (Surface and Ocean) changes, so
+ * repeated calls to {@link #getCode()} do not allocate.
+ */
+class ConveyanceDateCodeBuilder implements DateCodeBuilder {
+    private final int conveyanceType;
+    private volatile CachedCode cachedCode = new CachedCode(null, Long.MIN_VALUE, null);
+
+    ConveyanceDateCodeBuilder(int conveyanceType) {
+        this.conveyanceType = conveyanceType;
+    }
+
+    int getConveyanceType() {
+        return conveyanceType;
+    }
+
+    @Override
+    public String getCode() {
+        return getCode(DateCodeBuilderFactory.getClock().currentTimeMillis());
+    }
+
+    @Override
+    public String getCode(long timeInMillis) {
+        TimeZone zone = DateCodeBuilderFactory.getTimeZone();
+        long codeMillis = Zones.toCodeMillis(conveyanceType, zone, timeInMillis);
+        long slot = conveyanceType == DateCodes.AIR
+                ? DateCodes.epochHour(codeMillis)
+                : DateCodes.epochDay(codeMillis);
+
+        CachedCode cached = cachedCode;
+        if (cached.slot == slot && cached.zone == zone) return cached.code;
+
+        char[] buffer = new char[DateCodes.codeLength(conveyanceType)];
+        DateCodes.encode(conveyanceType, codeMillis, buffer, 0);
+        String code = new String(buffer);
+        cachedCode = new CachedCode(zone, slot, code);
+        return code;
+    }
+
+    @Override
+    public List<Date> getCalendarDatesForCode(String code) {
+        TimeZone zone = DateCodeBuilderFactory.getTimeZone();
+        int[] hours = new int[DateCodes.maxCandidates(conveyanceType)];
+        int count = currentTable(zone).decode(conveyanceType, code, hours, 0);
+        if (count == DateCodes.INVALID) {
+            throw new IllegalArgumentException("invalid " + DateCodes.conveyanceName(conveyanceType)
+                    + " date code: " + code);
+        }
+
+        List<Date> dates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            dates.add(new Date(Zones.codeHourToUtcMillis(conveyanceType, zone, hours[i])));
+        }
+        return dates;
+    }
+
+    @Override
+    public int getCalendarDates(CharSequence code, CalendarDates dates) {
+        return dates.add(currentTable(DateCodeBuilderFactory.getTimeZone()), conveyanceType, code);
+    }
+
+    @Override
+    public void getCalendarDates(CharSequence[] codes, int from, int to, CalendarDates dates) {
+        DecodeTable table = currentTable(DateCodeBuilderFactory.getTimeZone());
+        for (int i = from; i < to; i++) {
+            dates.add(table, conveyanceType, codes[i]);
+        }
+    }
+
+    /**
+     * @return decode table for the current time in {@code zone}
+     */
+    private static DecodeTable currentTable(TimeZone zone) {
+        return DecodeTable.forInstant(zone, DateCodeBuilderFactory.getClock().currentTimeMillis());
+    }
+
+    private static final class CachedCode {
+        final TimeZone zone;
+        final long slot;
+        final String code;
+
+        CachedCode(TimeZone zone, long slot, String code) {
+            this.zone = zone;
+            this.slot = slot;
+            this.code = code;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+/**
+ * Keeps the conveyance type chosen on the phone in step with the watch. The phone side calls
+ * {@link #publish(String)} with the preference value whenever it may have changed, and a single
+ * item is put on the transport only when the type actually changes. A type counts as published
+ * once the transport reports that its put succeeded; after a failed put the next publish of the
+ * same type tries again. The watch side feeds the
+ * items it receives to {@link #onItemChanged(String, String)}, which reports each change of type
+ * once to its {@link Callback}. Nothing is ever polled.
+ *
+ * Instances are thread-safe.
+ */
+public final class ConveyanceTypeSync implements SettingsTransport.Listener {
+    /**
+     * Path of the item holding the conveyance type name.
+     */
+    public static final String PATH = "/conveyance_type";
+
+    private final SettingsTransport transport;
+    private final Callback callback;
+    private int conveyanceType;
+    // Type of the latest put still in progress, or DateCodes.UNKNOWN
+    private int pendingType = DateCodes.UNKNOWN;
+
+    /**
+     * Receives changes of the synced conveyance type.
+     */
+    public interface Callback {
+        void onConveyanceTypeChanged(int conveyanceType);
+    }
+
+    /**
+     * @param transport transport to publish on, or null on the receiving side
+     * @param callback callback for received changes, or null on the publishing side
+     * @param conveyanceType type last published or received, or {@link DateCodes#UNKNOWN}
+     */
+    public ConveyanceTypeSync(SettingsTransport transport, Callback callback, int conveyanceType) {
+        this.transport = transport;
+        this.callback = callback;
+        this.conveyanceType = conveyanceType;
+    }
+
+    /**
+     * @return type last received, or on the publishing side the type of the last successful put
+     */
+    public synchronized int getConveyanceType() {
+        return conveyanceType;
+    }
+
+    /**
+     * Publishes a conveyance type name unless it is the one published last or being published.
+     * Unknown names fall back to Air, as in
+     * {@link DateCodeBuilderFactory#getDateCodeBuilder(String)}.
+     *
+     * @return whether an item was put on the transport
+     */
+    public boolean publish(String conveyanceTypeName) {
+        int type = DateCodes.conveyanceType(conveyanceTypeName);
+        if (type == DateCodes.UNKNOWN) type = DateCodes.AIR;
+
+        final int publishedType = type;
+        synchronized (this) {
+            int latestType = pendingType != DateCodes.UNKNOWN ? pendingType : conveyanceType;
+            if (type == latestType) return false;
+            pendingType = type;
+        }
+        try {
+            transport.put(PATH, DateCodes.conveyanceName(type),
+                    new SettingsTransport.PutCallback() {
+                        @Override
+                        public void onPutComplete(boolean success) {
+                            onPublished(publishedType, success);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            onPublished(type, false);
+            throw e;
+        }
+        return true;
+    }
+
+    // Puts complete in the order they were made
+    private synchronized void onPublished(int type, boolean success) {
+        if (success) conveyanceType = type;
+        if (pendingType == type) pendingType = DateCodes.UNKNOWN;
+    }
+
+    @Override
+    public void onItemChanged(String path, String value) {
+        if (!PATH.equals(path)) return;
+        int type = DateCodes.conveyanceType(value);
+        if (type == DateCodes.UNKNOWN) return;
+
+        synchronized (this) {
+            if (type == conveyanceType) return;
+            conveyanceType = type;
+        }
+        callback.onConveyanceTypeChanged(type);
+    }
+}
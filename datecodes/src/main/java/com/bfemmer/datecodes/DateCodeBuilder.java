@@ -0,0 +1,66 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Calculates and reverse-calculates the date shipped and received codes of one conveyance type.
+ */
+public interface DateCodeBuilder {
+    /**
+     * @return code for the current time of {@link DateCodeBuilderFactory#getClock()}
+     */
+    String getCode();
+
+    /**
+     * @param timeInMillis epoch milliseconds of the instant to encode
+     * @return code for the given instant
+     */
+    String getCode(long timeInMillis);
+
+    /**
+     * Reverse-calculates the calendar dates a code may represent, oldest first.
+     *
+     * @param code code to reverse-calculate
+     * @return matching dates
+     * @throws IllegalArgumentException if the code is not valid for this conveyance type
+     */
+    List<Date> getCalendarDatesForCode(String code);
+
+    /**
+     * Reverse-calculates a code into a reusable {@link CalendarDates} rather than a list of
+     * {@code Date} objects.
+     *
+     * @return number of candidates appended, or {@link DateCodes#INVALID} if the code is not valid
+     */
+    int getCalendarDates(CharSequence code, CalendarDates dates);
+
+    /**
+     * Reverse-calculates {@code codes[from, to)} into {@code dates}, appending one entry per code.
+     * Invalid codes are appended with no candidates instead of ending the batch with an exception.
+     */
+    void getCalendarDates(CharSequence[] codes, int from, int to, CalendarDates dates);
+}
@@ -0,0 +1,87 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.util.TimeZone;
+
+/**
+ * Entry point for obtaining the {@link DateCodeBuilder} of a conveyance type.
+ *
+ * Builders are shared, thread-safe instances, so callers may look them up on every use. Codes are
+ * calculated in the zone set with {@link #setTimeZone(TimeZone)}, which defaults to the zone of
+ * the device when the class is loaded, and "now" is read from the clock set with
+ * {@link #setClock(Clock)}, which defaults to {@link Clock#SYSTEM}.
+ */
+public final class DateCodeBuilderFactory {
+    private static final DateCodeBuilder[] BUILDERS = {
+            new ConveyanceDateCodeBuilder(DateCodes.AIR),
+            new ConveyanceDateCodeBuilder(DateCodes.SURFACE),
+            new ConveyanceDateCodeBuilder(DateCodes.OCEAN)
+    };
+
+    private static volatile TimeZone timeZone = TimeZone.getDefault();
+    private static volatile Clock clock = Clock.SYSTEM;
+
+    private DateCodeBuilderFactory() {
+    }
+
+    /**
+     * @param conveyanceType Air, Surface, or Ocean (case is ignored); anything else falls back to
+     *                       Air, the default conveyance type of the app
+     * @return builder for the conveyance type
+     */
+    public static DateCodeBuilder getDateCodeBuilder(String conveyanceType) {
+        int type = DateCodes.conveyanceType(conveyanceType);
+        return BUILDERS[type == DateCodes.UNKNOWN ? DateCodes.AIR : type];
+    }
+
+    public static DateCodeBuilder getDateCodeBuilder(int conveyanceType) {
+        return BUILDERS[conveyanceType];
+    }
+
+    public static TimeZone getTimeZone() {
+        return timeZone;
+    }
+
+    /**
+     * Sets the zone codes are calculated in. Call again with {@link TimeZone#getDefault()} when
+     * the device zone changes.
+     */
+    public static void setTimeZone(TimeZone zone) {
+        if (zone == null) throw new NullPointerException("zone");
+        timeZone = zone;
+    }
+
+    public static Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * Sets the clock the current code and reference year are read from.
+     */
+    public static void setClock(Clock newClock) {
+        if (newClock == null) throw new NullPointerException("clock");
+        clock = newClock;
+    }
+}
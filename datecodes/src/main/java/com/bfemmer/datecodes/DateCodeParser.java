@@ -0,0 +1,159 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+/**
+ * Classifies, validates, and decodes a date code of unknown conveyance type in one pass over its
+ * characters, without regular expressions or exceptions.
+ *
+ * The conveyance type is inferred from the format of the code: four characters is Ocean, three
+ * characters starting with a digit is Surface, and any other three characters is Air. Results
+ * are packed into an {@code int}; unpack them with {@link #status(int)}, {@link #type(int)}, and
+ * {@link #count(int)}.
+ */
+public final class DateCodeParser {
+    public static final int OK = 0;
+
+    /**
+     * The code is null or empty.
+     */
+    public static final int ERROR_EMPTY = 1;
+
+    /**
+     * The code is not 3 or 4 characters long.
+     */
+    public static final int ERROR_LENGTH = 2;
+
+    /**
+     * The code contains a character that is not allowed at its position.
+     */
+    public static final int ERROR_FORMAT = 3;
+
+    /**
+     * The code is well formed but does not name a calendar date, e.g. day 366 of a common year.
+     */
+    public static final int ERROR_RANGE = 4;
+
+    private DateCodeParser() {
+    }
+
+    public static int status(int result) {
+        return result & 0xFF;
+    }
+
+    /**
+     * @return conveyance type, or {@link DateCodes#UNKNOWN} when the length is not valid
+     */
+    public static int type(int result) {
+        return (byte) (result >> 8);
+    }
+
+    /**
+     * @return number of candidates written by {@link #parse}
+     */
+    public static int count(int result) {
+        return (result >> 16) & 0xFF;
+    }
+
+    public static boolean isValid(int result) {
+        return status(result) == OK;
+    }
+
+    private static int result(int status, int type, int count) {
+        return status | ((type & 0xFF) << 8) | (count << 16);
+    }
+
+    /**
+     * Infers the conveyance type of a code from its length and first character, without
+     * validating the remaining characters.
+     *
+     * @return packed result with a status of {@link #OK}, {@link #ERROR_EMPTY}, or
+     * {@link #ERROR_LENGTH}
+     */
+    public static int classify(CharSequence code) {
+        if (code == null || code.length() == 0) return result(ERROR_EMPTY, DateCodes.UNKNOWN, 0);
+
+        switch (code.length()) {
+            case 3:
+                return result(OK, DateCodes.digit(code.charAt(0)) >= 0
+                        ? DateCodes.SURFACE : DateCodes.AIR, 0);
+            case 4:
+                return result(OK, DateCodes.OCEAN, 0);
+            default:
+                return result(ERROR_LENGTH, DateCodes.UNKNOWN, 0);
+        }
+    }
+
+    /**
+     * Decodes a code relative to the current year in the zone of {@link DateCodeBuilderFactory}.
+     *
+     * @see #parse(CharSequence, DecodeTable, int[], int)
+     */
+    public static int parse(CharSequence code, int[] dst, int offset) {
+        return parse(code, DecodeTable.forCurrentYear(), dst, offset);
+    }
+
+    /**
+     * Classifies, validates, and decodes a code. On success the epoch hours of the candidates, in
+     * the time of the conveyance type (see {@link DateCodes#decode}), are written to {@code dst},
+     * which needs room for {@link DateCodes#MAX_CANDIDATES} values.
+     *
+     * @param code code of any conveyance type
+     * @param table decode table of the reference year
+     * @param dst destination for epoch hours
+     * @param offset index in {@code dst} of the first value written
+     * @return packed result
+     */
+    public static int parse(CharSequence code, DecodeTable table, int[] dst, int offset) {
+        int classified = classify(code);
+        if (!isValid(classified)) return classified;
+
+        // Each field is parsed once here and looked up without validating the code again
+        int type = type(classified);
+        int count;
+        switch (type) {
+            case DateCodes.AIR: {
+                int hour = DateCodes.hourCodeIndex(code.charAt(0));
+                int dayDigits = DateCodes.parseDigits(code, 1, 2);
+                if (hour < 0 || dayDigits < 0) return result(ERROR_FORMAT, type, 0);
+                count = table.decodeAir(hour, dayDigits, dst, offset);
+                break;
+            }
+            case DateCodes.SURFACE: {
+                int dayOfYear = DateCodes.parseDigits(code, 0, 3);
+                if (dayOfYear < 0) return result(ERROR_FORMAT, type, 0);
+                count = table.decodeSurface(dayOfYear, dst, offset);
+                break;
+            }
+            default: {
+                int yearDigit = DateCodes.digit(code.charAt(0));
+                int dayOfYear = DateCodes.parseDigits(code, 1, 3);
+                if (yearDigit < 0 || dayOfYear < 0) return result(ERROR_FORMAT, type, 0);
+                count = table.decodeOcean(yearDigit, dayOfYear, dst, offset);
+                break;
+            }
+        }
+        return count == DateCodes.INVALID ? result(ERROR_RANGE, type, 0) : result(OK, type, count);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.util.TimeZone;
+
+/**
+ * Keeps the current code of one conveyance type together with the instant it next changes, so a
+ * display that refreshes often only recalculates the code at the top of the Zulu hour (Air) or at
+ * local midnight (Surface and Ocean).
+ *
+ * The code is calculated in the zone of {@link DateCodeBuilderFactory}; a change of that zone
+ * also triggers a recalculation. Instances are not thread-safe and are meant to be owned by the
+ * thread that draws the code.
+ */
+public final class DateCodeSchedule {
+    private int conveyanceType;
+    private TimeZone zone;
+    private String code;
+    private long periodStartMillis = Long.MAX_VALUE;
+    private long nextTransitionMillis = Long.MIN_VALUE;
+    private long recalculationCount;
+
+    public DateCodeSchedule(int conveyanceType) {
+        this.conveyanceType = conveyanceType;
+    }
+
+    public int getConveyanceType() {
+        return conveyanceType;
+    }
+
+    /**
+     * Switches to another conveyance type; the next call to {@link #getCode(long)} recalculates
+     * if the type changed.
+     */
+    public void setConveyanceType(int conveyanceType) {
+        if (conveyanceType != this.conveyanceType) {
+            this.conveyanceType = conveyanceType;
+            invalidate();
+        }
+    }
+
+    /**
+     * @param nowMillis current epoch milliseconds
+     * @return code at {@code nowMillis}, recalculated only if a transition has passed, the clock
+     * moved backwards, or the zone changed since the last call
+     */
+    public String getCode(long nowMillis) {
+        TimeZone currentZone = DateCodeBuilderFactory.getTimeZone();
+        if (nowMillis >= nextTransitionMillis || nowMillis < periodStartMillis || currentZone != zone) {
+            zone = currentZone;
+            code = DateCodeBuilderFactory.getDateCodeBuilder(conveyanceType).getCode(nowMillis);
+            periodStartMillis = nowMillis;
+            nextTransitionMillis = nextTransitionMillis(conveyanceType, currentZone, nowMillis);
+            recalculationCount++;
+        }
+        return code;
+    }
+
+    /**
+     * @return epoch milliseconds at which the code returned by the last call to
+     * {@link #getCode(long)} stops being current
+     */
+    public long getNextTransitionMillis() {
+        return nextTransitionMillis;
+    }
+
+    /**
+     * @return number of times the code has been recalculated since this schedule was created
+     */
+    public long getRecalculationCount() {
+        return recalculationCount;
+    }
+
+    /**
+     * Forces the next call to {@link #getCode(long)} to recalculate, e.g. after the device clock
+     * or zone was changed.
+     */
+    public void invalidate() {
+        nextTransitionMillis = Long.MIN_VALUE;
+    }
+
+    /**
+     * Calculates the first instant after {@code nowMillis} at which the code of the conveyance type
+     * changes: the next top of the Zulu hour for Air, the next local midnight for Surface and
+     * Ocean. Midnights skipped by a daylight saving transition resolve to the end of the
+     * transition, and midnights that happen twice to their first occurrence.
+     */
+    public static long nextTransitionMillis(int conveyanceType, TimeZone zone, long nowMillis) {
+        if (DateCodes.isUtc(conveyanceType)) {
+            return (DateCodes.floorDiv(nowMillis, DateCodes.MILLIS_PER_HOUR) + 1)
+                    * DateCodes.MILLIS_PER_HOUR;
+        }
+
+        long localMillis = Zones.toLocalMillis(zone, nowMillis);
+        long period = DateCodes.MILLIS_PER_DAY;
+        long nextLocalMillis = (DateCodes.floorDiv(localMillis, period) + 1) * period;
+
+        // Usually the offset does not change before midnight, which also picks the first of two
+        // occurrences of a repeated wall clock time (zones that fall back across midnight)
+        long transitionMillis = nowMillis + (nextLocalMillis - localMillis);
+        if (Zones.toLocalMillis(zone, transitionMillis) == nextLocalMillis) {
+            return transitionMillis;
+        }
+
+        transitionMillis = Zones.toUtcMillis(zone, nextLocalMillis);
+        if (transitionMillis <= nowMillis) {
+            // Wall clock jumped back over the boundary (end of daylight saving time)
+            transitionMillis = nowMillis + (nextLocalMillis - localMillis);
+        }
+        return transitionMillis;
+    }
+}
@@ -0,0 +1,404 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+/**
+ * Allocation-free engine for the date shipped and received codes described in DTR Part II
+ * Appendix RR.
+ *
+ * All arithmetic is done on primitive "code time" values: UTC epoch values for Air, whose codes
+ * are kept in Zulu time, and "local" epoch values, i.e. epoch values that have already been
+ * shifted by the zone offset of the place where the shipment was handled, for Surface and Ocean
+ * (see {@link Zones#toCodeMillis}). Days are counted as epoch days (days since 1970-01-01) and
+ * hours as epoch hours (epoch day * 24 + hour of day), so the methods in this class never touch
+ * {@link java.util.Calendar} or {@link java.util.TimeZone} and never allocate.
+ *
+ * Code formats:
+ * <ul>
+ *     <li>Air - Zulu hour letter (A = 0000-0059Z through Z = 2300-2359Z, skipping I and O)
+ *     followed by the last two digits of the Julian day (day of the year)</li>
+ *     <li>Surface - three digit day of the year (001-366)</li>
+ *     <li>Ocean - last digit of the year followed by the three digit day of the year</li>
+ * </ul>
+ */
+public final class DateCodes {
+    public static final int AIR = 0;
+    public static final int SURFACE = 1;
+    public static final int OCEAN = 2;
+
+    /**
+     * Returned by {@link #conveyanceType(String)} when the name is not recognized.
+     */
+    public static final int UNKNOWN = -1;
+
+    /**
+     * Returned by {@link #decode} when the code is not valid for the conveyance type.
+     */
+    public static final int INVALID = -1;
+
+    public static final long MILLIS_PER_HOUR = 60L * 60L * 1000L;
+    public static final long MILLIS_PER_DAY = 24L * MILLIS_PER_HOUR;
+    public static final int HOURS_PER_DAY = 24;
+
+    /**
+     * Largest number of candidates any single code decodes to (an Air code matches at most four
+     * days of the reference year, plus the last matching day of the year before).
+     */
+    public static final int MAX_CANDIDATES = 5;
+
+    private static final String[] CONVEYANCE_NAMES = {"Air", "Surface", "Ocean"};
+    private static final int[] CODE_LENGTHS = {3, 3, 4};
+    private static final int[] CANDIDATE_COUNTS = {MAX_CANDIDATES, 1, 1};
+
+    // Air hour letters, indexed by Zulu hour; I and O are skipped to avoid confusion with 1 and 0
+    private static final String HOUR_CODES = "ABCDEFGHJKLMNPQRSTUVWXYZ";
+    private static final int AIR_DAY_MODULUS = 100;
+
+    // Shift from the epoch to 0000-03-01, the start of the proleptic Gregorian era used below
+    private static final int DAYS_0000_TO_1970 = 719468;
+    private static final int DAYS_PER_ERA = 146097;
+
+    private DateCodes() {
+    }
+
+    /**
+     * Maps a conveyance type name (Air, Surface, or Ocean) to its constant, ignoring case.
+     *
+     * @param name conveyance type name
+     * @return {@link #AIR}, {@link #SURFACE}, {@link #OCEAN}, or {@link #UNKNOWN}
+     */
+    public static int conveyanceType(String name) {
+        if (name == null) return UNKNOWN;
+        for (int type = 0; type < CONVEYANCE_NAMES.length; type++) {
+            if (CONVEYANCE_NAMES[type].equalsIgnoreCase(name)) return type;
+        }
+        return UNKNOWN;
+    }
+
+    public static String conveyanceName(int type) {
+        return CONVEYANCE_NAMES[type];
+    }
+
+    /**
+     * @return number of characters in a code of the given conveyance type
+     */
+    public static int codeLength(int type) {
+        return CODE_LENGTHS[type];
+    }
+
+    /**
+     * @return largest number of candidates {@link #decode} can write for the conveyance type
+     */
+    public static int maxCandidates(int type) {
+        return CANDIDATE_COUNTS[type];
+    }
+
+    /**
+     * @return true if codes of the conveyance type are kept in UTC (Air), false if they are kept
+     * in local time (Surface and Ocean)
+     */
+    public static boolean isUtc(int type) {
+        return type == AIR;
+    }
+
+    public static long floorDiv(long value, long divisor) {
+        long quotient = value / divisor;
+        if ((value % divisor != 0) && ((value ^ divisor) < 0)) quotient--;
+        return quotient;
+    }
+
+    public static int epochDay(long localMillis) {
+        return (int) floorDiv(localMillis, MILLIS_PER_DAY);
+    }
+
+    public static int epochHour(long localMillis) {
+        return (int) floorDiv(localMillis, MILLIS_PER_HOUR);
+    }
+
+    public static int hourOfDay(long localMillis) {
+        return (int) (floorDiv(localMillis, MILLIS_PER_HOUR)
+                - floorDiv(localMillis, MILLIS_PER_DAY) * HOURS_PER_DAY);
+    }
+
+    public static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    public static int lengthOfYear(int year) {
+        return isLeapYear(year) ? 366 : 365;
+    }
+
+    public static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Converts a calendar date to an epoch day.
+     *
+     * @param year proleptic Gregorian year
+     * @param month month of the year, 1-12
+     * @param day day of the month, 1-31
+     * @return days since 1970-01-01
+     */
+    public static int epochDayOf(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_ERA + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * Converts an epoch day to a calendar date packed as {@code (year << 9) | (month << 5) | day}.
+     * Use {@link #packedYear}, {@link #packedMonth}, and {@link #packedDay} to unpack.
+     */
+    public static int civilDate(int epochDay) {
+        int z = epochDay + DAYS_0000_TO_1970;
+        int era = (z >= 0 ? z : z - DAYS_PER_ERA + 1) / DAYS_PER_ERA;
+        int dayOfEra = z - era * DAYS_PER_ERA;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int monthIndex = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+        int month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return (year << 9) | (month << 5) | day;
+    }
+
+    public static int packedYear(int packedDate) {
+        return packedDate >> 9;
+    }
+
+    public static int packedMonth(int packedDate) {
+        return (packedDate >> 5) & 0xF;
+    }
+
+    public static int packedDay(int packedDate) {
+        return packedDate & 0x1F;
+    }
+
+    public static int yearOf(int epochDay) {
+        return packedYear(civilDate(epochDay));
+    }
+
+    /**
+     * @return day of the year (1-366) of the epoch day
+     */
+    public static int dayOfYear(int epochDay) {
+        return epochDay - epochDayOf(yearOf(epochDay), 1, 1) + 1;
+    }
+
+    /**
+     * Writes the code for an instant into {@code dst}.
+     *
+     * @param type conveyance type
+     * @param codeMillis epoch milliseconds in the time of the conveyance type: UTC for Air, shifted
+     *                   by the local zone offset for Surface and Ocean
+     * @param dst destination buffer
+     * @param offset index in {@code dst} of the first character written
+     * @return number of characters written
+     */
+    public static int encode(int type, long codeMillis, char[] dst, int offset) {
+        int length = CODE_LENGTHS[type];
+        int digits = dayDigits(type, epochDay(codeMillis));
+
+        if (type == AIR) {
+            dst[offset] = hourCode(hourOfDay(codeMillis));
+            writeDigits(digits, length - 1, dst, offset + 1);
+        } else {
+            writeDigits(digits, length, dst, offset);
+        }
+        return length;
+    }
+
+    /**
+     * @return digits of the code that depend only on the day: the last two digits of the day of
+     * the year for Air, the day of the year for Surface, and the year digit followed by the day of
+     * the year for Ocean
+     */
+    public static int dayDigits(int type, int epochDay) {
+        int year = yearOf(epochDay);
+        int dayOfYear = epochDay - epochDayOf(year, 1, 1) + 1;
+
+        switch (type) {
+            case AIR:
+                return dayOfYear % AIR_DAY_MODULUS;
+            case SURFACE:
+                return dayOfYear;
+            case OCEAN:
+                return floorMod10(year) * 1000 + dayOfYear;
+            default:
+                throw new IllegalArgumentException("unknown conveyance type " + type);
+        }
+    }
+
+    /**
+     * Writes the epoch hour of every calendar date matching the code into {@code dst}, in
+     * ascending order. Air codes are matched against the days of the reference year up to the
+     * reference day (future dates are dropped) and the last matching day of the year before,
+     * Surface codes against the reference year, and Ocean codes against the latest year not after
+     * the reference year that ends in the code's year digit.
+     *
+     * @param type conveyance type
+     * @param code code to decode
+     * @param referenceDay epoch day, in the time of the conveyance type, the code is interpreted
+     *                     relative to, usually today; its year is the reference year
+     * @param dst destination for epoch hours in the time of the conveyance type (UTC for Air,
+     *            local for Surface and Ocean), with room for {@link #maxCandidates(int)}
+     * @param offset index in {@code dst} of the first value written
+     * @return number of candidates written, or {@link #INVALID} if the code is not valid
+     */
+    public static int decode(int type, CharSequence code, int referenceDay, int[] dst, int offset) {
+        if (!isWellFormed(type, code)) return INVALID;
+
+        int referenceYear = yearOf(referenceDay);
+        switch (type) {
+            case AIR:
+                return decodeAir(hourCodeIndex(code.charAt(0)), parseDigits(code, 1, 2),
+                        referenceDay, dst, offset);
+            case SURFACE:
+                return decodeDayOfYear(parseDigits(code, 0, 3), referenceYear, dst, offset);
+            default:
+                int year = referenceYear
+                        - floorMod10(floorMod10(referenceYear) - digit(code.charAt(0)));
+                return decodeDayOfYear(parseDigits(code, 1, 3), year, dst, offset);
+        }
+    }
+
+    /**
+     * Checks the length and the characters of a code without checking that it names a calendar
+     * date. Every well-formed Air code is valid.
+     */
+    public static boolean isWellFormed(int type, CharSequence code) {
+        if (code == null || code.length() != CODE_LENGTHS[type]) return false;
+
+        switch (type) {
+            case AIR:
+                return hourCodeIndex(code.charAt(0)) >= 0 && parseDigits(code, 1, 2) >= 0;
+            case SURFACE:
+                return parseDigits(code, 0, 3) >= 0;
+            case OCEAN:
+                return parseDigits(code, 0, 4) >= 0;
+            default:
+                throw new IllegalArgumentException("unknown conveyance type " + type);
+        }
+    }
+
+    private static int decodeAir(int hour, int dayDigits, int referenceDay, int[] dst, int offset) {
+        int year = yearOf(referenceDay);
+        int count = 0;
+        dst[offset + count++] = (epochDayOf(year - 1, 1, 1)
+                + lastAirDayOfYear(year - 1, dayDigits) - 1) * HOURS_PER_DAY + hour;
+
+        int firstDay = epochDayOf(year, 1, 1);
+        int length = lengthOfYear(year);
+        for (int day = firstAirDayOfYear(dayDigits); day <= length; day += AIR_DAY_MODULUS) {
+            int epochDay = firstDay + day - 1;
+            if (epochDay > referenceDay) break;
+            dst[offset + count++] = epochDay * HOURS_PER_DAY + hour;
+        }
+        return count;
+    }
+
+    /**
+     * @return first day of the year (1-100) whose Air code ends in {@code dayDigits}
+     */
+    static int firstAirDayOfYear(int dayDigits) {
+        return dayDigits == 0 ? AIR_DAY_MODULUS : dayDigits;
+    }
+
+    /**
+     * @return last day of the year whose Air code ends in {@code dayDigits}
+     */
+    static int lastAirDayOfYear(int year, int dayDigits) {
+        int length = lengthOfYear(year);
+        return dayDigits + (length - dayDigits) / AIR_DAY_MODULUS * AIR_DAY_MODULUS;
+    }
+
+    private static int decodeDayOfYear(int dayOfYear, int year, int[] dst, int offset) {
+        if (dayOfYear < 1 || dayOfYear > lengthOfYear(year)) return INVALID;
+
+        dst[offset] = (epochDayOf(year, 1, 1) + dayOfYear - 1) * HOURS_PER_DAY;
+        return 1;
+    }
+
+    /**
+     * @return Air hour letter for a Zulu hour, 0-23
+     */
+    public static char hourCode(int hour) {
+        return HOUR_CODES.charAt(hour);
+    }
+
+    /**
+     * @return Zulu hour (0-23) for an Air hour letter in either case, or -1
+     */
+    public static int hourCodeIndex(char c) {
+        if (c >= 'a' && c <= 'z') c = (char) (c - ('a' - 'A'));
+        return c >= 'A' && c <= 'Z' ? HOUR_CODES.indexOf(c) : -1;
+    }
+
+    /**
+     * @return numeric value of an ASCII digit, or -1
+     */
+    public static int digit(char c) {
+        return c >= '0' && c <= '9' ? c - '0' : -1;
+    }
+
+    /**
+     * @return value of {@code count} ASCII digits starting at {@code start}, or -1 if any of
+     * them is not a digit
+     */
+    static int parseDigits(CharSequence code, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int d = digit(code.charAt(i));
+            if (d < 0) return -1;
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    private static void writeDigits(int value, int count, char[] dst, int offset) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            dst[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    static int floorMod10(int value) {
+        int mod = value % 10;
+        return mod < 0 ? mod + 10 : mod;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, least-recently-used cache of {@link DateCodeParser} results, for callers that decode
+ * the same codes over and over. Entries are keyed by conveyance type and code (Air hour letters
+ * are case-insensitive), and the whole cache is dropped when a table for a different reference
+ * year or Air reference day is used, e.g. after the UTC day or the new year rolls over.
+ *
+ * Only valid codes are cached, so malformed input cannot push useful entries out. Instances are
+ * thread-safe.
+ */
+public final class DecodeCache {
+    private final Map<Long, CachedResult> entries;
+    private int referenceYear = Integer.MIN_VALUE;
+    private int airReferenceDay = Integer.MIN_VALUE;
+
+    public DecodeCache(final int maxEntries) {
+        entries = new LinkedHashMap<Long, CachedResult>(16, 0.75f, true /* access order */) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedResult> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Decodes relative to the current year in the zone of {@link DateCodeBuilderFactory}.
+     *
+     * @see #decode(CharSequence, DecodeTable, int[], int)
+     */
+    public int decode(CharSequence code, int[] dst, int offset) {
+        return decode(code, DecodeTable.forCurrentYear(), dst, offset);
+    }
+
+    /**
+     * Same contract as {@link DateCodeParser#parse(CharSequence, DecodeTable, int[], int)},
+     * answered from the cache when the code was decoded before.
+     *
+     * @return packed {@link DateCodeParser} result
+     */
+    public int decode(CharSequence code, DecodeTable table, int[] dst, int offset) {
+        int classified = DateCodeParser.classify(code);
+        if (!DateCodeParser.isValid(classified)) return classified;
+
+        long key = key(DateCodeParser.type(classified), code);
+        synchronized (this) {
+            if (!isCurrent(table)) {
+                entries.clear();
+                referenceYear = table.getReferenceYear();
+                airReferenceDay = table.getAirReferenceDay();
+            }
+
+            CachedResult cached = key == -1 ? null : entries.get(key);
+            if (cached != null) {
+                System.arraycopy(cached.hours, 0, dst, offset, cached.hours.length);
+                return cached.result;
+            }
+        }
+
+        int result = DateCodeParser.parse(code, table, dst, offset);
+        if (key != -1 && DateCodeParser.isValid(result)) {
+            int[] hours = new int[DateCodeParser.count(result)];
+            System.arraycopy(dst, offset, hours, 0, hours.length);
+            synchronized (this) {
+                if (isCurrent(table)) {
+                    entries.put(key, new CachedResult(result, hours));
+                }
+            }
+        }
+        return result;
+    }
+
+    private boolean isCurrent(DecodeTable table) {
+        return table.getReferenceYear() == referenceYear
+                && table.getAirReferenceDay() == airReferenceDay;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Packs type and the upper-cased ASCII characters of a 3 or 4 character code into a long, or
+     * returns -1 if the code contains characters outside ASCII (never valid).
+     */
+    private static long key(int type, CharSequence code) {
+        long key = (long) type << 28;
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c >= 'a' && c <= 'z') c = (char) (c - ('a' - 'A'));
+            if (c > 0x7F) return -1;
+            key |= (long) c << (7 * i);
+        }
+        return key;
+    }
+
+    private static final class CachedResult {
+        final int result;
+        final int[] hours;
+
+        CachedResult(int result, int[] hours) {
+            this.result = result;
+            this.hours = hours;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.nio.CharBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Precomputed decode index for one reference year. Every valid Air, Surface, and Ocean code maps
+ * to its candidates through direct array lookup, so decoding costs a few character-to-index
+ * calculations and a table read instead of a calendar walk.
+ *
+ * Results are identical to {@link DateCodes#decode} with the reference day returned by
+ * {@link #getReferenceDay(int)}. Air codes are kept in Zulu time, so besides the local reference
+ * year a table has its own UTC reference day, after which Air candidates are dropped. Use
+ * {@link #forYear(int)} or {@link #forInstant(TimeZone, long)} to get a shared table; the few most
+ * recently used tables are kept, so callers in different zones or years do not rebuild each
+ * other's tables.
+ */
+public final class DecodeTable {
+    private static final int AIR_DAY_DIGITS = 100;
+    private static final int DAYS_OF_YEAR = 367;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int MAX_SHARED_TABLES = 8;
+
+    // Keyed by reference year and Air reference day, see key()
+    private static final Map<Long, DecodeTable> shared =
+            new LinkedHashMap<Long, DecodeTable>(16, 0.75f, true /* access order */) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, DecodeTable> eldest) {
+                    return size() > MAX_SHARED_TABLES;
+                }
+            };
+
+    private final int referenceYear;
+    private final int airReferenceDay;
+
+    // Air candidates indexed by the last two digits of the day of the year; the hour is added at
+    // lookup
+    private final int[] airCounts = new int[AIR_DAY_DIGITS];
+    private final int[] airEpochDays = new int[AIR_DAY_DIGITS * DateCodes.MAX_CANDIDATES];
+
+    // Surface indexed by day of the year, Ocean by year digit * DAYS_OF_YEAR + day of the year
+    private final int[] surfaceEpochDays = new int[DAYS_OF_YEAR];
+    private final int[] oceanEpochDays = new int[10 * DAYS_OF_YEAR];
+
+    /**
+     * Builds a table for the whole of the given reference year, i.e. with December 31 as the
+     * Air reference day.
+     */
+    public DecodeTable(int referenceYear) {
+        this(referenceYear, DateCodes.epochDayOf(referenceYear, 12, 31));
+    }
+
+    /**
+     * Builds a table. Prefer {@link #forYear(int)} or {@link #forInstant(TimeZone, long)}, which
+     * share tables between callers.
+     *
+     * @param referenceYear local year Surface and Ocean codes are decoded relative to
+     * @param airReferenceDay UTC epoch day Air codes are decoded relative to
+     */
+    public DecodeTable(int referenceYear, int airReferenceDay) {
+        this.referenceYear = referenceYear;
+        this.airReferenceDay = airReferenceDay;
+
+        // Air candidates come from the calculated decode of the first hour of each day digit pair
+        char[] code = {DateCodes.hourCode(0), '0', '0'};
+        CharSequence codeView = CharBuffer.wrap(code);
+        int[] hours = new int[DateCodes.MAX_CANDIDATES];
+        for (int digits = 0; digits < AIR_DAY_DIGITS; digits++) {
+            code[1] = (char) ('0' + digits / 10);
+            code[2] = (char) ('0' + digits % 10);
+            int count = DateCodes.decode(DateCodes.AIR, codeView, airReferenceDay, hours, 0);
+            airCounts[digits] = count;
+            for (int i = 0; i < count; i++) {
+                airEpochDays[digits * DateCodes.MAX_CANDIDATES + i] =
+                        (int) DateCodes.floorDiv(hours[i], DateCodes.HOURS_PER_DAY);
+            }
+        }
+
+        fillDaysOfYear(surfaceEpochDays, 0, referenceYear);
+        for (int digit = 0; digit < 10; digit++) {
+            int year = referenceYear
+                    - DateCodes.floorMod10(DateCodes.floorMod10(referenceYear) - digit);
+            fillDaysOfYear(oceanEpochDays, digit * DAYS_OF_YEAR, year);
+        }
+    }
+
+    private static void fillDaysOfYear(int[] table, int offset, int year) {
+        int firstDay = DateCodes.epochDayOf(year, 1, 1);
+        int length = DateCodes.lengthOfYear(year);
+
+        table[offset] = NO_DATE;
+        for (int day = 1; day < DAYS_OF_YEAR; day++) {
+            table[offset + day] = day <= length ? firstDay + day - 1 : NO_DATE;
+        }
+    }
+
+    /**
+     * @return shared table for the whole of the reference year, built on first use
+     */
+    public static DecodeTable forYear(int referenceYear) {
+        return forReference(referenceYear, DateCodes.epochDayOf(referenceYear, 12, 31));
+    }
+
+    /**
+     * @return shared table for the local year of {@code nowMillis} in {@code zone}, dropping Air
+     * candidates after its UTC day
+     */
+    public static DecodeTable forInstant(TimeZone zone, long nowMillis) {
+        return forReference(DateCodes.yearOf(Zones.codeDay(DateCodes.SURFACE, zone, nowMillis)),
+                Zones.codeDay(DateCodes.AIR, zone, nowMillis));
+    }
+
+    /**
+     * @return shared table for the current time in the zone of {@link DateCodeBuilderFactory}
+     */
+    public static DecodeTable forCurrentYear() {
+        return forInstant(DateCodeBuilderFactory.getTimeZone(),
+                DateCodeBuilderFactory.getClock().currentTimeMillis());
+    }
+
+    private static DecodeTable forReference(int referenceYear, int airReferenceDay) {
+        Long key = ((long) referenceYear << 32) | (airReferenceDay & 0xFFFFFFFFL);
+        synchronized (shared) {
+            DecodeTable table = shared.get(key);
+            if (table != null) return table;
+        }
+
+        // Built outside the lock; two callers racing for a new table build it twice at worst
+        DecodeTable table = new DecodeTable(referenceYear, airReferenceDay);
+        synchronized (shared) {
+            shared.put(key, table);
+        }
+        return table;
+    }
+
+    /**
+     * @return local year Surface and Ocean codes are decoded relative to
+     */
+    public int getReferenceYear() {
+        return referenceYear;
+    }
+
+    /**
+     * @return UTC epoch day after which Air candidates are dropped
+     */
+    public int getAirReferenceDay() {
+        return airReferenceDay;
+    }
+
+    /**
+     * @return reference day to pass to {@link DateCodes#decode} for the same results as this
+     * table
+     */
+    public int getReferenceDay(int type) {
+        return DateCodes.isUtc(type) ? airReferenceDay : DateCodes.epochDayOf(referenceYear, 12, 31);
+    }
+
+    /**
+     * Same contract as {@link DateCodes#decode}, for this table's reference day.
+     *
+     * @return number of epoch hours written, or {@link DateCodes#INVALID}
+     */
+    public int decode(int type, CharSequence code, int[] dst, int offset) {
+        if (!DateCodes.isWellFormed(type, code)) return DateCodes.INVALID;
+
+        switch (type) {
+            case DateCodes.AIR:
+                return decodeAir(DateCodes.hourCodeIndex(code.charAt(0)),
+                        DateCodes.parseDigits(code, 1, 2), dst, offset);
+            case DateCodes.SURFACE:
+                return decodeSurface(DateCodes.parseDigits(code, 0, 3), dst, offset);
+            default:
+                return decodeOcean(DateCodes.digit(code.charAt(0)),
+                        DateCodes.parseDigits(code, 1, 3), dst, offset);
+        }
+    }
+
+    /**
+     * Looks up an Air code from its already parsed fields.
+     *
+     * @param hour Zulu hour, 0-23
+     * @param dayDigits last two digits of the day of the year, 0-99
+     * @return number of UTC epoch hours written, or {@link DateCodes#INVALID}
+     */
+    public int decodeAir(int hour, int dayDigits, int[] dst, int offset) {
+        if (hour < 0 || hour >= DateCodes.HOURS_PER_DAY
+                || dayDigits < 0 || dayDigits >= AIR_DAY_DIGITS) return DateCodes.INVALID;
+
+        int start = dayDigits * DateCodes.MAX_CANDIDATES;
+        int count = airCounts[dayDigits];
+        for (int i = 0; i < count; i++) {
+            dst[offset + i] = airEpochDays[start + i] * DateCodes.HOURS_PER_DAY + hour;
+        }
+        return count;
+    }
+
+    /**
+     * Looks up a Surface code from its already parsed day of the year.
+     *
+     * @return 1, or {@link DateCodes#INVALID}
+     */
+    public int decodeSurface(int dayOfYear, int[] dst, int offset) {
+        return lookupDayOfYear(surfaceEpochDays, 0, dayOfYear, dst, offset);
+    }
+
+    /**
+     * Looks up an Ocean code from its already parsed year digit and day of the year.
+     *
+     * @return 1, or {@link DateCodes#INVALID}
+     */
+    public int decodeOcean(int yearDigit, int dayOfYear, int[] dst, int offset) {
+        if (yearDigit < 0 || yearDigit > 9) return DateCodes.INVALID;
+        return lookupDayOfYear(oceanEpochDays, yearDigit * DAYS_OF_YEAR, dayOfYear, dst, offset);
+    }
+
+    private static int lookupDayOfYear(int[] table, int tableOffset, int day, int[] dst, int offset) {
+        if (day < 0 || day >= DAYS_OF_YEAR) return DateCodes.INVALID;
+
+        int epochDay = table[tableOffset + day];
+        if (epochDay == NO_DATE) return DateCodes.INVALID;
+
+        dst[offset] = epochDay * DateCodes.HOURS_PER_DAY;
+        return 1;
+    }
+}
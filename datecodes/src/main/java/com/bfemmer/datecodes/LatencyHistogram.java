@@ -0,0 +1,100 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size latency histogram with HdrHistogram-style log-linear buckets: every power of two is
+ * split into {@value #SUB_BUCKET_COUNT} / 2 equal buckets, so recorded values keep about three
+ * percent precision from one microsecond up to hours without allocating after construction.
+ * Values are in microseconds. Not thread-safe.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final long MAX_VALUE = (1L << 36) - 1;
+
+    private final long[] counts = new long[bucketIndex(MAX_VALUE) + 1];
+    private long totalCount;
+    private long maxValue;
+    private long sum;
+
+    private static int bucketIndex(long value) {
+        int magnitude = 63 - Long.numberOfLeadingZeros(value | (SUB_BUCKET_COUNT - 1));
+        int shift = magnitude - (SUB_BUCKET_BITS - 1);
+        return shift * SUB_BUCKET_HALF_COUNT + (int) (value >>> shift);
+    }
+
+    private static long highestValueInBucket(int index) {
+        int shift = index < SUB_BUCKET_COUNT ? 0 : index / SUB_BUCKET_HALF_COUNT - 1;
+        long subBucket = index - shift * SUB_BUCKET_HALF_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    public void recordValue(long micros) {
+        long value = Math.max(0, Math.min(micros, MAX_VALUE));
+        counts[bucketIndex(value)]++;
+        totalCount++;
+        sum += value;
+        if (value > maxValue) maxValue = value;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0 : (double) sum / totalCount;
+    }
+
+    /**
+     * @param percentile 0-100
+     * @return highest value equivalent to the value at the percentile, or 0 if nothing was
+     * recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) return 0;
+
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= target) return Math.min(highestValueInBucket(i), maxValue);
+        }
+        return maxValue;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        maxValue = 0;
+        sum = 0;
+    }
+}
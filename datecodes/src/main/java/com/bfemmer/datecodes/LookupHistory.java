@@ -0,0 +1,456 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Persistent history of decoded codes: an append-only log file of records (timestamp, code,
+ * packed {@link DateCodeParser} result, and candidate epoch hours) plus an in-memory index of
+ * the records by code and by timestamp.
+ *
+ * Opening reads the log once to build the index, so it should be done off the UI thread. After
+ * that, searches by code prefix or time range are binary searches over sorted {@code long}
+ * arrays, and only the candidates of a record are read back from the file. Damaged records are
+ * skipped when the log is opened, and a record torn by a crash while it was being written is
+ * dropped from the end of the log.
+ *
+ * Codes of 1 to 4 ASCII characters are recorded; anything longer can never be a date code.
+ * Instances are thread-safe.
+ */
+public final class LookupHistory {
+    /**
+     * Largest number of records a history can hold.
+     */
+    public static final int MAX_RECORDS = 1 << 24;
+
+    private static final int MAGIC = 0x44544448; // "DTDH"
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 8;
+    private static final int FIXED_LENGTH = 16;
+    private static final int MAX_RECORD_LENGTH = FIXED_LENGTH + 4 * DateCodes.MAX_CANDIDATES;
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+    private static final int MAX_CODE_LENGTH = 4;
+    private static final int BITS_PER_CHAR = 7;
+    private static final int RECORD_BITS = 24;
+    private static final long MAX_SECONDS = (1L << (63 - RECORD_BITS)) - 1;
+    private static final int[] EMPTY = new int[0];
+
+    private final FileChannel channel;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(MAX_RECORD_LENGTH);
+    private long endOffset;
+
+    // Per record, in the order appended
+    private int size;
+    private long[] timestamps;
+    private int[] codeKeys;
+    private int[] results;
+    private long[] offsets;
+
+    // (code key << 32 | record) and (timestamp seconds << 24 | record), each kept sorted
+    private final SortedKeys codeIndex;
+    private final SortedKeys timeIndex;
+
+    private LookupHistory(FileChannel channel, int capacity) {
+        this.channel = channel;
+        timestamps = new long[capacity];
+        codeKeys = new int[capacity];
+        results = new int[capacity];
+        offsets = new long[capacity];
+        codeIndex = new SortedKeys(capacity, 0xFFFFFFFFL);
+        timeIndex = new SortedKeys(capacity, MAX_RECORDS - 1);
+    }
+
+    /**
+     * Opens the history stored in {@code file}, creating it if it does not exist, and builds the
+     * index. Blocks for as long as it takes to read the log.
+     *
+     * @throws IOException if the file cannot be read or is not a history log
+     */
+    public static LookupHistory open(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        FileChannel channel = randomAccessFile.getChannel();
+        try {
+            LookupHistory history = new LookupHistory(channel, 1024);
+            history.load();
+            return history;
+        } catch (IOException e) {
+            randomAccessFile.close();
+            throw e;
+        } catch (RuntimeException e) {
+            randomAccessFile.close();
+            throw e;
+        }
+    }
+
+    private void load() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        long fileLength = channel.size();
+        if (fileLength < HEADER_LENGTH) {
+            buffer.putInt(MAGIC).putInt(VERSION).flip();
+            channel.truncate(0);
+            channel.write(buffer, 0);
+            endOffset = HEADER_LENGTH;
+            return;
+        }
+
+        buffer.limit(HEADER_LENGTH);
+        channel.read(buffer, 0);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("not a lookup history log");
+        }
+
+        // Offset of the next record, of the byte after the last good record, and of the next byte
+        // to read into the buffer
+        long offset = HEADER_LENGTH;
+        long goodEndOffset = HEADER_LENGTH;
+        long readOffset = HEADER_LENGTH;
+        buffer.clear();
+        while (size < MAX_RECORDS) {
+            int read = channel.read(buffer, readOffset);
+            if (read > 0) readOffset += read;
+
+            buffer.flip();
+            while (buffer.remaining() >= FIXED_LENGTH && size < MAX_RECORDS) {
+                int start = buffer.position();
+                int result = buffer.getInt(start + 12);
+                if (!isRecord(buffer.getInt(start + 8), result)) {
+                    // Records are whole words, so resync at the next word that starts a record
+                    offset += 4;
+                    buffer.position(start + 4);
+                    continue;
+                }
+                int length = FIXED_LENGTH + 4 * DateCodeParser.count(result);
+                if (buffer.remaining() < length) break;
+
+                addRecord(buffer.getLong(start), buffer.getInt(start + 8), result, offset);
+                offset += length;
+                goodEndOffset = offset;
+                buffer.position(start + length);
+            }
+            buffer.compact();
+            if (read < 0) break;
+        }
+
+        // Drop a torn record or other garbage at the end so the next append follows the last
+        // good record; damaged records before it are skipped again on every load
+        if (goodEndOffset < fileLength) {
+            channel.truncate(goodEndOffset);
+        }
+        endOffset = goodEndOffset;
+
+        codeIndex.sort();
+        timeIndex.sort();
+    }
+
+    /**
+     * @return whether the fixed part of a record holds a code key and result that
+     * {@link #append} can have written
+     */
+    private static boolean isRecord(int codeKey, int result) {
+        if (codeKey <= 0 || (result & 0xFFFFFF) != result) return false;
+        int status = DateCodeParser.status(result);
+        int count = DateCodeParser.count(result);
+        if (status > DateCodeParser.ERROR_RANGE || count > DateCodes.MAX_CANDIDATES
+                || (status != DateCodeParser.OK && count > 0)) {
+            return false;
+        }
+
+        // Characters are packed first character highest, and only trailing ones can be absent
+        boolean ended = false;
+        for (int i = MAX_CODE_LENGTH - 1; i >= 0; i--) {
+            boolean absent = ((codeKey >> (BITS_PER_CHAR * i)) & 0x7F) == 0;
+            if ((absent && i == MAX_CODE_LENGTH - 1) || (ended && !absent)) return false;
+            ended |= absent;
+        }
+        return true;
+    }
+
+    private void addRecord(long timestamp, int codeKey, int result, long offset) {
+        if (size == timestamps.length) {
+            int capacity = size * 2;
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            codeKeys = Arrays.copyOf(codeKeys, capacity);
+            results = Arrays.copyOf(results, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+        }
+
+        int record = size++;
+        timestamps[record] = timestamp;
+        codeKeys[record] = codeKey;
+        results[record] = result;
+        offsets[record] = offset;
+        codeIndex.append(((long) codeKey << 32) | record);
+        timeIndex.append(timeKey(timestamp, record));
+    }
+
+    /**
+     * Appends a lookup to the log and the index.
+     *
+     * @param timestampMillis epoch milliseconds of the lookup
+     * @param code code as entered
+     * @param result packed {@link DateCodeParser} result of decoding the code
+     * @param hours candidates written by the decode, {@link DateCodeParser#count(int)} of them
+     * @param offset index in {@code hours} of the first candidate
+     * @return number of the record, or -1 if the code is empty, longer than 4 characters, or not
+     * ASCII
+     * @throws IOException if the log cannot be written
+     */
+    public synchronized int append(long timestampMillis, CharSequence code, int result,
+                                   int[] hours, int offset) throws IOException {
+        int codeKey = codeKey(code);
+        if (codeKey <= 0) return -1;
+        if (size == MAX_RECORDS) throw new IllegalStateException("history is full");
+
+        int count = DateCodeParser.isValid(result) ? DateCodeParser.count(result) : 0;
+        if (count == 0) {
+            // Only the status and type of a failed decode are kept
+            result &= 0xFFFF;
+        }
+
+        writeBuffer.clear();
+        writeBuffer.putLong(timestampMillis).putInt(codeKey).putInt(result);
+        for (int i = 0; i < count; i++) {
+            writeBuffer.putInt(hours[offset + i]);
+        }
+        writeBuffer.flip();
+        long recordOffset = endOffset;
+        while (writeBuffer.hasRemaining()) {
+            channel.write(writeBuffer, endOffset + writeBuffer.position());
+        }
+        endOffset += writeBuffer.limit();
+
+        int record = size;
+        addRecord(timestampMillis, codeKey, result, recordOffset);
+        codeIndex.restoreOrder();
+        timeIndex.restoreOrder();
+        return record;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long getTimestamp(int record) {
+        checkRecord(record);
+        return timestamps[record];
+    }
+
+    /**
+     * @return code as recorded, with Air hour letters in upper case
+     */
+    public synchronized String getCode(int record) {
+        checkRecord(record);
+        int key = codeKeys[record];
+        StringBuilder code = new StringBuilder(MAX_CODE_LENGTH);
+        for (int i = MAX_CODE_LENGTH - 1; i >= 0; i--) {
+            char c = (char) ((key >> (BITS_PER_CHAR * i)) & 0x7F);
+            if (c == 0) break;
+            code.append(c);
+        }
+        return code.toString();
+    }
+
+    /**
+     * @return packed {@link DateCodeParser} result of the lookup
+     */
+    public synchronized int getResult(int record) {
+        checkRecord(record);
+        return results[record];
+    }
+
+    /**
+     * Reads the candidates of a record back from the log into {@code dst}, which needs room for
+     * {@link DateCodeParser#count(int)} of the record's result.
+     *
+     * @return number of candidates read
+     * @throws IOException if the log cannot be read
+     */
+    public synchronized int readCandidates(int record, int[] dst, int offset) throws IOException {
+        checkRecord(record);
+        int result = results[record];
+        int count = DateCodeParser.isValid(result) ? DateCodeParser.count(result) : 0;
+        if (count == 0) return 0;
+
+        ByteBuffer buffer = ByteBuffer.allocate(4 * count);
+        long position = offsets[record] + FIXED_LENGTH;
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("log truncated at record " + record);
+            }
+        }
+        buffer.flip();
+        for (int i = 0; i < count; i++) {
+            dst[offset + i] = buffer.getInt();
+        }
+        return count;
+    }
+
+    /**
+     * Finds the records whose code starts with {@code prefix}, ignoring the case of letters.
+     *
+     * @return record numbers ordered by code, then by record
+     */
+    public synchronized int[] findByCodePrefix(CharSequence prefix) {
+        int prefixKey = codeKey(prefix);
+        if (prefixKey < 0) return EMPTY;
+
+        int unusedBits = BITS_PER_CHAR * (MAX_CODE_LENGTH - prefix.length());
+        long lowKey = (long) prefixKey << 32;
+        long highKey = ((long) (prefixKey | ((1 << unusedBits) - 1)) << 32) | 0xFFFFFFFFL;
+        return codeIndex.records(lowKey, highKey);
+    }
+
+    /**
+     * Finds the records with a timestamp in {@code [fromMillis, toMillis]}.
+     *
+     * @return record numbers ordered by timestamp (to the second), then by record
+     */
+    public synchronized int[] findByTime(long fromMillis, long toMillis) {
+        if (fromMillis > toMillis) return EMPTY;
+        int[] candidates = timeIndex.records(timeKey(fromMillis, 0),
+                timeKey(toMillis, MAX_RECORDS - 1));
+
+        // The index is only accurate to the second, so trim the records at either end
+        int count = 0;
+        for (int record : candidates) {
+            if (timestamps[record] >= fromMillis && timestamps[record] <= toMillis) {
+                candidates[count++] = record;
+            }
+        }
+        return count == candidates.length ? candidates : Arrays.copyOf(candidates, count);
+    }
+
+    /**
+     * Forces appended records to the storage device.
+     */
+    public synchronized void sync() throws IOException {
+        channel.force(false);
+    }
+
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void checkRecord(int record) {
+        if (record < 0 || record >= size) {
+            throw new IndexOutOfBoundsException("record " + record);
+        }
+    }
+
+    /**
+     * Packs up to 4 upper-cased ASCII characters into an int, first character in the highest
+     * bits so keys sort like the codes and share a range with every code sharing a prefix.
+     *
+     * @return key, or -1 if the code is too long or contains characters outside ASCII
+     */
+    private static int codeKey(CharSequence code) {
+        if (code == null || code.length() > MAX_CODE_LENGTH) return -1;
+
+        int key = 0;
+        for (int i = 0; i < MAX_CODE_LENGTH; i++) {
+            int c = 0;
+            if (i < code.length()) {
+                c = code.charAt(i);
+                if (c >= 'a' && c <= 'z') c -= 'a' - 'A';
+                if (c == 0 || c > 0x7F) return -1;
+            }
+            key = (key << BITS_PER_CHAR) | c;
+        }
+        return key;
+    }
+
+    private static long timeKey(long timestampMillis, int record) {
+        long seconds = Math.min(MAX_SECONDS,
+                Math.max(0, DateCodes.floorDiv(timestampMillis, 1000)));
+        return (seconds << RECORD_BITS) | record;
+    }
+
+    /**
+     * Growable array of packed keys, sorted once after loading and kept sorted by insertion as
+     * records are appended. Appends are nearly always in order, so restoring it is usually free.
+     */
+    private static final class SortedKeys {
+        private final long recordMask;
+        private long[] keys;
+        private int size;
+
+        SortedKeys(int capacity, long recordMask) {
+            this.recordMask = recordMask;
+            keys = new long[capacity];
+        }
+
+        void append(long key) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            keys[size++] = key;
+        }
+
+        void sort() {
+            Arrays.sort(keys, 0, size);
+        }
+
+        /**
+         * Moves the last key into place after an {@link #append(long)}.
+         */
+        void restoreOrder() {
+            long key = keys[size - 1];
+            int index = lowerBound(key, size - 1);
+            if (index < size - 1) {
+                System.arraycopy(keys, index, keys, index + 1, size - 1 - index);
+                keys[index] = key;
+            }
+        }
+
+        int[] records(long lowKey, long highKey) {
+            int from = lowerBound(lowKey, size);
+            int to = highKey == Long.MAX_VALUE ? size : lowerBound(highKey + 1, size);
+            int[] records = new int[Math.max(0, to - from)];
+            for (int i = 0; i < records.length; i++) {
+                records[i] = (int) (keys[from + i] & recordMask);
+            }
+            return records;
+        }
+
+        private int lowerBound(long key, int end) {
+            int low = 0;
+            int high = end;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
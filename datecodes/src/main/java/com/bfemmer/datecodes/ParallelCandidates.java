@@ -0,0 +1,88 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork-join traversal of a {@link CandidateIterator} for very large windows. Kept apart from the
+ * iterator so that it does not pull the fork-join classes into code running on older Android
+ * releases.
+ */
+public final class ParallelCandidates {
+    /**
+     * Windows with fewer remaining periods than this are traversed sequentially.
+     */
+    private static final long SEQUENTIAL_THRESHOLD = 512;
+
+    private ParallelCandidates() {
+    }
+
+    /**
+     * Drains the iterator in parallel.
+     *
+     * @return all remaining candidates as epoch hours in the time of the conveyance type (UTC for
+     * Air, local for Surface and Ocean), in ascending order
+     */
+    public static int[] toArray(CandidateIterator candidates, ForkJoinPool pool) {
+        return pool.invoke(new CollectTask(candidates));
+    }
+
+    private static final class CollectTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final CandidateIterator candidates;
+
+        CollectTask(CandidateIterator candidates) {
+            this.candidates = candidates;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (candidates.estimateSize() > SEQUENTIAL_THRESHOLD) {
+                CandidateIterator prefix = candidates.trySplit();
+                if (prefix != null) {
+                    CollectTask prefixTask = new CollectTask(prefix);
+                    prefixTask.fork();
+                    int[] suffix = compute();
+                    int[] head = prefixTask.join();
+
+                    int[] all = Arrays.copyOf(head, head.length + suffix.length);
+                    System.arraycopy(suffix, 0, all, head.length, suffix.length);
+                    return all;
+                }
+            }
+
+            int[] values = new int[(int) Math.min(candidates.estimateSize(), SEQUENTIAL_THRESHOLD)];
+            int count = 0;
+            while (candidates.hasNext()) {
+                if (count == values.length) values = Arrays.copyOf(values, count * 2 + 1);
+                values[count++] = candidates.nextEpochHour();
+            }
+            return Arrays.copyOf(values, count);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.util.TimeZone;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork-join front end to {@link BatchEncoder}. Batches below {@link #SEQUENTIAL_THRESHOLD}
+ * timestamps are encoded on the calling thread without allocating; larger batches are split into
+ * ranges that write to disjoint parts of the destination buffer.
+ *
+ * The zone must tolerate concurrent calls to {@link TimeZone#getOffset(long)}, as the zones
+ * returned by {@link TimeZone#getTimeZone(String)} do.
+ */
+public final class ParallelEncoder {
+    /**
+     * Ranges with fewer timestamps than this are encoded sequentially.
+     */
+    public static final int SEQUENTIAL_THRESHOLD = 16 * 1024;
+
+    private ParallelEncoder() {
+    }
+
+    /**
+     * @see BatchEncoder#encode(int, TimeZone, long[], int, int, char[], int)
+     */
+    public static int encode(int type, TimeZone zone, long[] timesInMillis, int from, int to,
+                             char[] dst, int offset, ForkJoinPool pool) {
+        if (to - from >= SEQUENTIAL_THRESHOLD) {
+            pool.invoke(new EncodeTask(type, zone, timesInMillis, from, to, dst, null, offset));
+            return (to - from) * DateCodes.codeLength(type);
+        }
+        return BatchEncoder.encode(type, zone, timesInMillis, from, to, dst, offset);
+    }
+
+    /**
+     * @see BatchEncoder#encode(int, TimeZone, long[], int, int, byte[], int)
+     */
+    public static int encode(int type, TimeZone zone, long[] timesInMillis, int from, int to,
+                             byte[] dst, int offset, ForkJoinPool pool) {
+        if (to - from >= SEQUENTIAL_THRESHOLD) {
+            pool.invoke(new EncodeTask(type, zone, timesInMillis, from, to, null, dst, offset));
+            return (to - from) * DateCodes.codeLength(type);
+        }
+        return BatchEncoder.encode(type, zone, timesInMillis, from, to, dst, offset);
+    }
+
+    private static final class EncodeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int type;
+        private final TimeZone zone;
+        private final long[] timesInMillis;
+        private final int from;
+        private final int to;
+        private final char[] chars;
+        private final byte[] bytes;
+        private final int offset;
+
+        EncodeTask(int type, TimeZone zone, long[] timesInMillis, int from, int to,
+                   char[] chars, byte[] bytes, int offset) {
+            this.type = type;
+            this.zone = zone;
+            this.timesInMillis = timesInMillis;
+            this.from = from;
+            this.to = to;
+            this.chars = chars;
+            this.bytes = bytes;
+            this.offset = offset;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < SEQUENTIAL_THRESHOLD) {
+                if (chars != null) {
+                    BatchEncoder.encode(type, zone, timesInMillis, from, to, chars, offset);
+                } else {
+                    BatchEncoder.encode(type, zone, timesInMillis, from, to, bytes, offset);
+                }
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            int midOffset = offset + (mid - from) * DateCodes.codeLength(type);
+            invokeAll(new EncodeTask(type, zone, timesInMillis, from, mid, chars, bytes, offset),
+                    new EncodeTask(type, zone, timesInMillis, mid, to, chars, bytes, midOffset));
+        }
+    }
+}
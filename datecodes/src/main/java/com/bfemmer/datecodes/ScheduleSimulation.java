@@ -0,0 +1,229 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Headless replay of a {@link DateCodeSchedule} driven the way the watch face drives it: one
+ * timer armed for the next code transition, optionally alongside a periodic tick such as the
+ * once-a-minute ambient update. Simulated time jumps from one wakeup to the next, so a year
+ * replays in well under a second.
+ *
+ * For every local day of the replay it counts scheduler wakeups, code recalculations, and code
+ * transitions, and every code shown is checked against {@link DateCodes#encode} both at its
+ * wakeup and just before the next one, so a transition that is missed or late is counted as a
+ * mismatch.
+ *
+ * The replay installs a {@link SimulatedClock} and its zone in {@link DateCodeBuilderFactory}
+ * while it runs and restores the previous ones afterwards, so it must not run alongside code that
+ * uses the factory.
+ */
+public final class ScheduleSimulation {
+    private final int conveyanceType;
+    private final TimeZone zone;
+    private long tickMillis;
+
+    private int firstEpochDay;
+    private int dayCount;
+    private int[] wakeups = new int[0];
+    private int[] recalculations = new int[0];
+    private int[] transitions = new int[0];
+    private int mismatches;
+
+    public ScheduleSimulation(int conveyanceType, TimeZone zone) {
+        this.conveyanceType = conveyanceType;
+        this.zone = zone;
+    }
+
+    /**
+     * @param tickMillis period of wakeups in addition to the transition timer, aligned to the
+     *                   epoch, or 0 for none
+     */
+    public void setTickMillis(long tickMillis) {
+        if (tickMillis < 0) throw new IllegalArgumentException("tickMillis " + tickMillis);
+        this.tickMillis = tickMillis;
+    }
+
+    /**
+     * Replays {@code [startMillis, endMillis)}, replacing the results of any earlier run.
+     */
+    public void run(long startMillis, long endMillis) {
+        if (endMillis <= startMillis) throw new IllegalArgumentException("empty replay");
+
+        firstEpochDay = DateCodes.epochDay(Zones.toLocalMillis(zone, startMillis));
+        dayCount = DateCodes.epochDay(Zones.toLocalMillis(zone, endMillis - 1)) - firstEpochDay + 1;
+        wakeups = new int[dayCount];
+        recalculations = new int[dayCount];
+        transitions = new int[dayCount];
+        mismatches = 0;
+
+        Clock previousClock = DateCodeBuilderFactory.getClock();
+        TimeZone previousZone = DateCodeBuilderFactory.getTimeZone();
+        SimulatedClock clock = new SimulatedClock(startMillis);
+        DateCodeBuilderFactory.setClock(clock);
+        DateCodeBuilderFactory.setTimeZone(zone);
+        ZoneOffsets.invalidateAll();
+        try {
+            replay(clock, startMillis, endMillis);
+        } finally {
+            DateCodeBuilderFactory.setClock(previousClock);
+            DateCodeBuilderFactory.setTimeZone(previousZone);
+            ZoneOffsets.invalidateAll();
+        }
+    }
+
+    private void replay(SimulatedClock clock, long startMillis, long endMillis) {
+        char[] expected = new char[DateCodes.codeLength(conveyanceType)];
+        DateCodeSchedule schedule = new DateCodeSchedule(conveyanceType);
+
+        // The first draw when the watch face becomes visible
+        String code = schedule.getCode(clock.currentTimeMillis());
+        recalculations[0] += (int) schedule.getRecalculationCount();
+        wakeups[0]++;
+        if (!matches(code, startMillis, expected)) mismatches++;
+
+        long nextTransition = schedule.getNextTransitionMillis();
+        long nextTick = tickMillis == 0
+                ? Long.MAX_VALUE : (DateCodes.floorDiv(startMillis, tickMillis) + 1) * tickMillis;
+        while (true) {
+            // Timers due at the same instant are handled in a single wakeup
+            long now = Math.min(nextTransition, nextTick);
+            if (now >= endMillis) break;
+
+            // The code shown until now must still have been current a moment ago
+            if (!matches(code, now - 1, expected)) mismatches++;
+
+            clock.setTimeMillis(now);
+            int day = DateCodes.epochDay(Zones.toLocalMillis(zone, now)) - firstEpochDay;
+            wakeups[day]++;
+
+            long recalculationCount = schedule.getRecalculationCount();
+            String newCode = schedule.getCode(clock.currentTimeMillis());
+            recalculations[day] += (int) (schedule.getRecalculationCount() - recalculationCount);
+            if (!newCode.equals(code)) transitions[day]++;
+            if (!matches(newCode, now, expected)) mismatches++;
+            code = newCode;
+
+            if (now == nextTransition) nextTransition = schedule.getNextTransitionMillis();
+            if (now == nextTick) nextTick += tickMillis;
+        }
+        if (!matches(code, endMillis - 1, expected)) mismatches++;
+    }
+
+    private boolean matches(String code, long timeMillis, char[] expected) {
+        DateCodes.encode(conveyanceType, Zones.toCodeMillis(conveyanceType, zone, timeMillis),
+                expected, 0);
+        if (code.length() != expected.length) return false;
+        for (int i = 0; i < expected.length; i++) {
+            if (code.charAt(i) != expected[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return number of local days the last replay touched
+     */
+    public int getDayCount() {
+        return dayCount;
+    }
+
+    /**
+     * @return local epoch day of a day of the replay
+     */
+    public int getEpochDay(int day) {
+        return firstEpochDay + day;
+    }
+
+    public int getWakeups(int day) {
+        return wakeups[day];
+    }
+
+    public int getRecalculations(int day) {
+        return recalculations[day];
+    }
+
+    public int getTransitions(int day) {
+        return transitions[day];
+    }
+
+    public int getTotalWakeups() {
+        return sum(wakeups);
+    }
+
+    public int getTotalRecalculations() {
+        return sum(recalculations);
+    }
+
+    public int getTotalTransitions() {
+        return sum(transitions);
+    }
+
+    /**
+     * @return number of times a wrong code was shown; 0 unless the schedule is broken
+     */
+    public int getMismatches() {
+        return mismatches;
+    }
+
+    /**
+     * @return whether a day of the replay is not 24 hours long because the zone's offset changed
+     * during it, e.g. at a daylight saving transition
+     */
+    public boolean isOffsetChangeDay(int day) {
+        long epochDay = getEpochDay(day);
+        long startMillis = Zones.toUtcMillis(zone, epochDay * DateCodes.MILLIS_PER_DAY);
+        long endMillis = Zones.toUtcMillis(zone, (epochDay + 1) * DateCodes.MILLIS_PER_DAY);
+        return endMillis - startMillis != DateCodes.MILLIS_PER_DAY;
+    }
+
+    /**
+     * Writes one line per day and a line of totals. Days on which the zone's offset changed are
+     * marked with an asterisk.
+     */
+    public void writeReport(Appendable out) throws IOException {
+        out.append(String.format(Locale.US, "%-10s  %7s  %14s  %11s%n",
+                "day", "wakeups", "recalculations", "transitions"));
+        for (int day = 0; day < dayCount; day++) {
+            int date = DateCodes.civilDate(getEpochDay(day));
+            out.append(String.format(Locale.US, "%04d-%02d-%02d  %7d  %14d  %11d%s%n",
+                    DateCodes.packedYear(date), DateCodes.packedMonth(date),
+                    DateCodes.packedDay(date), wakeups[day], recalculations[day],
+                    transitions[day], isOffsetChangeDay(day) ? " *" : ""));
+        }
+        out.append(String.format(Locale.US, "%-10s  %7d  %14d  %11d%n", "total",
+                getTotalWakeups(), getTotalRecalculations(), getTotalTransitions()));
+        out.append(String.format(Locale.US, "mismatches: %d%n", mismatches));
+    }
+
+    private static int sum(int[] values) {
+        int sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+/**
+ * Channel that carries settings from the phone to the watch as shared items, one value per path,
+ * in the manner of the Wearable Data Layer. Keeping the transport behind this interface lets the
+ * sync logic run against an in-memory channel off the device.
+ */
+public interface SettingsTransport {
+    /**
+     * Replaces the item at {@code path} with {@code value}. Receivers are notified asynchronously,
+     * and only if the value differs from the item they last saw. The put may complete after this
+     * returns, on any thread, but puts complete in the order they were made; {@code callback} is
+     * told the outcome exactly once.
+     */
+    void put(String path, String value, PutCallback callback);
+
+    /**
+     * Receives the outcome of a {@link #put}.
+     */
+    interface PutCallback {
+        /**
+         * @param success whether the item was stored by the transport
+         */
+        void onPutComplete(boolean success);
+    }
+
+    /**
+     * Receives the items put on the other side of a transport.
+     */
+    interface Listener {
+        void onItemChanged(String path, String value);
+    }
+}
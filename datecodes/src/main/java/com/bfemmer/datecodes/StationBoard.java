@@ -0,0 +1,198 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.util.Arrays;
+import java.util.TimeZone;
+
+/**
+ * Current codes of one conveyance type for many stations in different zones. A min-heap orders
+ * the stations by the instant their code next changes, so a display needs a single timer for the
+ * earliest transition and {@link #update(long, int[])} only touches the stations whose code
+ * actually changed. Air codes are in Zulu time, so every station of an Air board shows the same
+ * code; the board is meant for Surface and Ocean codes, which change at each station's midnight.
+ *
+ * Stations are numbered in the order they are added. Not thread-safe; meant to be owned by the
+ * thread that updates the display.
+ */
+public final class StationBoard {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int conveyanceType;
+    private final char[] buffer = new char[4];
+
+    private int size;
+    private String[] names = new String[INITIAL_CAPACITY];
+    private TimeZone[] zones = new TimeZone[INITIAL_CAPACITY];
+    private String[] codes = new String[INITIAL_CAPACITY];
+    private long[] nextTransitionMillis = new long[INITIAL_CAPACITY];
+
+    // Station numbers ordered by next transition
+    private int[] heap = new int[INITIAL_CAPACITY];
+
+    public StationBoard(int conveyanceType) {
+        this.conveyanceType = conveyanceType;
+    }
+
+    public int getConveyanceType() {
+        return conveyanceType;
+    }
+
+    /**
+     * Adds a station and calculates its current code.
+     *
+     * @return number of the station
+     */
+    public int addStation(String name, TimeZone zone, long nowMillis) {
+        if (size == names.length) {
+            int capacity = size * 2;
+            names = Arrays.copyOf(names, capacity);
+            zones = Arrays.copyOf(zones, capacity);
+            codes = Arrays.copyOf(codes, capacity);
+            nextTransitionMillis = Arrays.copyOf(nextTransitionMillis, capacity);
+            heap = Arrays.copyOf(heap, capacity);
+        }
+
+        int station = size++;
+        names[station] = name;
+        zones[station] = zone;
+        recalculate(station, nowMillis);
+
+        heap[station] = station;
+        siftUp(station);
+        return station;
+    }
+
+    public void clear() {
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(zones, 0, size, null);
+        Arrays.fill(codes, 0, size, null);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getName(int station) {
+        return names[station];
+    }
+
+    public TimeZone getZone(int station) {
+        return zones[station];
+    }
+
+    public String getCode(int station) {
+        return codes[station];
+    }
+
+    /**
+     * @return epoch milliseconds of the earliest code change on the board, or
+     * {@link Long#MAX_VALUE} if there are no stations
+     */
+    public long getNextTransitionMillis() {
+        return size == 0 ? Long.MAX_VALUE : nextTransitionMillis[heap[0]];
+    }
+
+    /**
+     * Recalculates the stations whose transition is at or before {@code nowMillis}.
+     *
+     * @param changed receives the numbers of the stations whose code changed; needs room for
+     * {@link #size()} values
+     * @return number of stations written to {@code changed}
+     */
+    public int update(long nowMillis, int[] changed) {
+        int count = 0;
+        while (size > 0 && nextTransitionMillis[heap[0]] <= nowMillis) {
+            int station = heap[0];
+            String previous = codes[station];
+            recalculate(station, nowMillis);
+            siftDown(0);
+            if (!codes[station].equals(previous)) changed[count++] = station;
+        }
+        return count;
+    }
+
+    /**
+     * Recalculates every station, e.g. after the clock was set or zone rules changed.
+     */
+    public void invalidateAll(long nowMillis) {
+        for (int station = 0; station < size; station++) {
+            recalculate(station, nowMillis);
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    private void recalculate(int station, long nowMillis) {
+        long codeMillis = Zones.toCodeMillis(conveyanceType, zones[station], nowMillis);
+        int length = DateCodes.encode(conveyanceType, codeMillis, buffer, 0);
+        String code = codes[station];
+        if (code == null || !contentEquals(code, length)) {
+            codes[station] = new String(buffer, 0, length);
+        }
+        nextTransitionMillis[station] =
+                DateCodeSchedule.nextTransitionMillis(conveyanceType, zones[station], nowMillis);
+    }
+
+    private boolean contentEquals(String code, int length) {
+        if (code.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (code.charAt(i) != buffer[i]) return false;
+        }
+        return true;
+    }
+
+    private void siftUp(int index) {
+        int station = heap[index];
+        long key = nextTransitionMillis[station];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            int parentStation = heap[parent];
+            if (nextTransitionMillis[parentStation] <= key) break;
+            heap[index] = parentStation;
+            index = parent;
+        }
+        heap[index] = station;
+    }
+
+    private void siftDown(int index) {
+        int station = heap[index];
+        long key = nextTransitionMillis[station];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size
+                    && nextTransitionMillis[heap[right]] < nextTransitionMillis[heap[child]]) {
+                child = right;
+            }
+            if (key <= nextTransitionMillis[heap[child]]) break;
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = station;
+    }
+}
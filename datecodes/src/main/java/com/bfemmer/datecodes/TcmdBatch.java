@@ -0,0 +1,96 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+/**
+ * Reusable holder for the date shipped and date received codes of a batch of TCMD records,
+ * filled by {@link TcmdRecordParser}. Results are {@link DateCodeParser} packed results, and the
+ * candidates of each field are stored back to back in one array.
+ */
+public final class TcmdBatch {
+    public static final int SHIPPED = 0;
+    public static final int RECEIVED = 1;
+
+    private static final int FIELDS = 2;
+
+    final int capacity;
+    int size;
+    final int[] recordStarts;
+    final long[] fieldBounds;
+    final int[] results;
+    final int[] candidateStarts;
+    final int[] candidates;
+
+    public TcmdBatch(int capacity) {
+        this.capacity = capacity;
+        this.recordStarts = new int[capacity];
+        this.fieldBounds = new long[capacity * FIELDS];
+        this.results = new int[capacity * FIELDS];
+        this.candidateStarts = new int[capacity * FIELDS + 1];
+        this.candidates = new int[capacity * FIELDS * DateCodes.MAX_CANDIDATES];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of records in the batch
+     */
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return index in the parsed buffer of the first byte of the record
+     */
+    public int getRecordStart(int record) {
+        return recordStarts[record];
+    }
+
+    /**
+     * @param field {@link #SHIPPED} or {@link #RECEIVED}
+     * @return packed {@link DateCodeParser} result for the field
+     */
+    public int getResult(int record, int field) {
+        return results[record * FIELDS + field];
+    }
+
+    public int getCandidateCount(int record, int field) {
+        int index = record * FIELDS + field;
+        return candidateStarts[index + 1] - candidateStarts[index];
+    }
+
+    /**
+     * @return epoch hour of a candidate of the field, in the time of its conveyance type (UTC for
+     * Air, local for Surface and Ocean) as written by {@link DateCodes#decode}
+     */
+    public int getCandidate(int record, int field, int candidate) {
+        return candidates[candidateStarts[record * FIELDS + field] + candidate];
+    }
+}
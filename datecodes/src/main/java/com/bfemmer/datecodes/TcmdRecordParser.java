@@ -0,0 +1,154 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parses 80-column TCMD card images straight out of a {@link ByteBuffer}, e.g. a memory-mapped
+ * export, and decodes their date shipped and date received codes.
+ *
+ * Records are either back to back or terminated by a line feed (optionally preceded by a carriage
+ * return); lines shorter than 80 columns are accepted, as trailing blanks are often trimmed. The
+ * code fields are located by column, blanks around a code are ignored, and a blank field is
+ * reported with a status of {@link DateCodeParser#ERROR_EMPTY}. Fields are validated and
+ * classified by {@link DateCodeParser} and decoded a batch at a time against one
+ * {@link DecodeTable}, without creating objects per record.
+ *
+ * Instances are not thread-safe; use one parser per thread.
+ */
+public final class TcmdRecordParser {
+    public static final int RECORD_LENGTH = 80;
+
+    private final int[] fieldStarts = new int[2];
+    private final int[] fieldWidths = new int[2];
+    private final DecodeTable table;
+    private final AsciiSequence code = new AsciiSequence();
+
+    /**
+     * @param shippedColumn first column of the date shipped field, counting from 1
+     * @param shippedWidth width of the date shipped field
+     * @param receivedColumn first column of the date received field, counting from 1
+     * @param receivedWidth width of the date received field
+     * @param table decode table of the reference year
+     */
+    public TcmdRecordParser(int shippedColumn, int shippedWidth,
+                            int receivedColumn, int receivedWidth, DecodeTable table) {
+        setField(TcmdBatch.SHIPPED, shippedColumn, shippedWidth);
+        setField(TcmdBatch.RECEIVED, receivedColumn, receivedWidth);
+        this.table = table;
+    }
+
+    private void setField(int field, int column, int width) {
+        if (column < 1 || width < 1 || column + width - 1 > RECORD_LENGTH) {
+            throw new IllegalArgumentException("field " + column + ":" + width
+                    + " does not fit in a " + RECORD_LENGTH + " column record");
+        }
+        fieldStarts[field] = column - 1;
+        fieldWidths[field] = width;
+    }
+
+    /**
+     * Parses a buffer holding the rest of the input.
+     *
+     * @see #parse(ByteBuffer, TcmdBatch, boolean)
+     */
+    public int parse(ByteBuffer buffer, TcmdBatch batch) {
+        return parse(buffer, batch, true);
+    }
+
+    /**
+     * Parses and decodes records from the buffer's position until the batch is full or the
+     * buffer is exhausted, and advances the position past them.
+     *
+     * @param buffer records
+     * @param batch batch to fill; cleared first
+     * @param endOfInput whether the buffer's limit is the end of the input; if not, a record is
+     * only taken once the buffer shows where it ends, and the rest is left for the next buffer
+     * @return number of records parsed
+     */
+    public int parse(ByteBuffer buffer, TcmdBatch batch, boolean endOfInput) {
+        batch.clear();
+
+        // Locate the fields of every record first, then decode them together
+        int position = buffer.position();
+        int limit = buffer.limit();
+        while (batch.size < batch.capacity && position < limit) {
+            int end = Math.min(position + RECORD_LENGTH, limit);
+            int recordEnd = end;
+            int next = end;
+            boolean terminated = false;
+            for (int i = position; i < end && !terminated; i++) {
+                if (buffer.get(i) == '\n') {
+                    recordEnd = i;
+                    next = i + 1;
+                    terminated = true;
+                }
+            }
+            if (!terminated) {
+                // Full width record; its line terminator, if any, must be in the buffer too
+                if (!endOfInput && end == limit) break;
+                if (next < limit && buffer.get(next) == '\r') next++;
+                if (!endOfInput && next == limit && next > end) break;
+                if (next < limit && buffer.get(next) == '\n') next++;
+            }
+            if (recordEnd > position && buffer.get(recordEnd - 1) == '\r') recordEnd--;
+
+            int record = batch.size++;
+            batch.recordStarts[record] = position;
+            locate(buffer, position, recordEnd, batch.fieldBounds, record * 2);
+            position = next;
+        }
+        buffer.position(position);
+
+        decode(buffer, batch);
+        return batch.size;
+    }
+
+    private void locate(ByteBuffer buffer, int recordStart, int recordEnd,
+                        long[] bounds, int index) {
+        for (int field = 0; field < 2; field++) {
+            int start = Math.min(recordStart + fieldStarts[field], recordEnd);
+            int end = Math.min(start + fieldWidths[field], recordEnd);
+            while (start < end && buffer.get(start) == ' ') start++;
+            while (end > start && buffer.get(end - 1) == ' ') end--;
+            bounds[index + field] = ((long) start << 32) | end;
+        }
+    }
+
+    private void decode(ByteBuffer buffer, TcmdBatch batch) {
+        int count = 0;
+        int fields = batch.size * 2;
+        for (int i = 0; i < fields; i++) {
+            long bounds = batch.fieldBounds[i];
+            code.set(buffer, (int) (bounds >>> 32), (int) bounds);
+            int result = DateCodeParser.parse(code, table, batch.candidates, count);
+
+            batch.results[i] = result;
+            batch.candidateStarts[i] = count;
+            count += DateCodeParser.count(result);
+        }
+        batch.candidateStarts[fields] = count;
+    }
+}
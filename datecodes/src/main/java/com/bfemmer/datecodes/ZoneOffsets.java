@@ -0,0 +1,161 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.util.Arrays;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * UTC offset transitions of one zone, precomputed for the year before through the year after the
+ * current one, so that converting an instant to local time is a binary search over a few
+ * transitions instead of a call through {@link TimeZone}. Instants outside that window fall back
+ * to the zone itself.
+ *
+ * Instances are immutable and shared per zone id through {@link #forZone(TimeZone)}. Zones are
+ * assumed not to be modified once used; call {@link #invalidateAll()} when the device's zone
+ * rules may have changed (e.g. on {@code ACTION_TIMEZONE_CHANGED}), which also moves the window
+ * to the current year.
+ */
+public final class ZoneOffsets {
+    // Offsets are sampled this often and transitions located between samples by bisection
+    private static final long SAMPLE_MILLIS = 6 * DateCodes.MILLIS_PER_HOUR;
+
+    // Widest offset in use is 14 hours; pad the window so local year boundaries are covered
+    private static final long PADDING_MILLIS = 14 * DateCodes.MILLIS_PER_HOUR;
+
+    private static final ConcurrentMap<String, ZoneOffsets> cache =
+            new ConcurrentHashMap<String, ZoneOffsets>();
+
+    private final TimeZone zone;
+    private final long windowStartMillis;
+    private final long windowEndMillis;
+
+    // offsets[i] is in effect from transitionMillis[i - 1] up to transitionMillis[i]
+    private final long[] transitionMillis;
+    private final int[] offsets;
+
+    private ZoneOffsets(TimeZone zone, long nowMillis) {
+        this.zone = zone;
+
+        int year = DateCodes.yearOf(DateCodes.epochDay(nowMillis));
+        windowStartMillis = DateCodes.epochDayOf(year - 1, 1, 1) * DateCodes.MILLIS_PER_DAY
+                - PADDING_MILLIS;
+        windowEndMillis = DateCodes.epochDayOf(year + 2, 1, 1) * DateCodes.MILLIS_PER_DAY
+                + PADDING_MILLIS;
+
+        int count = 0;
+        long[] transitions = new long[16];
+        int[] offsetValues = new int[17];
+        offsetValues[0] = zone.getOffset(windowStartMillis);
+        for (long t = windowStartMillis; t < windowEndMillis; t += SAMPLE_MILLIS) {
+            long next = Math.min(t + SAMPLE_MILLIS, windowEndMillis);
+            int offset = zone.getOffset(next);
+            if (offset == offsetValues[count]) continue;
+
+            // Find the first millisecond with the new offset
+            long low = t;
+            long high = next;
+            while (high - low > 1) {
+                long mid = (low + high) >>> 1;
+                if (zone.getOffset(mid) == offset) high = mid; else low = mid;
+            }
+
+            if (count == transitions.length) {
+                transitions = Arrays.copyOf(transitions, count * 2);
+                offsetValues = Arrays.copyOf(offsetValues, count * 2 + 1);
+            }
+            transitions[count++] = high;
+            offsetValues[count] = offset;
+        }
+        transitionMillis = Arrays.copyOf(transitions, count);
+        offsets = Arrays.copyOf(offsetValues, count + 1);
+    }
+
+    /**
+     * @return shared transitions of the zone, built on first use around the current year
+     */
+    public static ZoneOffsets forZone(TimeZone zone) {
+        ZoneOffsets offsets = cache.get(zone.getID());
+        if (offsets == null || (offsets.zone != zone && !offsets.zone.hasSameRules(zone))) {
+            offsets = forZone(zone, DateCodeBuilderFactory.getClock().currentTimeMillis());
+        }
+        return offsets;
+    }
+
+    /**
+     * Builds and shares the transitions of the zone around the year of {@code nowMillis}.
+     */
+    static ZoneOffsets forZone(TimeZone zone, long nowMillis) {
+        ZoneOffsets offsets = new ZoneOffsets(zone, nowMillis);
+        cache.put(zone.getID(), offsets);
+        return offsets;
+    }
+
+    /**
+     * Drops every cached zone, so each is rebuilt from its {@link TimeZone} on next use.
+     */
+    public static void invalidateAll() {
+        cache.clear();
+    }
+
+    public TimeZone getZone() {
+        return zone;
+    }
+
+    /**
+     * @return number of offset transitions within the window
+     */
+    public int getTransitionCount() {
+        return transitionMillis.length;
+    }
+
+    /**
+     * Same as {@link TimeZone#getOffset(long)}.
+     */
+    public int getOffset(long utcMillis) {
+        if (utcMillis < windowStartMillis || utcMillis >= windowEndMillis) {
+            return zone.getOffset(utcMillis);
+        }
+
+        int index = Arrays.binarySearch(transitionMillis, utcMillis);
+        return offsets[index >= 0 ? index + 1 : -index - 1];
+    }
+
+    public long toLocalMillis(long utcMillis) {
+        return utcMillis + getOffset(utcMillis);
+    }
+
+    /**
+     * Converts a local wall-clock instant back to UTC. Times skipped by a daylight saving
+     * transition resolve to the instant after the transition.
+     */
+    public long toUtcMillis(long localMillis) {
+        int offset = getOffset(localMillis - zone.getRawOffset());
+        long utcMillis = localMillis - offset;
+        int actualOffset = getOffset(utcMillis);
+        return actualOffset == offset ? utcMillis : localMillis - actualOffset;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.util.TimeZone;
+
+/**
+ * Conversions between UTC epoch milliseconds and the "local" epoch milliseconds used by
+ * {@link DateCodes} for Surface and Ocean codes, through the cached transitions of
+ * {@link ZoneOffsets}.
+ */
+public final class Zones {
+    private Zones() {
+    }
+
+    public static long toLocalMillis(TimeZone zone, long utcMillis) {
+        return ZoneOffsets.forZone(zone).toLocalMillis(utcMillis);
+    }
+
+    /**
+     * Converts a local wall-clock instant back to UTC. Times skipped by a daylight saving
+     * transition resolve to the instant after the transition.
+     */
+    public static long toUtcMillis(TimeZone zone, long localMillis) {
+        return ZoneOffsets.forZone(zone).toUtcMillis(localMillis);
+    }
+
+    /**
+     * Converts UTC epoch milliseconds to the time codes of the conveyance type are kept in:
+     * unchanged for Air (Zulu time), local for Surface and Ocean.
+     */
+    public static long toCodeMillis(int type, TimeZone zone, long utcMillis) {
+        return DateCodes.isUtc(type) ? utcMillis : toLocalMillis(zone, utcMillis);
+    }
+
+    /**
+     * Inverse of {@link #toCodeMillis}, e.g. for the candidates written by
+     * {@link DateCodes#decode}.
+     */
+    public static long codeToUtcMillis(int type, TimeZone zone, long codeMillis) {
+        return DateCodes.isUtc(type) ? codeMillis : toUtcMillis(zone, codeMillis);
+    }
+
+    /**
+     * Converts an epoch hour in the time of the conveyance type, as written by
+     * {@link DateCodes#decode}, to UTC epoch milliseconds.
+     */
+    public static long codeHourToUtcMillis(int type, TimeZone zone, int epochHour) {
+        return codeToUtcMillis(type, zone, epochHour * DateCodes.MILLIS_PER_HOUR);
+    }
+
+    /**
+     * @return epoch day of {@code utcMillis} in the time of the conveyance type, e.g. the
+     * reference day for {@link DateCodes#decode}
+     */
+    public static int codeDay(int type, TimeZone zone, long utcMillis) {
+        return DateCodes.epochDay(toCodeMillis(type, zone, utcMillis));
+    }
+}
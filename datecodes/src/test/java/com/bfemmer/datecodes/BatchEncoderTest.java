@@ -0,0 +1,108 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class BatchEncoderTest {
+    private static final TimeZone ZONE = TimeZone.getTimeZone("America/Los_Angeles");
+
+    private static long[] randomTimes(int count) {
+        Random random = new Random(42);
+        long[] times = new long[count];
+        long start = 946684800000L; // 2000-01-01
+        for (int i = 0; i < count; i++) {
+            times[i] = start + (long) (random.nextDouble() * 30 * 365 * DateCodes.MILLIS_PER_DAY);
+        }
+        return times;
+    }
+
+    private static char[] encodeEach(int type, long[] times) {
+        int length = DateCodes.codeLength(type);
+        char[] expected = new char[times.length * length];
+        for (int i = 0; i < times.length; i++) {
+            DateCodes.encode(type, Zones.toCodeMillis(type, ZONE, times[i]), expected, i * length);
+        }
+        return expected;
+    }
+
+    @Test
+    public void matchesSingleEncode() {
+        long[] times = randomTimes(5000);
+        Arrays.sort(times, 0, 2500);
+
+        for (int type = DateCodes.AIR; type <= DateCodes.OCEAN; type++) {
+            char[] expected = encodeEach(type, times);
+
+            char[] chars = new char[expected.length + 1];
+            assertEquals(expected.length,
+                    BatchEncoder.encode(type, ZONE, times, 0, times.length, chars, 1));
+            assertArrayEquals(expected, Arrays.copyOfRange(chars, 1, chars.length));
+
+            byte[] bytes = new byte[expected.length];
+            BatchEncoder.encode(type, ZONE, times, 0, times.length, bytes, 0);
+            assertEquals(new String(expected), new String(bytes, StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    public void encodesRange() {
+        long[] times = randomTimes(10);
+        char[] expected = encodeEach(DateCodes.OCEAN, Arrays.copyOfRange(times, 3, 7));
+
+        char[] chars = new char[expected.length];
+        assertEquals(16, BatchEncoder.encode(DateCodes.OCEAN, ZONE, times, 3, 7, chars, 0));
+        assertArrayEquals(expected, chars);
+    }
+
+    @Test
+    public void parallelMatchesSequential() {
+        long[] times = randomTimes(ParallelEncoder.SEQUENTIAL_THRESHOLD * 5 + 17);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        for (int type = DateCodes.AIR; type <= DateCodes.OCEAN; type++) {
+            int length = times.length * DateCodes.codeLength(type);
+            char[] expected = new char[length];
+            BatchEncoder.encode(type, ZONE, times, 0, times.length, expected, 0);
+
+            char[] chars = new char[length];
+            assertEquals(length,
+                    ParallelEncoder.encode(type, ZONE, times, 0, times.length, chars, 0, pool));
+            assertArrayEquals(expected, chars);
+
+            byte[] bytes = new byte[length];
+            ParallelEncoder.encode(type, ZONE, times, 0, times.length, bytes, 0, pool);
+            assertEquals(new String(expected), new String(bytes, StandardCharsets.US_ASCII));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class CandidateIteratorTest {
+    private static int[] drain(CandidateIterator candidates) {
+        int[] values = new int[(int) candidates.estimateSize()];
+        return Arrays.copyOf(values, candidates.next(values, 0, values.length));
+    }
+
+    private static int[] decode(int type, String code, int referenceDay) {
+        int[] hours = new int[DateCodes.MAX_CANDIDATES];
+        return Arrays.copyOf(hours, DateCodes.decode(type, code, referenceDay, hours, 0));
+    }
+
+    private static void assertSameAsDecode(int type, String code, int referenceDay) {
+        int referenceYear = DateCodes.yearOf(referenceDay);
+        CandidateIterator candidates = CandidateIterator.forCode(code,
+                CandidateIterator.defaultWindowStart(type, referenceYear),
+                CandidateIterator.defaultWindowEnd(type, referenceDay));
+        assertArrayEquals(code, decode(type, code, referenceDay), drain(candidates));
+    }
+
+    @Test
+    public void defaultWindowMatchesDecode() {
+        int today = DateCodes.epochDayOf(2016, 6, 1);
+        assertSameAsDecode(DateCodes.SURFACE, "060", today);
+        assertSameAsDecode(DateCodes.SURFACE, "300", today);
+        assertSameAsDecode(DateCodes.OCEAN, "9365", today);
+        assertSameAsDecode(DateCodes.OCEAN, "6001", today);
+    }
+
+    @Test
+    public void airWindowEndsWithDecode() {
+        // Decode keeps only the last match of the year before the reference day
+        int today = DateCodes.epochDayOf(2016, 6, 1);
+        int[] expected = decode(DateCodes.AIR, "B52", today);
+        assertArrayEquals(expected, drain(CandidateIterator.forCode("B52",
+                DateCodes.epochDayOf(2015, 12, 18), today)));
+
+        // The default window stops at the reference day, before days 252 and 352 of 2016
+        int[] all = drain(CandidateIterator.forCode("B52",
+                CandidateIterator.defaultWindowStart(DateCodes.AIR, 2016),
+                CandidateIterator.defaultWindowEnd(DateCodes.AIR, today)));
+        assertEquals(6, all.length);
+        assertArrayEquals(expected, Arrays.copyOfRange(all, all.length - 3, all.length));
+    }
+
+    @Test
+    public void iteratesAcrossManyYears() {
+        CandidateIterator candidates = CandidateIterator.forCode("A29",
+                DateCodes.epochDayOf(1990, 1, 1), DateCodes.epochDayOf(2016, 12, 31));
+
+        int count = 0;
+        int previous = Integer.MIN_VALUE;
+        while (candidates.hasNext()) {
+            int epochHour = candidates.nextEpochHour();
+            assertEquals(29, DateCodes.dayOfYear(epochHour / 24) % 100);
+            assertEquals(true, epochHour > previous);
+            previous = epochHour;
+            count++;
+        }
+
+        // Julian days 029, 129, 229, and 329 of 27 years
+        assertEquals(27 * 4, count);
+
+        // Julian day 366 only in the 7 leap years, and 000 stands for days 100, 200, and 300
+        assertEquals(27 * 3 + 7, drain(CandidateIterator.forCode("A66",
+                DateCodes.epochDayOf(1990, 1, 1), DateCodes.epochDayOf(2016, 12, 31))).length);
+        assertEquals(27 * 3, drain(CandidateIterator.forCode("A00",
+                DateCodes.epochDayOf(1990, 1, 1), DateCodes.epochDayOf(2016, 12, 31))).length);
+    }
+
+    @Test
+    public void clipsToWindow() {
+        CandidateIterator candidates = CandidateIterator.forCode("060",
+                DateCodes.epochDayOf(2015, 3, 2), DateCodes.epochDayOf(2016, 2, 28));
+
+        assertFalse(candidates.hasNext());
+    }
+
+    @Test
+    public void splitsWithoutLosingCandidates() {
+        int from = DateCodes.epochDayOf(1700, 1, 1);
+        int to = DateCodes.epochDayOf(2300, 12, 31);
+        int[] expected = drain(CandidateIterator.forCode("X15", from, to));
+
+        CandidateIterator candidates = CandidateIterator.forCode("X15", from, to);
+        candidates.hasNext();
+        CandidateIterator prefix = candidates.trySplit();
+        int[] head = drain(prefix);
+        int[] tail = drain(candidates);
+        int[] joined = Arrays.copyOf(head, head.length + tail.length);
+        System.arraycopy(tail, 0, joined, head.length, tail.length);
+        assertArrayEquals(expected, joined);
+
+        assertArrayEquals(expected, ParallelCandidates.toArray(
+                CandidateIterator.forCode("X15", from, to), new ForkJoinPool(4)));
+    }
+
+    @Test
+    public void rejectsInvalidCodes() {
+        assertNull(CandidateIterator.forCode("I01", 0, 1000));
+        assertNull(CandidateIterator.forCode("A3x", 0, 1000));
+        assertNull(CandidateIterator.forCode("000", 0, 1000));
+        assertNull(CandidateIterator.forCode("12", 0, 1000));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConveyanceTypeSyncTest {
+    private final List<Integer> received = new ArrayList<Integer>();
+    private final InMemorySettingsTransport transport = new InMemorySettingsTransport();
+    private final ConveyanceTypeSync watch = new ConveyanceTypeSync(null,
+            new ConveyanceTypeSync.Callback() {
+                @Override
+                public void onConveyanceTypeChanged(int conveyanceType) {
+                    received.add(conveyanceType);
+                }
+            }, DateCodes.AIR);
+
+    @Test
+    public void putsOnlyChangedValues() {
+        transport.setListener(watch);
+        ConveyanceTypeSync phone = new ConveyanceTypeSync(transport, null, DateCodes.UNKNOWN);
+
+        assertTrue(phone.publish("Surface"));
+        assertFalse(phone.publish("Surface"));
+        assertFalse(phone.publish("surface"));
+        assertTrue(phone.publish("Ocean"));
+        assertTrue(phone.publish("bogus"));
+        assertFalse(phone.publish("Air"));
+
+        assertEquals(3, transport.getPutCount());
+        assertEquals("Air", transport.getItem(ConveyanceTypeSync.PATH));
+        assertEquals("[1, 2, 0]", received.toString());
+        assertEquals(DateCodes.AIR, watch.getConveyanceType());
+    }
+
+    @Test
+    public void republishesAfterAsynchronousFailure() {
+        // Completes puts only when told to, as the Data Layer does on its own thread
+        final List<SettingsTransport.PutCallback> pending =
+                new ArrayList<SettingsTransport.PutCallback>();
+        ConveyanceTypeSync phone = new ConveyanceTypeSync(new SettingsTransport() {
+            @Override
+            public void put(String path, String value, PutCallback callback) {
+                pending.add(callback);
+            }
+        }, null, DateCodes.AIR);
+
+        assertTrue(phone.publish("Ocean"));
+        assertFalse(phone.publish("Ocean"));
+        pending.get(0).onPutComplete(false);
+        assertEquals(DateCodes.AIR, phone.getConveyanceType());
+
+        assertTrue(phone.publish("Ocean"));
+        pending.get(1).onPutComplete(true);
+        assertEquals(DateCodes.OCEAN, phone.getConveyanceType());
+        assertFalse(phone.publish("Ocean"));
+
+        // Switching back while a put is in flight puts the earlier type again
+        assertTrue(phone.publish("Surface"));
+        assertTrue(phone.publish("Ocean"));
+        pending.get(2).onPutComplete(true);
+        pending.get(3).onPutComplete(true);
+        assertEquals(DateCodes.OCEAN, phone.getConveyanceType());
+        assertEquals(4, pending.size());
+    }
+
+    @Test
+    public void restartedPhoneRepublishesWithoutWakingWatch() {
+        transport.setListener(watch);
+        new ConveyanceTypeSync(transport, null, DateCodes.UNKNOWN).publish("Air");
+
+        // The watch already had Air cached, so it is not told again
+        assertEquals(1, transport.getDeliveryCount());
+        assertEquals(0, received.size());
+
+        // A second process on the phone does not know what was published before
+        new ConveyanceTypeSync(transport, null, DateCodes.UNKNOWN).publish("Air");
+        assertEquals(1, transport.getDeliveryCount());
+    }
+
+    @Test
+    public void ignoresOtherPathsAndUnknownTypes() {
+        watch.onItemChanged("/other", "Ocean");
+        watch.onItemChanged(ConveyanceTypeSync.PATH, "Rail");
+        assertEquals(0, received.size());
+
+        watch.onItemChanged(ConveyanceTypeSync.PATH, "Ocean");
+        watch.onItemChanged(ConveyanceTypeSync.PATH, "Ocean");
+        assertEquals("[2]", received.toString());
+    }
+}
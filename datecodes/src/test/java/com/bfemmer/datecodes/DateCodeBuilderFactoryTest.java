@@ -0,0 +1,131 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class DateCodeBuilderFactoryTest {
+    private final TimeZone defaultZone = DateCodeBuilderFactory.getTimeZone();
+
+    @After
+    public void restoreTimeZone() {
+        DateCodeBuilderFactory.setTimeZone(defaultZone);
+    }
+
+    @Test
+    public void returnsSharedBuilderPerConveyanceType() {
+        assertSame(DateCodeBuilderFactory.getDateCodeBuilder("Air"),
+                DateCodeBuilderFactory.getDateCodeBuilder("air"));
+        assertSame(DateCodeBuilderFactory.getDateCodeBuilder("Air"),
+                DateCodeBuilderFactory.getDateCodeBuilder("-1"));
+        assertSame(DateCodeBuilderFactory.getDateCodeBuilder("Ocean"),
+                DateCodeBuilderFactory.getDateCodeBuilder(DateCodes.OCEAN));
+    }
+
+    @Test
+    public void encodesInFactoryTimeZone() {
+        TimeZone zone = TimeZone.getTimeZone("America/Los_Angeles");
+        DateCodeBuilderFactory.setTimeZone(zone);
+
+        Calendar calendar = new GregorianCalendar(zone);
+        calendar.clear();
+        calendar.set(2016, Calendar.JULY, 4, 9, 30);
+        long timeInMillis = calendar.getTimeInMillis();
+
+        assertEquals("S86", DateCodeBuilderFactory.getDateCodeBuilder("Air").getCode(timeInMillis));
+        assertEquals("186", DateCodeBuilderFactory.getDateCodeBuilder("Surface").getCode(timeInMillis));
+        assertEquals("6186", DateCodeBuilderFactory.getDateCodeBuilder("Ocean").getCode(timeInMillis));
+    }
+
+    @Test
+    public void reusesCodeWithinSameHour() {
+        DateCodeBuilder builder = DateCodeBuilderFactory.getDateCodeBuilder("Air");
+        long topOfHour = (System.currentTimeMillis() / DateCodes.MILLIS_PER_DAY) * DateCodes.MILLIS_PER_DAY;
+
+        DateCodeBuilderFactory.setTimeZone(TimeZone.getTimeZone("UTC"));
+        assertSame(builder.getCode(topOfHour), builder.getCode(topOfHour + 59 * 60 * 1000));
+    }
+
+    @Test
+    public void reverseCalculatesLocalDates() {
+        TimeZone zone = TimeZone.getTimeZone("Asia/Tokyo");
+        DateCodeBuilderFactory.setTimeZone(zone);
+
+        List<Date> dates = DateCodeBuilderFactory.getDateCodeBuilder("Surface").getCalendarDatesForCode("001");
+        assertEquals(1, dates.size());
+
+        Calendar calendar = new GregorianCalendar(zone);
+        calendar.setTime(dates.get(0));
+        assertEquals(1, calendar.get(Calendar.DAY_OF_YEAR));
+        assertEquals(0, calendar.get(Calendar.HOUR_OF_DAY));
+    }
+
+    @Test
+    public void reverseCalculatesBatchIntoColumns() {
+        TimeZone zone = TimeZone.getTimeZone("America/New_York");
+        DateCodeBuilderFactory.setTimeZone(zone);
+        DateCodeBuilder builder = DateCodeBuilderFactory.getDateCodeBuilder("Air");
+        String[] codes = {"N29", "A31", "O01", "X15"};
+
+        CalendarDates dates = new CalendarDates();
+        for (int pass = 0; pass < 2; pass++) {
+            dates.clear();
+            builder.getCalendarDates(codes, 0, codes.length, dates);
+            builder.getCalendarDates(codes, 0, codes.length, dates);
+            assertEquals(2 * codes.length, dates.size());
+
+            for (int code = 0; code < dates.size(); code++) {
+                String value = codes[code % codes.length];
+                if (!dates.isValid(code)) {
+                    assertEquals("O01", value);
+                    continue;
+                }
+
+                List<Date> expected = builder.getCalendarDatesForCode(value);
+                assertEquals(expected.size(), dates.getCount(code));
+                for (int i = 0; i < expected.size(); i++) {
+                    int candidate = dates.getStart(code) + i;
+                    assertEquals(expected.get(i).getTime(), dates.getTimeInMillis(candidate, zone));
+                    assertEquals(DateCodes.hourCodeIndex(value.charAt(0)), dates.getHour(candidate));
+                }
+            }
+        }
+        assertEquals(DateCodes.INVALID, builder.getCalendarDates("O01", dates));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidCode() {
+        DateCodeBuilderFactory.getDateCodeBuilder("Ocean").getCalendarDatesForCode("12");
+    }
+}
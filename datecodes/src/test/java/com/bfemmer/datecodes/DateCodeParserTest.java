@@ -0,0 +1,74 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DateCodeParserTest {
+    private final DecodeTable table = new DecodeTable(2016, DateCodes.epochDayOf(2016, 6, 1));
+    private final int[] hours = new int[DateCodes.MAX_CANDIDATES];
+
+    @Test
+    public void classifiesByLengthAndFirstCharacter() {
+        assertEquals(DateCodes.AIR, DateCodeParser.type(DateCodeParser.classify("N29")));
+        assertEquals(DateCodes.AIR, DateCodeParser.type(DateCodeParser.classify("#29")));
+        assertEquals(DateCodes.SURFACE, DateCodeParser.type(DateCodeParser.classify("060")));
+        assertEquals(DateCodes.OCEAN, DateCodeParser.type(DateCodeParser.classify("6060")));
+        assertEquals(DateCodeParser.ERROR_EMPTY, DateCodeParser.status(DateCodeParser.classify("")));
+        assertEquals(DateCodeParser.ERROR_EMPTY, DateCodeParser.status(DateCodeParser.classify(null)));
+        assertEquals(DateCodeParser.ERROR_LENGTH, DateCodeParser.status(DateCodeParser.classify("12345")));
+        assertEquals(DateCodes.UNKNOWN, DateCodeParser.type(DateCodeParser.classify("12")));
+    }
+
+    @Test
+    public void decodesValidCodes() {
+        int result = DateCodeParser.parse("b52", table, hours, 0);
+        assertTrue(DateCodeParser.isValid(result));
+        assertEquals(DateCodes.AIR, DateCodeParser.type(result));
+        assertEquals(3, DateCodeParser.count(result));
+        assertEquals(DateCodes.epochDayOf(2015, 12, 18) * 24 + 1, hours[0]);
+        assertEquals(DateCodes.epochDayOf(2016, 5, 31) * 24 + 1, hours[2]);
+
+        result = DateCodeParser.parse("9365", table, hours, 0);
+        assertEquals(DateCodes.OCEAN, DateCodeParser.type(result));
+        assertEquals(1, DateCodeParser.count(result));
+        assertEquals(DateCodes.epochDayOf(2009, 12, 31) * 24, hours[0]);
+    }
+
+    @Test
+    public void reportsFormatAndRangeErrors() {
+        assertEquals(DateCodeParser.ERROR_FORMAT, DateCodeParser.status(DateCodeParser.parse("O01", table, hours, 0)));
+        assertEquals(DateCodeParser.ERROR_FORMAT, DateCodeParser.status(DateCodeParser.parse("Z5x", table, hours, 0)));
+        assertEquals(DateCodeParser.ERROR_FORMAT, DateCodeParser.status(DateCodeParser.parse("1AB", table, hours, 0)));
+        assertEquals(DateCodeParser.ERROR_FORMAT, DateCodeParser.status(DateCodeParser.parse("A001", table, hours, 0)));
+        // Every well-formed Air code matches at least the year before
+        assertEquals(DateCodeParser.OK, DateCodeParser.status(DateCodeParser.parse("A99", table, hours, 0)));
+        assertEquals(DateCodeParser.ERROR_RANGE, DateCodeParser.status(DateCodeParser.parse("367", table, hours, 0)));
+        assertEquals(DateCodeParser.ERROR_RANGE, DateCodeParser.status(DateCodeParser.parse("5366", table, hours, 0)));
+        assertEquals(DateCodeParser.ERROR_LENGTH, DateCodeParser.status(DateCodeParser.parse("A1", table, hours, 0)));
+    }
+}
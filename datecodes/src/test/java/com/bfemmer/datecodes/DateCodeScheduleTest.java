@@ -0,0 +1,138 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class DateCodeScheduleTest {
+    private static final TimeZone LOS_ANGELES = TimeZone.getTimeZone("America/Los_Angeles");
+    private static final long MINUTE = 60 * 1000L;
+
+    private final TimeZone defaultZone = DateCodeBuilderFactory.getTimeZone();
+
+    @After
+    public void restoreTimeZone() {
+        DateCodeBuilderFactory.setTimeZone(defaultZone);
+    }
+
+    private static long millis(TimeZone zone, int year, int month, int day, int hour, int minute) {
+        Calendar calendar = new GregorianCalendar(zone);
+        calendar.clear();
+        calendar.set(year, month - 1, day, hour, minute);
+        return calendar.getTimeInMillis();
+    }
+
+    @Test
+    public void airTransitionsAtTopOfHour() {
+        long now = millis(LOS_ANGELES, 2016, 7, 4, 9, 30);
+
+        assertEquals(now + 30 * MINUTE,
+                DateCodeSchedule.nextTransitionMillis(DateCodes.AIR, LOS_ANGELES, now));
+        assertEquals(millis(LOS_ANGELES, 2016, 7, 5, 0, 0),
+                DateCodeSchedule.nextTransitionMillis(DateCodes.SURFACE, LOS_ANGELES, now));
+    }
+
+    @Test
+    public void airTransitionsAcrossDaylightSavingChanges() {
+        // 2:00 does not exist on 2016-03-13; the clock goes from 1:59 PST to 3:00 PDT
+        long springForward = millis(LOS_ANGELES, 2016, 3, 13, 1, 30);
+        assertEquals(springForward + 30 * MINUTE,
+                DateCodeSchedule.nextTransitionMillis(DateCodes.AIR, LOS_ANGELES, springForward));
+
+        // 1:00-1:59 happens twice on 2016-11-06, but Zulu hours are unaffected
+        long fallBack = millis(LOS_ANGELES, 2016, 11, 6, 0, 30) + 60 * MINUTE;
+        assertEquals(fallBack + 30 * MINUTE,
+                DateCodeSchedule.nextTransitionMillis(DateCodes.AIR, LOS_ANGELES, fallBack));
+        assertEquals(fallBack + 90 * MINUTE,
+                DateCodeSchedule.nextTransitionMillis(DateCodes.AIR, LOS_ANGELES,
+                        fallBack + 60 * MINUTE));
+    }
+
+    @Test
+    public void surfaceTransitionsAfterRepeatedHourBeforeMidnight() {
+        // Sao Paulo fell back from midnight to 23:00 on 2016-02-21, so 23:00-23:59 on 02-20
+        // happens twice; the day changes after the second
+        TimeZone saoPaulo = TimeZone.getTimeZone("America/Sao_Paulo");
+        long beforeFallBack = millis(saoPaulo, 2016, 2, 20, 22, 30);
+        assertEquals(beforeFallBack + 150 * MINUTE,
+                DateCodeSchedule.nextTransitionMillis(DateCodes.SURFACE, saoPaulo,
+                        beforeFallBack));
+    }
+
+    @Test
+    public void recalculatesOnlyAtTransition() {
+        DateCodeBuilderFactory.setTimeZone(LOS_ANGELES);
+        DateCodeSchedule schedule = new DateCodeSchedule(DateCodes.AIR);
+        long now = millis(LOS_ANGELES, 2016, 7, 4, 9, 0);
+
+        String code = schedule.getCode(now);
+        assertEquals("S86", code);
+        assertSame(code, schedule.getCode(now + 59 * MINUTE));
+        assertEquals("T86", schedule.getCode(now + 60 * MINUTE));
+        assertEquals(now + 120 * MINUTE, schedule.getNextTransitionMillis());
+        assertEquals(2, schedule.getRecalculationCount());
+
+        // Clock set back
+        assertEquals("S86", schedule.getCode(now + MINUTE));
+    }
+
+    @Test
+    public void recalculatesWhenZoneChanges() {
+        DateCodeBuilderFactory.setTimeZone(LOS_ANGELES);
+        DateCodeSchedule schedule = new DateCodeSchedule(DateCodes.AIR);
+        long now = millis(LOS_ANGELES, 2016, 7, 4, 9, 0);
+
+        String code = schedule.getCode(now);
+        DateCodeBuilderFactory.setTimeZone(TimeZone.getTimeZone("Asia/Tokyo"));
+        assertNotSame(code, schedule.getCode(now));
+        // Air codes are in Zulu time, so the zone only changes the Surface code
+        assertEquals("S86", schedule.getCode(now));
+        schedule.setConveyanceType(DateCodes.SURFACE);
+        assertEquals("187", schedule.getCode(now));
+    }
+
+    @Test
+    public void recalculatesWhenConveyanceTypeChanges() {
+        DateCodeBuilderFactory.setTimeZone(LOS_ANGELES);
+        DateCodeSchedule schedule = new DateCodeSchedule(DateCodes.AIR);
+        long now = millis(LOS_ANGELES, 2016, 7, 4, 9, 0);
+
+        assertEquals("S86", schedule.getCode(now));
+        schedule.setConveyanceType(DateCodes.AIR);
+        assertEquals(1, schedule.getRecalculationCount());
+
+        schedule.setConveyanceType(DateCodes.SURFACE);
+        assertEquals("186", schedule.getCode(now));
+        assertEquals(millis(LOS_ANGELES, 2016, 7, 5, 0, 0), schedule.getNextTransitionMillis());
+    }
+}
@@ -0,0 +1,187 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class DateCodesTest {
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private static long utcMillis(int year, int month, int day, int hour) {
+        return utcMillis(year, month, day, hour, 0);
+    }
+
+    private static long utcMillis(int year, int month, int day, int hour, int minute) {
+        Calendar calendar = new GregorianCalendar(UTC);
+        calendar.clear();
+        calendar.set(year, month - 1, day, hour, minute, 0);
+        return calendar.getTimeInMillis();
+    }
+
+    private static String encode(int type, long codeMillis) {
+        char[] buffer = new char[4];
+        int length = DateCodes.encode(type, codeMillis, buffer, 0);
+        return new String(buffer, 0, length);
+    }
+
+    private static int[] decode(int type, String code, int referenceDay) {
+        int[] hours = new int[DateCodes.MAX_CANDIDATES];
+        int count = DateCodes.decode(type, code, referenceDay, hours, 0);
+        return count == DateCodes.INVALID ? null : Arrays.copyOf(hours, count);
+    }
+
+    private static int epochHour(int year, int month, int day, int hour) {
+        return DateCodes.epochDayOf(year, month, day) * DateCodes.HOURS_PER_DAY + hour;
+    }
+
+    @Test
+    public void civilDateMatchesCalendar() {
+        Calendar calendar = new GregorianCalendar(UTC);
+        calendar.clear();
+        calendar.set(1899, Calendar.DECEMBER, 25);
+
+        for (int i = 0; i < 200 * 366; i++) {
+            int epochDay = DateCodes.epochDay(calendar.getTimeInMillis());
+            int date = DateCodes.civilDate(epochDay);
+
+            assertEquals(calendar.get(Calendar.YEAR), DateCodes.packedYear(date));
+            assertEquals(calendar.get(Calendar.MONTH) + 1, DateCodes.packedMonth(date));
+            assertEquals(calendar.get(Calendar.DAY_OF_MONTH), DateCodes.packedDay(date));
+            assertEquals(calendar.get(Calendar.DAY_OF_YEAR), DateCodes.dayOfYear(epochDay));
+            assertEquals(epochDay, DateCodes.epochDayOf(DateCodes.packedYear(date),
+                    DateCodes.packedMonth(date), DateCodes.packedDay(date)));
+
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+        }
+    }
+
+    @Test
+    public void encodesEachConveyanceType() {
+        long codeMillis = utcMillis(2016, 2, 29, 13);
+
+        assertEquals("P60", encode(DateCodes.AIR, codeMillis));
+        assertEquals("060", encode(DateCodes.SURFACE, codeMillis));
+        assertEquals("6060", encode(DateCodes.OCEAN, codeMillis));
+        assertEquals("A01", encode(DateCodes.AIR, utcMillis(2016, 1, 1, 0)));
+        assertEquals("Z66", encode(DateCodes.AIR, utcMillis(2016, 12, 31, 23)));
+        assertEquals("J00", encode(DateCodes.AIR, utcMillis(2016, 4, 9, 8)));
+        assertEquals("366", encode(DateCodes.SURFACE, utcMillis(2016, 12, 31, 23)));
+    }
+
+    @Test
+    public void encodesAirInZuluTime() {
+        // 7:47 PM EDT on June 1, 2016
+        long utcMillis = utcMillis(2016, 6, 1, 23, 47);
+        TimeZone newYork = TimeZone.getTimeZone("America/New_York");
+
+        assertEquals("Z53", encode(DateCodes.AIR,
+                Zones.toCodeMillis(DateCodes.AIR, newYork, utcMillis)));
+        assertEquals("153", encode(DateCodes.SURFACE,
+                Zones.toCodeMillis(DateCodes.SURFACE, newYork, utcMillis)));
+    }
+
+    @Test
+    public void decodesAirCodeUpToReferenceDayAndLastMatchOfPreviousYear() {
+        int today = DateCodes.epochDayOf(2016, 6, 1);
+
+        // Julian days 352, 052, and 152; 2016-252 and 2016-352 are still to come
+        assertArrayEquals(new int[]{epochHour(2015, 12, 18, 1), epochHour(2016, 2, 21, 1),
+                epochHour(2016, 5, 31, 1)}, decode(DateCodes.AIR, "B52", today));
+        assertArrayEquals(new int[]{epochHour(2015, 12, 18, 1), epochHour(2016, 2, 21, 1),
+                epochHour(2016, 5, 31, 1)}, decode(DateCodes.AIR, "b52", today));
+
+        // The reference day itself is included
+        int[] hours = decode(DateCodes.AIR, "Z53", today);
+        assertEquals(3, hours.length);
+        assertEquals(epochHour(2016, 6, 1, 23), hours[2]);
+
+        // Julian day 366 only exists in leap years; 000 stands for days 100, 200, and 300
+        assertArrayEquals(new int[]{epochHour(2016, 12, 31, 0), epochHour(2017, 3, 7, 0)},
+                decode(DateCodes.AIR, "A66", DateCodes.epochDayOf(2017, 6, 1)));
+        assertArrayEquals(new int[]{epochHour(2016, 10, 26, 0), epochHour(2017, 4, 10, 0)},
+                decode(DateCodes.AIR, "A00", DateCodes.epochDayOf(2017, 6, 1)));
+        assertEquals(DateCodes.MAX_CANDIDATES,
+                decode(DateCodes.AIR, "A01", DateCodes.epochDayOf(2016, 12, 31)).length);
+    }
+
+    @Test
+    public void decodesSurfaceAndOceanCodes() {
+        int[] hours = new int[1];
+        int reference = DateCodes.epochDayOf(2016, 12, 31);
+
+        assertEquals(1, DateCodes.decode(DateCodes.SURFACE, "060", reference, hours, 0));
+        assertEquals(DateCodes.epochDayOf(2016, 2, 29) * 24, hours[0]);
+
+        assertEquals(1, DateCodes.decode(DateCodes.OCEAN, "9365", reference, hours, 0));
+        assertEquals(DateCodes.epochDayOf(2009, 12, 31) * 24, hours[0]);
+
+        assertEquals(1, DateCodes.decode(DateCodes.OCEAN, "6001", reference, hours, 0));
+        assertEquals(DateCodes.epochDayOf(2016, 1, 1) * 24, hours[0]);
+    }
+
+    @Test
+    public void rejectsInvalidCodes() {
+        int day2016 = DateCodes.epochDayOf(2016, 6, 1);
+        int day2015 = DateCodes.epochDayOf(2015, 6, 1);
+
+        // I and O are not hour letters
+        assertNull(decode(DateCodes.AIR, "I01", day2016));
+        assertNull(decode(DateCodes.AIR, "O01", day2016));
+        assertNull(decode(DateCodes.AIR, "A1", day2016));
+        assertNull(decode(DateCodes.AIR, "A1x", day2016));
+        assertNull(decode(DateCodes.SURFACE, "000", day2016));
+        assertNull(decode(DateCodes.SURFACE, "366", day2015));
+        assertNull(decode(DateCodes.SURFACE, "3a6", day2016));
+        assertNull(decode(DateCodes.OCEAN, "X001", day2016));
+        assertNull(decode(DateCodes.OCEAN, null, day2016));
+    }
+
+    @Test
+    public void hourCodesSkipIAndO() {
+        for (int hour = 0; hour < DateCodes.HOURS_PER_DAY; hour++) {
+            char code = DateCodes.hourCode(hour);
+            assertEquals(hour, DateCodes.hourCodeIndex(code));
+            assertEquals(hour, DateCodes.hourCodeIndex(Character.toLowerCase(code)));
+        }
+        assertEquals('H', DateCodes.hourCode(7));
+        assertEquals('J', DateCodes.hourCode(8));
+        assertEquals('P', DateCodes.hourCode(13));
+        assertEquals('Z', DateCodes.hourCode(23));
+    }
+
+    @Test
+    public void hourOfDayHandlesTimesBeforeEpoch() {
+        assertEquals(23, DateCodes.hourOfDay(-1));
+        assertEquals(-1, DateCodes.epochDay(-1));
+    }
+}
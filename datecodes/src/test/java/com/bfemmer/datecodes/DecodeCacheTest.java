@@ -0,0 +1,80 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class DecodeCacheTest {
+    private final DecodeTable table = new DecodeTable(2016);
+
+    @Test
+    public void returnsSameResultAsParser() {
+        DecodeCache cache = new DecodeCache(8);
+        int[] expected = new int[DateCodes.MAX_CANDIDATES];
+        int[] actual = new int[DateCodes.MAX_CANDIDATES];
+
+        for (String code : new String[]{"N29", "n29", "060", "6060", "O01", "12"}) {
+            int expectedResult = DateCodeParser.parse(code, table, expected, 0);
+            int count = DateCodeParser.count(expectedResult);
+            for (int i = 0; i < 2; i++) {
+                assertEquals(code, expectedResult, cache.decode(code, table, actual, 0));
+                assertArrayEquals(code, Arrays.copyOf(expected, count), Arrays.copyOf(actual, count));
+            }
+        }
+
+        // "N29" and "n29" share an entry; invalid codes are not cached
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        DecodeCache cache = new DecodeCache(2);
+        int[] hours = new int[DateCodes.MAX_CANDIDATES];
+
+        cache.decode("001", table, hours, 0);
+        cache.decode("002", table, hours, 0);
+        cache.decode("001", table, hours, 0);
+        cache.decode("003", table, hours, 0);
+
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void clearsWhenReferenceYearChanges() {
+        DecodeCache cache = new DecodeCache(8);
+        int[] hours = new int[DateCodes.MAX_CANDIDATES];
+
+        cache.decode("001", table, hours, 0);
+        cache.decode("002", table, hours, 0);
+        cache.decode("001", new DecodeTable(2017), hours, 0);
+
+        assertEquals(1, cache.size());
+        assertEquals(DateCodes.epochDayOf(2017, 1, 1) * 24, hours[0]);
+    }
+}
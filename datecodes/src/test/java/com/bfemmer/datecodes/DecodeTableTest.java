@@ -0,0 +1,110 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import org.junit.Test;
+
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class DecodeTableTest {
+    private static final String HOUR_CODES = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    private static void assertSameAsCalculated(DecodeTable table, int type, String code) {
+        int[] expected = new int[DateCodes.MAX_CANDIDATES];
+        int[] actual = new int[DateCodes.MAX_CANDIDATES];
+
+        int expectedCount =
+                DateCodes.decode(type, code, table.getReferenceDay(type), expected, 0);
+        assertEquals(code, expectedCount, table.decode(type, code, actual, 0));
+        assertArrayEquals(code, expected, actual);
+    }
+
+    private static void assertAirSameAsCalculated(DecodeTable table) {
+        for (int i = 0; i < HOUR_CODES.length(); i++) {
+            for (int day = 0; day < 100; day++) {
+                String code = HOUR_CODES.charAt(i) + (day < 10 ? "0" : "") + day;
+                assertSameAsCalculated(table, DateCodes.AIR, code);
+                assertSameAsCalculated(table, DateCodes.AIR, code.toLowerCase());
+            }
+        }
+    }
+
+    @Test
+    public void matchesCalculatedDecodeForEveryCode() {
+        for (int year : new int[]{1999, 2000, 2015, 2016, 2100}) {
+            DecodeTable table = new DecodeTable(year);
+
+            assertAirSameAsCalculated(table);
+            for (int code = 0; code < 10000; code++) {
+                assertSameAsCalculated(table, DateCodes.SURFACE, String.format("%03d", code % 1000));
+                assertSameAsCalculated(table, DateCodes.OCEAN, String.format("%04d", code));
+            }
+
+            // Air candidates after the UTC reference day are dropped
+            assertAirSameAsCalculated(new DecodeTable(year, DateCodes.epochDayOf(year, 6, 1)));
+            assertAirSameAsCalculated(new DecodeTable(year, DateCodes.epochDayOf(year + 1, 1, 1)));
+        }
+    }
+
+    @Test
+    public void rejectsMalformedCodes() {
+        DecodeTable table = new DecodeTable(2016);
+        int[] hours = new int[DateCodes.MAX_CANDIDATES];
+
+        assertEquals(DateCodes.INVALID, table.decode(DateCodes.AIR, "1AB", hours, 0));
+        assertEquals(DateCodes.INVALID, table.decode(DateCodes.SURFACE, "12", hours, 0));
+        assertEquals(DateCodes.INVALID, table.decode(DateCodes.OCEAN, "6 01", hours, 0));
+        assertEquals(DateCodes.INVALID, table.decode(DateCodes.OCEAN, null, hours, 0));
+    }
+
+    @Test
+    public void sharesTablesPerYearAndReferenceDay() {
+        DecodeTable table = DecodeTable.forYear(2016);
+
+        assertSame(table, DecodeTable.forYear(2016));
+        assertNotSame(table, DecodeTable.forYear(2017));
+        assertEquals(2017, DecodeTable.forYear(2017).getReferenceYear());
+        // Callers alternating between years do not evict each other's tables
+        assertSame(table, DecodeTable.forYear(2016));
+    }
+
+    @Test
+    public void usesLocalYearAndUtcDayOfInstant() {
+        // 2016-12-31 22:00 in New York is already 2017-01-01 in UTC
+        TimeZone newYork = TimeZone.getTimeZone("America/New_York");
+        long nowMillis = DateCodes.epochDayOf(2017, 1, 1) * DateCodes.MILLIS_PER_DAY
+                + 3 * DateCodes.MILLIS_PER_HOUR;
+
+        DecodeTable table = DecodeTable.forInstant(newYork, nowMillis);
+        assertEquals(2016, table.getReferenceYear());
+        assertEquals(DateCodes.epochDayOf(2017, 1, 1), table.getAirReferenceDay());
+        assertSame(table, DecodeTable.forInstant(newYork, nowMillis));
+        assertNotSame(table, DecodeTable.forInstant(TimeZone.getTimeZone("UTC"), nowMillis));
+    }
+}
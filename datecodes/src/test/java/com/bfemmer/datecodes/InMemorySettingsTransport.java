@@ -0,0 +1,66 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link SettingsTransport} that delivers items straight to a listener on the same thread, with
+ * the Data Layer's behavior of dropping puts that do not change an item.
+ */
+class InMemorySettingsTransport implements SettingsTransport {
+    private final Map<String, String> items = new HashMap<String, String>();
+    private SettingsTransport.Listener listener;
+    private int putCount;
+    private int deliveryCount;
+
+    void setListener(SettingsTransport.Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void put(String path, String value, PutCallback callback) {
+        putCount++;
+        if (!value.equals(items.put(path, value))) {
+            deliveryCount++;
+            if (listener != null) {
+                listener.onItemChanged(path, value);
+            }
+        }
+        callback.onPutComplete(true);
+    }
+
+    String getItem(String path) {
+        return items.get(path);
+    }
+
+    int getPutCount() {
+        return putCount;
+    }
+
+    int getDeliveryCount() {
+        return deliveryCount;
+    }
+}
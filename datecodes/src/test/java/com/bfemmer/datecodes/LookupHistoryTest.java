@@ -0,0 +1,154 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LookupHistoryTest {
+    // 2016-02-29 12:00 UTC
+    private static final long NOW = 1456747200000L;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final DecodeTable table = new DecodeTable(2016);
+
+    private static int append(LookupHistory history, DecodeTable table, long timestamp, String code)
+            throws IOException {
+        int[] hours = new int[DateCodes.MAX_CANDIDATES];
+        int result = DateCodeParser.parse(code, table, hours, 0);
+        return history.append(timestamp, code, result, hours, 0);
+    }
+
+    @Test
+    public void findsByCodePrefixAndTime() throws IOException {
+        LookupHistory history = LookupHistory.open(folder.newFile());
+        String[] codes = {"N29", "060", "n28", "6060", "N2", "O99", "A01"};
+        for (int i = 0; i < codes.length; i++) {
+            assertEquals(i, append(history, table, NOW + i * 1500L, codes[i]));
+        }
+        assertEquals(-1, append(history, table, NOW, "12345"));
+
+        assertEquals("[4, 2, 0]", Arrays.toString(history.findByCodePrefix("n2")));
+        assertEquals("[0]", Arrays.toString(history.findByCodePrefix("N29")));
+        assertEquals("[3]", Arrays.toString(history.findByCodePrefix("6")));
+        assertEquals(codes.length, history.findByCodePrefix("").length);
+        assertEquals(0, history.findByCodePrefix("N290").length);
+        assertEquals(0, history.findByCodePrefix("N2901").length);
+
+        assertEquals("[1, 2, 3]", Arrays.toString(history.findByTime(NOW + 1500, NOW + 4500)));
+        assertEquals("[2]", Arrays.toString(history.findByTime(NOW + 1501, NOW + 4499)));
+
+        assertEquals("N28", history.getCode(2));
+        assertEquals("6060", history.getCode(3));
+        assertEquals(DateCodeParser.ERROR_FORMAT, DateCodeParser.status(history.getResult(5)));
+        history.close();
+    }
+
+    @Test
+    public void reopensAndDropsTornRecord() throws IOException {
+        File file = folder.newFile();
+        LookupHistory history = LookupHistory.open(file);
+        char[] code = new char[4];
+        for (int i = 0; i < 5000; i++) {
+            // Out of order timestamps as if the clock was set back halfway through
+            long timestamp = NOW + (i < 2500 ? i : i - 3000) * 60000L;
+            int length = DateCodes.encode(DateCodes.AIR, timestamp, code, 0);
+            append(history, table, timestamp, new String(code, 0, length));
+        }
+        int[] expected = new int[DateCodes.MAX_CANDIDATES];
+        int expectedCount = history.readCandidates(4321, expected, 0);
+        history.close();
+
+        // Simulate a crash halfway through writing one more record
+        RandomAccessFile raw = new RandomAccessFile(file, "rw");
+        raw.seek(raw.length());
+        raw.write(new byte[20]);
+        raw.close();
+
+        history = LookupHistory.open(file);
+        assertEquals(5000, history.size());
+        int[] actual = new int[DateCodes.MAX_CANDIDATES];
+        assertEquals(expectedCount, history.readCandidates(4321, actual, 0));
+        assertArrayEquals(expected, actual);
+        assertEquals(DateCodes.MAX_CANDIDATES, expectedCount);
+
+        int[] minute = history.findByTime(NOW + 1000 * 60000L, NOW + 1000 * 60000L);
+        assertEquals("[1000, 4000]", Arrays.toString(minute));
+        int[] all = history.findByTime(Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(5000, all.length);
+        for (int i = 1; i < all.length; i++) {
+            assertTrue(history.getTimestamp(all[i - 1]) <= history.getTimestamp(all[i]));
+        }
+
+        assertEquals(5000, append(history, table, NOW, "A01"));
+        history.close();
+        assertEquals(5001, LookupHistory.open(file).size());
+    }
+
+    @Test
+    public void skipsDamagedRecordAndKeepsTheRest() throws IOException {
+        File file = folder.newFile();
+        LookupHistory history = LookupHistory.open(file);
+        String[] codes = {"060", "061", "062", "063"};
+        for (int i = 0; i < codes.length; i++) {
+            append(history, table, NOW + i, codes[i]);
+        }
+        history.close();
+        long length = file.length();
+
+        // Zero the code of the second record; Surface records are 20 bytes after an 8 byte header
+        RandomAccessFile raw = new RandomAccessFile(file, "rw");
+        raw.seek(8 + 20 + 8);
+        raw.writeInt(0);
+        raw.close();
+
+        history = LookupHistory.open(file);
+        assertEquals(3, history.size());
+        assertEquals("062", history.getCode(1));
+        assertEquals("063", history.getCode(2));
+        int[] hours = new int[DateCodes.MAX_CANDIDATES];
+        assertEquals(1, history.readCandidates(2, hours, 0));
+        assertEquals(DateCodes.epochDayOf(2016, 3, 3) * 24, hours[0]);
+        assertEquals(length, file.length());
+
+        assertEquals(3, append(history, table, NOW, "A01"));
+        history.close();
+        history = LookupHistory.open(file);
+        assertEquals(4, history.size());
+        assertEquals("A01", history.getCode(3));
+        history.close();
+    }
+}
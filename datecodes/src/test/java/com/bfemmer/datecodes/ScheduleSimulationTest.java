@@ -0,0 +1,100 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ScheduleSimulationTest {
+    private static final TimeZone NEW_YORK = TimeZone.getTimeZone("America/New_York");
+
+    private static long startOfYear(TimeZone zone, int year) {
+        return Zones.toUtcMillis(zone, DateCodes.epochDayOf(year, 1, 1) * DateCodes.MILLIS_PER_DAY);
+    }
+
+    private static int dayOf(ScheduleSimulation simulation, int year, int month, int day) {
+        return DateCodes.epochDayOf(year, month, day) - simulation.getEpochDay(0);
+    }
+
+    @Test
+    public void replaysLeapYearOfAirCodesAcrossDaylightSaving() {
+        Clock clock = DateCodeBuilderFactory.getClock();
+        ScheduleSimulation simulation = new ScheduleSimulation(DateCodes.AIR, NEW_YORK);
+        simulation.run(startOfYear(NEW_YORK, 2016), startOfYear(NEW_YORK, 2017));
+
+        assertEquals(366, simulation.getDayCount());
+        assertEquals(0, simulation.getMismatches());
+        assertSame(clock, DateCodeBuilderFactory.getClock());
+
+        // Air codes change every Zulu hour, so local days have as many transitions as hours
+        assertEquals(23, simulation.getTransitions(dayOf(simulation, 2016, 3, 13)));
+        assertEquals(25, simulation.getTransitions(dayOf(simulation, 2016, 11, 6)));
+        assertEquals(24, simulation.getTransitions(dayOf(simulation, 2016, 2, 29)));
+        // Every hour of the year, less the code shown at the start
+        assertEquals(366 * 24 - 1, simulation.getTotalTransitions());
+        assertEquals(simulation.getTotalWakeups(), simulation.getTotalRecalculations());
+    }
+
+    @Test
+    public void marksDaysWhoseOffsetChanges() throws IOException {
+        ScheduleSimulation simulation = new ScheduleSimulation(DateCodes.SURFACE, NEW_YORK);
+        simulation.run(startOfYear(NEW_YORK, 2016), startOfYear(NEW_YORK, 2017));
+
+        // Surface codes change once a day whether or not the day is 24 hours long
+        int springForward = dayOf(simulation, 2016, 3, 13);
+        int fallBack = dayOf(simulation, 2016, 11, 6);
+        assertEquals(1, simulation.getTransitions(fallBack));
+        assertTrue(simulation.isOffsetChangeDay(springForward));
+        assertTrue(simulation.isOffsetChangeDay(fallBack));
+        assertFalse(simulation.isOffsetChangeDay(fallBack - 1));
+
+        StringBuilder report = new StringBuilder();
+        simulation.writeReport(report);
+        assertTrue(report.toString(), report.toString().contains("\n2016-11-06 ")
+                && report.toString().contains(" *\n2016-11-07 "));
+        assertEquals(2, report.toString().split(" \\*").length - 1);
+    }
+
+    @Test
+    public void countsTicksWithoutExtraRecalculations() {
+        ScheduleSimulation simulation = new ScheduleSimulation(DateCodes.OCEAN,
+                TimeZone.getTimeZone("Asia/Kolkata"));
+        simulation.setTickMillis(DateCodes.MILLIS_PER_HOUR / 60);
+        long start = startOfYear(TimeZone.getTimeZone("Asia/Kolkata"), 2016);
+        simulation.run(start + 1, start + 7 * DateCodes.MILLIS_PER_DAY);
+
+        assertEquals(0, simulation.getMismatches());
+        assertEquals(7, simulation.getDayCount());
+        assertEquals(1440, simulation.getWakeups(3));
+        assertEquals(1, simulation.getRecalculations(3));
+        assertEquals(1, simulation.getTransitions(3));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StationBoardTest {
+    // 2016-02-29 12:10 UTC
+    private static final long NOW = 1456747800000L;
+    private static final long MINUTE = 60000;
+
+    private static final String[] IDS = {"America/New_York", "Asia/Kolkata", "UTC",
+            "Asia/Kathmandu", "America/Los_Angeles", "Australia/Adelaide"};
+
+    private static String expectedCode(int type, TimeZone zone, long nowMillis) {
+        char[] code = new char[4];
+        int length = DateCodes.encode(type, Zones.toCodeMillis(type, zone, nowMillis), code, 0);
+        return new String(code, 0, length);
+    }
+
+    private static StationBoard board(int type) {
+        StationBoard board = new StationBoard(type);
+        for (String id : IDS) {
+            board.addStation(id, TimeZone.getTimeZone(id), NOW);
+        }
+        return board;
+    }
+
+    @Test
+    public void wakesOnlyForChangedStations() {
+        StationBoard board = board(DateCodes.SURFACE);
+        for (int i = 0; i < IDS.length; i++) {
+            assertEquals(expectedCode(DateCodes.SURFACE, board.getZone(i), NOW), board.getCode(i));
+        }
+
+        // The day changes in Adelaide (+10:30) at 13:30 UTC, Kathmandu (+5:45) at 18:15,
+        // Kolkata (+5:30) at 18:30, and UTC at midnight
+        int[] changed = new int[IDS.length];
+        assertEquals(NOW + 80 * MINUTE, board.getNextTransitionMillis());
+        assertEquals(0, board.update(NOW + 80 * MINUTE - 1, changed));
+        assertEquals(1, board.update(board.getNextTransitionMillis(), changed));
+        assertEquals(5, changed[0]);
+
+        assertEquals(NOW + 365 * MINUTE, board.getNextTransitionMillis());
+        assertEquals(1, board.update(board.getNextTransitionMillis(), changed));
+        assertEquals(3, changed[0]);
+        assertEquals(NOW + 380 * MINUTE, board.getNextTransitionMillis());
+        assertEquals(1, board.update(board.getNextTransitionMillis(), changed));
+        assertEquals(1, changed[0]);
+
+        assertEquals(NOW + 710 * MINUTE, board.getNextTransitionMillis());
+        assertEquals(1, board.update(NOW + 710 * MINUTE, changed));
+        assertEquals(2, changed[0]);
+
+        long later = NOW + 710 * MINUTE;
+        for (int i = 0; i < IDS.length; i++) {
+            assertEquals(expectedCode(DateCodes.SURFACE, board.getZone(i), later),
+                    board.getCode(i));
+        }
+    }
+
+    @Test
+    public void airStationsChangeTogetherAtZuluHour() {
+        StationBoard board = board(DateCodes.AIR);
+        for (int i = 0; i < IDS.length; i++) {
+            assertEquals("N60", board.getCode(i));
+        }
+
+        int[] changed = new int[IDS.length];
+        assertEquals(NOW + 50 * MINUTE, board.getNextTransitionMillis());
+        assertEquals(0, board.update(NOW + 50 * MINUTE - 1, changed));
+        assertEquals(IDS.length, board.update(NOW + 50 * MINUTE, changed));
+        for (int i = 0; i < IDS.length; i++) {
+            assertEquals("P60", board.getCode(i));
+        }
+    }
+
+    @Test
+    public void followsDaysAcrossManyStations() {
+        String[] ids = TimeZone.getAvailableIDs();
+        StationBoard board = new StationBoard(DateCodes.SURFACE);
+        for (int i = 0; i < 300; i++) {
+            String id = ids[i * ids.length / 300];
+            board.addStation(id, TimeZone.getTimeZone(id), NOW);
+        }
+
+        int[] changed = new int[board.size()];
+        long end = NOW + 3 * DateCodes.MILLIS_PER_DAY;
+        int wakeups = 0;
+        while (board.getNextTransitionMillis() <= end) {
+            board.update(board.getNextTransitionMillis(), changed);
+            wakeups++;
+        }
+
+        // One wakeup per distinct offset per day, far fewer than one per station
+        assertTrue(wakeups < 3 * 60);
+        for (int i = 0; i < board.size(); i++) {
+            char[] code = new char[3];
+            DateCodes.encode(DateCodes.SURFACE,
+                    board.getZone(i).getOffset(end) + end, code, 0);
+            assertEquals(board.getName(i), new String(code), board.getCode(i));
+        }
+    }
+}
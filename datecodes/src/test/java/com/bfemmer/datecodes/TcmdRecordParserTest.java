@@ -0,0 +1,117 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class TcmdRecordParserTest {
+    private final DecodeTable table = new DecodeTable(2016);
+
+    // Date shipped in columns 61-64 and date received in columns 71-74
+    private final TcmdRecordParser parser = new TcmdRecordParser(61, 4, 71, 4, table);
+
+    private static String record(String shipped, String received) {
+        StringBuilder record = new StringBuilder();
+        while (record.length() < 60) record.append('X');
+        record.append(shipped);
+        while (record.length() < 70) record.append(' ');
+        record.append(received);
+        while (record.length() < 80) record.append(' ');
+        return record.toString();
+    }
+
+    private static ByteBuffer buffer(String records) {
+        return ByteBuffer.wrap(records.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void decodesShippedAndReceived() {
+        TcmdBatch batch = new TcmdBatch(8);
+        ByteBuffer buffer = buffer(record("060", "6061") + "\r\n" + record("N29", "") + "\n");
+
+        assertEquals(2, parser.parse(buffer, batch));
+        assertEquals(0, buffer.remaining());
+        assertEquals(82, batch.getRecordStart(1));
+
+        assertEquals(DateCodes.SURFACE, DateCodeParser.type(batch.getResult(0, TcmdBatch.SHIPPED)));
+        assertEquals(1, batch.getCandidateCount(0, TcmdBatch.SHIPPED));
+        assertEquals(DateCodes.epochDayOf(2016, 2, 29) * 24,
+                batch.getCandidate(0, TcmdBatch.SHIPPED, 0));
+        assertEquals(DateCodes.epochDayOf(2016, 3, 1) * 24,
+                batch.getCandidate(0, TcmdBatch.RECEIVED, 0));
+
+        // Julian day 329 of 2015 and days 029, 129, 229, and 329 of 2016, at 1200Z
+        assertEquals(5, batch.getCandidateCount(1, TcmdBatch.SHIPPED));
+        assertEquals(DateCodes.epochDayOf(2016, 11, 24) * 24 + 12,
+                batch.getCandidate(1, TcmdBatch.SHIPPED, 4));
+        assertEquals(DateCodeParser.ERROR_EMPTY,
+                DateCodeParser.status(batch.getResult(1, TcmdBatch.RECEIVED)));
+        assertEquals(0, batch.getCandidateCount(1, TcmdBatch.RECEIVED));
+    }
+
+    @Test
+    public void acceptsUnterminatedAndTrimmedRecords() {
+        TcmdBatch batch = new TcmdBatch(8);
+        String trimmed = record("O01", "").trim();
+        ByteBuffer buffer = buffer(record("001", "002") + record("366", "367") + trimmed + "\n"
+                + trimmed);
+
+        assertEquals(4, parser.parse(buffer, batch));
+        assertEquals(1, DateCodeParser.count(batch.getResult(1, TcmdBatch.SHIPPED)));
+        assertEquals(DateCodeParser.ERROR_RANGE,
+                DateCodeParser.status(batch.getResult(1, TcmdBatch.RECEIVED)));
+        assertEquals(DateCodeParser.ERROR_FORMAT,
+                DateCodeParser.status(batch.getResult(2, TcmdBatch.SHIPPED)));
+        assertEquals(DateCodeParser.ERROR_EMPTY,
+                DateCodeParser.status(batch.getResult(3, TcmdBatch.RECEIVED)));
+    }
+
+    @Test
+    public void fillsBatchesAndLeavesCutOffRecords() {
+        StringBuilder records = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            records.append(record("060", "061")).append("\r\n");
+        }
+        ByteBuffer buffer = buffer(records.toString());
+        TcmdBatch batch = new TcmdBatch(2);
+
+        // Window ending between the carriage return and line feed of the third record
+        buffer.limit(3 * 82 - 1);
+        assertEquals(2, parser.parse(buffer, batch, false));
+        assertEquals(0, parser.parse(buffer, batch, false));
+        assertEquals(2 * 82, buffer.position());
+
+        buffer.limit(buffer.capacity());
+        assertEquals(2, parser.parse(buffer, batch, false));
+        assertEquals(1, parser.parse(buffer, batch, true));
+        assertEquals(DateCodes.epochDayOf(2016, 3, 1) * 24,
+                batch.getCandidate(0, TcmdBatch.RECEIVED, 0));
+        assertEquals(0, buffer.remaining());
+    }
+}
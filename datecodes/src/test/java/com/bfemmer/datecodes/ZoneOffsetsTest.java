@@ -0,0 +1,100 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.datecodes;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class ZoneOffsetsTest {
+    // 2016-06-01
+    private static final long NOW = 1464739200000L;
+
+    @After
+    public void tearDown() {
+        ZoneOffsets.invalidateAll();
+    }
+
+    @Test
+    public void matchesTimeZone() {
+        String[] ids = {"America/New_York", "Australia/Lord_Howe", "Asia/Kolkata", "UTC",
+                "Europe/London", "Pacific/Apia", "America/Sao_Paulo"};
+        Random random = new Random(7);
+        for (String id : ids) {
+            TimeZone zone = TimeZone.getTimeZone(id);
+            ZoneOffsets offsets = ZoneOffsets.forZone(zone, NOW);
+
+            // Across the window and some way past both ends of it
+            long start = NOW - 800 * DateCodes.MILLIS_PER_DAY;
+            for (int i = 0; i < 20000; i++) {
+                long utcMillis = start
+                        + (long) (random.nextDouble() * 1600 * DateCodes.MILLIS_PER_DAY);
+                assertEquals(id, zone.getOffset(utcMillis), offsets.getOffset(utcMillis));
+            }
+        }
+    }
+
+    @Test
+    public void findsExactTransitions() {
+        TimeZone zone = TimeZone.getTimeZone("America/New_York");
+        ZoneOffsets offsets = ZoneOffsets.forZone(zone, NOW);
+        assertEquals(6, offsets.getTransitionCount());
+
+        // 2016-03-13 02:00 EST and 2016-11-06 02:00 EDT
+        long springForward = 1457852400000L;
+        long fallBack = 1478412000000L;
+        assertEquals(-5 * 3600000, offsets.getOffset(springForward - 1));
+        assertEquals(-4 * 3600000, offsets.getOffset(springForward));
+        assertEquals(-4 * 3600000, offsets.getOffset(fallBack - 1));
+        assertEquals(-5 * 3600000, offsets.getOffset(fallBack));
+
+        // Skipped local 02:30 resolves to 03:30 EDT
+        long skipped = springForward - 5 * 3600000 + 30 * 60000;
+        assertEquals(springForward + 30 * 60000, offsets.toUtcMillis(skipped));
+    }
+
+    @Test
+    public void sharesAndRebuilds() {
+        TimeZone zone = TimeZone.getTimeZone("Europe/Berlin");
+        ZoneOffsets offsets = ZoneOffsets.forZone(zone);
+        assertSame(offsets, ZoneOffsets.forZone(zone));
+        assertSame(offsets, ZoneOffsets.forZone(TimeZone.getTimeZone("Europe/Berlin")));
+
+        // Different rules under the same id
+        TimeZone custom = new SimpleTimeZone(3600000, "Europe/Berlin");
+        ZoneOffsets customOffsets = ZoneOffsets.forZone(custom);
+        assertEquals(0, customOffsets.getTransitionCount());
+        assertSame(custom, customOffsets.getZone());
+
+        ZoneOffsets.invalidateAll();
+        assertNotSame(customOffsets, ZoneOffsets.forZone(custom));
+    }
+}
@@ -0,0 +1,59 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.dtrdatecode;
+
+import android.app.Application;
+import android.os.SystemClock;
+
+import com.bfemmer.datecodes.ConveyanceTypeSync;
+import com.bfemmer.datecodes.DateCodes;
+
+/**
+ * Application class, present so startup can be timed from the moment the process loads app code,
+ * and owner of the process-wide sync of settings to the watch.
+ */
+public class DTRApplication extends Application {
+    static {
+        StartupTrace.processStarted(SystemClock.uptimeMillis());
+    }
+
+    private ConveyanceTypeSync conveyanceTypeSync;
+
+    /**
+     * @return sync of the conveyance type to the watch, created on first use
+     */
+    synchronized ConveyanceTypeSync getConveyanceTypeSync() {
+        if (conveyanceTypeSync == null) {
+            conveyanceTypeSync = new ConveyanceTypeSync(new WearableSettingsTransport(this), null,
+                    DateCodes.UNKNOWN);
+        }
+        return conveyanceTypeSync;
+    }
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        StartupTrace.mark("application created");
+    }
+}
@@ -29,19 +29,37 @@ import android.content.DialogInterface;
 import android.os.Bundle;
 import android.support.v4.app.DialogFragment;
 import android.support.v7.app.AlertDialog;
+import android.text.InputType;
 import android.view.WindowManager;
 import android.widget.EditText;
+import android.widget.LinearLayout;
 
 /**
  * Created by bfemmer on 5/31/2016.
  */
 public class DateCodeInputDialogFragment extends DialogFragment {
     private String dateCode;
+    private int fromYear;
+    private int toYear;
 
     public String getDateCode() {
         return dateCode;
     }
 
+    /**
+     * @return first year of the search window entered, or 0 to search the default window
+     */
+    public int getFromYear() {
+        return fromYear;
+    }
+
+    /**
+     * @return last year of the search window entered, or 0 to search the default window
+     */
+    public int getToYear() {
+        return toYear;
+    }
+
     public interface DateCodeInputDialogListener {
         void onPositiveClick(DialogFragment dialog);
         void onNegativeClick(DialogFragment dialog);
@@ -54,15 +72,24 @@ public class DateCodeInputDialogFragment extends DialogFragment {
         // Use the Builder class for convenient dialog construction
         AlertDialog.Builder builder = new AlertDialog.Builder(getActivity());
 
-        // Add EditText field
+        // Add EditText fields for the code and the optional window of years to search
         final EditText userInput = new EditText(getContext());
-        builder.setView(userInput);
+        final EditText fromYearInput = createYearInput(R.string.hint_from_year);
+        final EditText toYearInput = createYearInput(R.string.hint_to_year);
+        LinearLayout layout = new LinearLayout(getContext());
+        layout.setOrientation(LinearLayout.VERTICAL);
+        layout.addView(userInput);
+        layout.addView(fromYearInput);
+        layout.addView(toYearInput);
+        builder.setView(layout);
 
         // Build dialog
         builder.setMessage(R.string.label_input_dialog)
                 .setPositiveButton(R.string.label_ok_button, new DialogInterface.OnClickListener() {
                     public void onClick(DialogInterface dialog, int id) {
                         dateCode = userInput.getText().toString();
+                        fromYear = parseYear(fromYearInput);
+                        toYear = parseYear(toYearInput);
                         dateCodeInputDialogListener.onPositiveClick(DateCodeInputDialogFragment.this);
                     }
                 })
@@ -78,6 +105,23 @@ public class DateCodeInputDialogFragment extends DialogFragment {
         return dialog;
     }
 
+    private EditText createYearInput(int hint) {
+        EditText input = new EditText(getContext());
+        input.setHint(hint);
+        input.setInputType(InputType.TYPE_CLASS_NUMBER);
+        return input;
+    }
+
+    private static int parseYear(EditText input) {
+        String text = input.getText().toString().trim();
+        if (text.length() == 0) return 0;
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
     @Override
     public void onAttach(Activity activity) {
         super.onAttach(activity);
@@ -0,0 +1,101 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.dtrdatecode;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.TextView;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * List adapter over dates held as epoch milliseconds. Dates are only formatted when their row is
+ * displayed, and the formatted text includes the time zone so no information is lost. Dates can
+ * be appended a page at a time with {@link #addDates(long[], int)}.
+ */
+public class DateListAdapter extends BaseAdapter {
+    private final LayoutInflater layoutInflater;
+    private long[] dates;
+    private int count;
+    private DateFormat dateFormat;
+    private final Date date = new Date();
+
+    public DateListAdapter(Context context) {
+        this.layoutInflater = LayoutInflater.from(context);
+        this.dates = new long[0];
+    }
+
+    public void addDates(long[] page, int length) {
+        if (length == 0) return;
+        if (count + length > dates.length) {
+            dates = Arrays.copyOf(dates, Math.max(count + length, dates.length * 2));
+        }
+        System.arraycopy(page, 0, dates, count, length);
+        count += length;
+        notifyDataSetChanged();
+    }
+
+    public long getDateMillis(int position) {
+        return dates[position];
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public Object getItem(int position) {
+        return dates[position];
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return position;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        TextView textView = (TextView) convertView;
+        if (textView == null) {
+            textView = (TextView) layoutInflater.inflate(
+                    android.R.layout.simple_list_item_1, parent, false);
+        }
+
+        // Created with the first row rather than with the adapter
+        if (dateFormat == null) {
+            dateFormat = new SimpleDateFormat("MM/dd/yyyy HH:mm z", Locale.getDefault());
+        }
+        date.setTime(dates[position]);
+        textView.setText(dateFormat.format(date));
+        return textView;
+    }
+}
@@ -26,24 +26,27 @@ package com.bfemmer.dtrdatecode;
 import android.os.Bundle;
 import android.support.v7.app.AppCompatActivity;
 import android.view.View;
+import android.widget.AbsListView;
 import android.widget.AdapterView;
-import android.widget.ArrayAdapter;
 import android.widget.CalendarView;
 import android.widget.ListView;
 
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.Locale;
+import com.bfemmer.datecodes.CandidateIterator;
+import com.bfemmer.datecodes.DateCodeBuilderFactory;
+import com.bfemmer.datecodes.Zones;
+
+import java.util.TimeZone;
 
 public class DateResultsActivity extends AppCompatActivity {
+    private static final int PAGE_SIZE = 50;
+
+    private final int[] pageHours = new int[PAGE_SIZE];
+    private final long[] pageDates = new long[PAGE_SIZE];
     private String conveyanceType;
+    private CandidateIterator candidates;
     private ListView resultsListView;
     private CalendarView calendarView;
-    private ArrayAdapter<String> arrayAdapter;
-    private DateFormat dateFormat = new SimpleDateFormat("MM/dd/yyyy hh:mm:ss", Locale.getDefault());
+    private DateListAdapter dateListAdapter;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -58,44 +61,72 @@ public class DateResultsActivity extends AppCompatActivity {
         String dateCode = getIntent().getStringExtra("DateCode");
         setTitle("Date Results For " + dateCode);
 
-        // Extract dates from bundle
-        ArrayList<String> dates = getIntent().getStringArrayListExtra("DateList");
-
-        // Get list of dates corresponding with the date code from the bundle
+        // Get the conveyance type and either the decoded dates (epoch milliseconds) or a window
+        // of days to search
         conveyanceType = getIntent().getStringExtra("ConveyanceType");
+        long[] dates = getIntent().getLongArrayExtra("DateList");
+
+        // Assign dates to new adapter and apply to listview; rows are formatted as they are shown
+        dateListAdapter = new DateListAdapter(this);
+        resultsListView.setAdapter(dateListAdapter);
+        int loaded;
+        if (dates != null) {
+            dateListAdapter.addDates(dates, dates.length);
+            loaded = dates.length;
+        } else {
+            int fromEpochDay = getIntent().getIntExtra("FromEpochDay", 0);
+            int toEpochDay = getIntent().getIntExtra("ToEpochDay", 0);
+            candidates = CandidateIterator.forCode(dateCode, fromEpochDay, toEpochDay);
+            loaded = loadNextPage();
+        }
 
-        // Assign date strings to new array adapter and apply to listview
-        arrayAdapter = new ArrayAdapter<>(
-                this,
-                android.R.layout.simple_list_item_1,
-                dates );
-
-        resultsListView.setAdapter(arrayAdapter);
-
-        // Update calendar view with most recent date (last item in list)
-        if (dates.size() > 0) {
-            try {
-                Date date = dateFormat.parse(dates.get(dates.size() - 1));
-                calendarView.setDate(date.getTime());
-            } catch (ParseException e) {
-                e.printStackTrace();
-            }
+        // Update calendar view with most recent date of the first page
+        if (loaded > 0) {
+            calendarView.setDate(dateListAdapter.getDateMillis(loaded - 1));
         }
 
+        // Load further pages as the list is scrolled towards its end
+        resultsListView.setOnScrollListener(new AbsListView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(AbsListView view, int scrollState) {
+            }
+
+            @Override
+            public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount,
+                                 int totalItemCount) {
+                if (firstVisibleItem + visibleItemCount >= totalItemCount - PAGE_SIZE / 2) {
+                    loadNextPage();
+                }
+            }
+        });
+
         // Set item click listener to update calendar to selected date
         resultsListView.setOnItemClickListener(new AdapterView.OnItemClickListener() {
             @Override
             public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
-                String selectedDate =(resultsListView.getItemAtPosition(position).toString());
-                try {
-                    calendarView.setDate(dateFormat.parse(selectedDate).getTime());
-                } catch (ParseException e) {
-                    e.printStackTrace();
-                }
+                calendarView.setDate(dateListAdapter.getDateMillis(position));
             }
         });
     }
 
+    /**
+     * Appends the next page of candidates to the list.
+     *
+     * @return number of dates added
+     */
+    private int loadNextPage() {
+        if (candidates == null || !candidates.hasNext()) return 0;
+
+        TimeZone timeZone = DateCodeBuilderFactory.getTimeZone();
+        int type = candidates.getConveyanceType();
+        int count = candidates.next(pageHours, 0, PAGE_SIZE);
+        for (int i = 0; i < count; i++) {
+            pageDates[i] = Zones.codeHourToUtcMillis(type, timeZone, pageHours[i]);
+        }
+        dateListAdapter.addDates(pageDates, count);
+        return count;
+    }
+
     @Override
     protected void onResume() {
         super.onResume();
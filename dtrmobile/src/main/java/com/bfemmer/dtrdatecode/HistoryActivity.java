@@ -0,0 +1,203 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.dtrdatecode;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.support.v7.app.AppCompatActivity;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AdapterView;
+import android.widget.BaseAdapter;
+import android.widget.EditText;
+import android.widget.ListView;
+import android.widget.Spinner;
+import android.widget.TextView;
+
+import com.bfemmer.datecodes.DateCodeBuilderFactory;
+import com.bfemmer.datecodes.DateCodeParser;
+import com.bfemmer.datecodes.DateCodes;
+import com.bfemmer.datecodes.LookupHistory;
+import com.bfemmer.datecodes.Zones;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Past lookups, newest first, filtered by code prefix as it is typed and by the day of the lookup.
+ */
+public class HistoryActivity extends AppCompatActivity
+        implements HistoryStore.SearchListener {
+    // Positions in R.array.history_ranges
+    private static final int RANGE_ANY_TIME = 0;
+    private static final int RANGE_TODAY = 1;
+    private static final int RANGE_LAST_7_DAYS = 2;
+
+    private HistoryStore historyStore;
+    private HistoryAdapter historyAdapter;
+    private EditText filterEditText;
+    private Spinner rangeSpinner;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_history);
+
+        // Initialize view variables
+        filterEditText = (EditText) findViewById(R.id.historyFilterEditText);
+        rangeSpinner = (Spinner) findViewById(R.id.historyRangeSpinner);
+        ListView historyListView = (ListView) findViewById(R.id.historyListView);
+
+        historyStore = HistoryStore.getInstance(this);
+        historyAdapter = new HistoryAdapter(this);
+        historyListView.setAdapter(historyAdapter);
+
+        // Search again on every change of the filter
+        filterEditText.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                search();
+            }
+        });
+
+        // Also called once for the initial selection, which runs the first search
+        rangeSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                search();
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+            }
+        });
+    }
+
+    private void search() {
+        long now = DateCodeBuilderFactory.getClock().currentTimeMillis();
+        long fromMillis;
+        switch (rangeSpinner.getSelectedItemPosition()) {
+            case RANGE_ANY_TIME:
+                fromMillis = Long.MIN_VALUE;
+                break;
+            case RANGE_TODAY:
+                fromMillis = startOfDay(now, 0);
+                break;
+            case RANGE_LAST_7_DAYS:
+                fromMillis = startOfDay(now, 6);
+                break;
+            default:
+                fromMillis = startOfDay(now, 29);
+                break;
+        }
+        historyStore.search(filterEditText.getText().toString(), fromMillis, Long.MAX_VALUE,
+                this);
+    }
+
+    /**
+     * @return start of the local day {@code daysBefore} days before the one containing
+     * {@code nowMillis}
+     */
+    private static long startOfDay(long nowMillis, int daysBefore) {
+        TimeZone zone = DateCodeBuilderFactory.getTimeZone();
+        int epochDay = DateCodes.epochDay(Zones.toLocalMillis(zone, nowMillis)) - daysBefore;
+        return Zones.toUtcMillis(zone, epochDay * DateCodes.MILLIS_PER_DAY);
+    }
+
+    @Override
+    public void onSearchComplete(LookupHistory history, int[] records) {
+        // Searches run in order on one thread, so the last results delivered match the filter
+        if (isFinishing()) return;
+        historyAdapter.setRecords(history, records);
+    }
+
+    private static class HistoryAdapter extends BaseAdapter {
+        private final LayoutInflater inflater;
+        private DateFormat dateFormat;
+        private final Date date = new Date();
+        private LookupHistory history;
+        private int[] records = new int[0];
+
+        HistoryAdapter(Context context) {
+            inflater = LayoutInflater.from(context);
+        }
+
+        void setRecords(LookupHistory history, int[] records) {
+            this.history = history;
+            this.records = records;
+            notifyDataSetChanged();
+        }
+
+        @Override
+        public int getCount() {
+            return records.length;
+        }
+
+        @Override
+        public Object getItem(int position) {
+            return records[position];
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return records[position];
+        }
+
+        @Override
+        public View getView(int position, View convertView, ViewGroup parent) {
+            View view = convertView != null ? convertView
+                    : inflater.inflate(android.R.layout.simple_list_item_2, parent, false);
+
+            int record = records[position];
+            int result = history.getResult(record);
+            String status = DateCodeParser.isValid(result)
+                    ? DateCodes.conveyanceName(DateCodeParser.type(result)) + ", "
+                    + DateCodeParser.count(result) + " date(s)"
+                    : "Invalid";
+            if (dateFormat == null) {
+                dateFormat = new SimpleDateFormat("MM/dd/yyyy HH:mm z", Locale.getDefault());
+            }
+            date.setTime(history.getTimestamp(record));
+
+            ((TextView) view.findViewById(android.R.id.text1)).setText(
+                    history.getCode(record) + " (" + status + ")");
+            ((TextView) view.findViewById(android.R.id.text2)).setText(dateFormat.format(date));
+            return view;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.dtrdatecode;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.bfemmer.datecodes.LookupHistory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Process-wide owner of the lookup history. The log is opened and indexed the first time it is
+ * used, on the store's own background thread, so no activity ever waits for it on startup.
+ */
+final class HistoryStore {
+    private static final String TAG = "HistoryStore";
+    private static final String FILE_NAME = "lookup_history.log";
+    private static HistoryStore instance;
+
+    private final Context context;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Only touched on the executor thread
+    private LookupHistory history;
+
+    interface SearchListener {
+        /**
+         * Called on the UI thread with the matching records, newest first.
+         */
+        void onSearchComplete(LookupHistory history, int[] records);
+    }
+
+    private HistoryStore(Context context) {
+        this.context = context;
+    }
+
+    static synchronized HistoryStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new HistoryStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Appends a lookup in the background.
+     */
+    void record(final long timestampMillis, final String code, final int result,
+                final int[] hours) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    LookupHistory lookupHistory = open();
+                    lookupHistory.append(timestampMillis, code, result, hours, 0);
+                } catch (IOException e) {
+                    Log.e(TAG, "Could not record lookup of " + code, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Finds the lookups of codes starting with {@code codePrefix} made in
+     * {@code [fromMillis, toMillis]} in the background. Without a prefix the time index is
+     * searched; otherwise the code index is, and its matches are trimmed to the range.
+     */
+    void search(final String codePrefix, final long fromMillis, final long toMillis,
+                final SearchListener listener) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final LookupHistory lookupHistory = open();
+                    final int[] records = codePrefix.isEmpty()
+                            ? lookupHistory.findByTime(fromMillis, toMillis)
+                            : inRange(lookupHistory, lookupHistory.findByCodePrefix(codePrefix),
+                                    fromMillis, toMillis);
+                    sortNewestFirst(records);
+                    mainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            listener.onSearchComplete(lookupHistory, records);
+                        }
+                    });
+                } catch (IOException e) {
+                    Log.e(TAG, "Could not open lookup history", e);
+                }
+            }
+        });
+    }
+
+    private static int[] inRange(LookupHistory lookupHistory, int[] records, long fromMillis,
+                                 long toMillis) {
+        int count = 0;
+        for (int record : records) {
+            long timestamp = lookupHistory.getTimestamp(record);
+            if (timestamp >= fromMillis && timestamp <= toMillis) records[count++] = record;
+        }
+        return count == records.length ? records : Arrays.copyOf(records, count);
+    }
+
+    private LookupHistory open() throws IOException {
+        if (history == null) {
+            history = LookupHistory.open(new File(context.getFilesDir(), FILE_NAME));
+        }
+        return history;
+    }
+
+    // Records are numbered in the order they were appended
+    private static void sortNewestFirst(int[] records) {
+        Arrays.sort(records);
+        for (int i = 0, j = records.length - 1; i < j; i++, j--) {
+            int record = records[i];
+            records[i] = records[j];
+            records[j] = record;
+        }
+    }
+}
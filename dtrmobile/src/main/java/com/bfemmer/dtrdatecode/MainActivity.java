@@ -23,10 +23,14 @@ SOFTWARE.
  */
 package com.bfemmer.dtrdatecode;
 
+import android.content.BroadcastReceiver;
+import android.content.Context;
 import android.content.DialogInterface;
 import android.content.Intent;
+import android.content.IntentFilter;
 import android.content.SharedPreferences;
 import android.os.Bundle;
+import android.os.Handler;
 import android.preference.PreferenceManager;
 import android.support.v4.app.DialogFragment;
 import android.support.v7.app.AlertDialog;
@@ -35,34 +39,104 @@ import android.view.Menu;
 import android.view.MenuInflater;
 import android.view.MenuItem;
 import android.view.View;
+import android.view.ViewTreeObserver;
 import android.widget.Button;
 import android.widget.TextView;
 
+import com.bfemmer.datecodes.CandidateIterator;
 import com.bfemmer.datecodes.DateCodeBuilderFactory;
-
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.List;
-import java.util.Locale;
+import com.bfemmer.datecodes.DateCodeParser;
+import com.bfemmer.datecodes.DateCodeSchedule;
+import com.bfemmer.datecodes.DateCodes;
+import com.bfemmer.datecodes.DecodeCache;
+import com.bfemmer.datecodes.DecodeTable;
+import com.bfemmer.datecodes.ZoneOffsets;
+import com.bfemmer.datecodes.Zones;
+
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class MainActivity extends AppCompatActivity
         implements DateCodeInputDialogFragment.DateCodeInputDialogListener {
+    private static final int DECODE_CACHE_SIZE = 256;
+    private static final String CONVEYANCE_PREFERENCE = "conveyance_list";
+
+    // Shared by every instance of the activity for the life of the process
+    private static final DecodeCache decodeCache = new DecodeCache(DECODE_CACHE_SIZE);
+
+    private final ExecutorService decodeExecutor = Executors.newSingleThreadExecutor();
+    private Future<?> pendingDecode;
+    private int decodeGeneration;
     private Button dateCodeButton;
     private TextView dateCodeTextView;
     private SharedPreferences sharedPreferences;
-    private DateFormat dateFormat = new SimpleDateFormat("MM/dd/yyyy hh:mm:ss", Locale.getDefault());
+    private HistoryStore historyStore;
+    private DateCodeSchedule codeSchedule;
+    private boolean resumed;
+    private final Handler handler = new Handler();
+
+    // Fires once at each code transition while the activity is resumed
+    private final Runnable transitionRunnable = new Runnable() {
+        @Override
+        public void run() {
+            updateCodeDisplay();
+        }
+    };
+
+    // Held in a field; preferences only keep a weak reference to their listeners
+    private final SharedPreferences.OnSharedPreferenceChangeListener preferenceListener =
+            new SharedPreferences.OnSharedPreferenceChangeListener() {
+                @Override
+                public void onSharedPreferenceChanged(SharedPreferences preferences, String key) {
+                    if (CONVEYANCE_PREFERENCE.equals(key)) {
+                        readConveyanceType();
+                        publishConveyanceType(preferences);
+                        if (resumed) updateCodeDisplay();
+                    }
+                }
+            };
+
+    private final BroadcastReceiver timeZoneReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            // Zone rules may have been updated along with the zone, or the clock was set
+            ZoneOffsets.invalidateAll();
+            DateCodeBuilderFactory.setTimeZone(TimeZone.getDefault());
+            if (codeSchedule == null) return;
+            codeSchedule.invalidate();
+            updateCodeDisplay();
+        }
+    };
+
+    // Reports the first frame that shows a code, then removes itself
+    private final ViewTreeObserver.OnPreDrawListener firstCodeListener =
+            new ViewTreeObserver.OnPreDrawListener() {
+                @Override
+                public boolean onPreDraw() {
+                    if (dateCodeTextView.length() > 0) {
+                        dateCodeTextView.getViewTreeObserver().removeOnPreDrawListener(this);
+                        StartupTrace.firstCodeDrawn();
+                    }
+                    return true;
+                }
+            };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        StartupTrace.beginSection("MainActivity.onCreate");
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
         // Initialize class variables
-        sharedPreferences = PreferenceManager.getDefaultSharedPreferences(this);
+        historyStore = HistoryStore.getInstance(this);
         dateCodeTextView = (TextView) findViewById(R.id.datecode_value);
         dateCodeButton = (Button) findViewById(R.id.datecode_button);
+        dateCodeTextView.getViewTreeObserver().addOnPreDrawListener(firstCodeListener);
+
+        // Settings and zone tables are loaded in the background; the code appears when ready
+        loadCodeScheduleInBackground();
 
         dateCodeButton.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -70,13 +144,42 @@ public class MainActivity extends AppCompatActivity
                 showDateCodeInputDialogFragment();
             }
         });
+        StartupTrace.endSection();
+        StartupTrace.mark("MainActivity created");
     }
 
     @Override
     protected void onResume() {
         super.onResume();
 
-        updateCodeDisplay();
+        IntentFilter filter = new IntentFilter(Intent.ACTION_TIMEZONE_CHANGED);
+        filter.addAction(Intent.ACTION_TIME_CHANGED);
+        registerReceiver(timeZoneReceiver, filter);
+
+        // Pick up time zone changes made while the activity was in the background
+        DateCodeBuilderFactory.setTimeZone(TimeZone.getDefault());
+        resumed = true;
+        if (codeSchedule != null) updateCodeDisplay();
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        resumed = false;
+        handler.removeCallbacks(transitionRunnable);
+        unregisterReceiver(timeZoneReceiver);
+
+        // Results arriving after this point are no longer wanted
+        cancelPendingDecode();
+    }
+
+    @Override
+    protected void onDestroy() {
+        if (sharedPreferences != null) {
+            sharedPreferences.unregisterOnSharedPreferenceChangeListener(preferenceListener);
+        }
+        decodeExecutor.shutdownNow();
+        super.onDestroy();
     }
 
     @Override
@@ -93,6 +196,12 @@ public class MainActivity extends AppCompatActivity
                 Intent intent = new Intent(this, SettingsActivity.class);
                 startActivity(intent);
                 break;
+            case R.id.action_station_board:
+                startActivity(new Intent(this, StationBoardActivity.class));
+                break;
+            case R.id.action_history:
+                startActivity(new Intent(this, HistoryActivity.class));
+                break;
             default:
                 break;
         }
@@ -100,9 +209,69 @@ public class MainActivity extends AppCompatActivity
         return true;
     }
 
+    /**
+     * Reads the settings and calculates the first code on the decode thread, so that neither the
+     * preferences file nor the zone's offset table is loaded on the UI thread during startup.
+     */
+    private void loadCodeScheduleInBackground() {
+        decodeExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                StartupTrace.beginSection("loadCodeSchedule");
+                final SharedPreferences preferences =
+                        PreferenceManager.getDefaultSharedPreferences(MainActivity.this);
+                final DateCodeSchedule schedule = createCodeSchedule(preferences);
+                schedule.getCode(DateCodeBuilderFactory.getClock().currentTimeMillis());
+                StartupTrace.endSection();
+
+                // Make sure the watch has the type chosen before this process started
+                publishConveyanceType(preferences);
+
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (isFinishing()) return;
+                        StartupTrace.mark("code schedule loaded");
+                        sharedPreferences = preferences;
+                        codeSchedule = schedule;
+
+                        // Read the conveyance type again only when it is changed in settings
+                        sharedPreferences.registerOnSharedPreferenceChangeListener(
+                                preferenceListener);
+                        if (resumed) updateCodeDisplay();
+                    }
+                });
+            }
+        });
+    }
+
+    private void readConveyanceType() {
+        codeSchedule = createCodeSchedule(sharedPreferences);
+    }
+
+    private void publishConveyanceType(SharedPreferences preferences) {
+        ((DTRApplication) getApplication()).getConveyanceTypeSync()
+                .publish(preferences.getString(CONVEYANCE_PREFERENCE, "Air"));
+    }
+
+    private static DateCodeSchedule createCodeSchedule(SharedPreferences preferences) {
+        String manifestType = preferences.getString(CONVEYANCE_PREFERENCE, "Air");
+        int type = DateCodes.conveyanceType(manifestType);
+        return new DateCodeSchedule(type == DateCodes.UNKNOWN ? DateCodes.AIR : type);
+    }
+
+    /**
+     * Shows the current code and arms a single callback for the instant it next changes (top of
+     * the hour for Air, local midnight for Surface and Ocean).
+     */
     private void updateCodeDisplay() {
-        String manifestType = sharedPreferences.getString("conveyance_list", "Air");
-        dateCodeTextView.setText(DateCodeBuilderFactory.getDateCodeBuilder(manifestType).getCode());
+        long now = DateCodeBuilderFactory.getClock().currentTimeMillis();
+        dateCodeTextView.setText(codeSchedule.getCode(now));
+
+        handler.removeCallbacks(transitionRunnable);
+        long delay = codeSchedule.getNextTransitionMillis()
+                - DateCodeBuilderFactory.getClock().currentTimeMillis();
+        handler.postDelayed(transitionRunnable, Math.max(0, delay));
     }
 
     public void showDateCodeInputDialogFragment() {
@@ -131,79 +300,93 @@ public class MainActivity extends AppCompatActivity
         builder.create().show();
     }
 
-    /**
-     * Verifies length of paramter
-     *
-     * DTR codes are either 3 characters or 4 characters in length.
-     *
-     * @param dateCode String to evaluate for length
-     */
-    private void validateDateCodeLength(String dateCode) {
-        if (dateCode.length() < 3)
-            throw new IllegalArgumentException("length insufficient");
-        if (dateCode.length() > 4)
-            throw new IllegalArgumentException("length insufficient");
+    private void cancelPendingDecode() {
+        decodeGeneration++;
+        if (pendingDecode != null) {
+            pendingDecode.cancel(true);
+            pendingDecode = null;
+        }
     }
 
     /**
-     * Infers conveyance type (Air, Ocean, or Surface) from format of parameter
-     *
-     * @param dateCode value to inspect
-     * @return string value Air, Ocean, or Surface
+     * Decodes on a background thread, answering repeat lookups from the cache, and posts the
+     * result back to the UI thread unless a newer lookup or a pause has superseded it.
      */
-    private String getConveyanceTypeFromDateCode(String dateCode) {
-        String conveyanceType = "Air";
+    private void decodeDateCodeInBackground(final String dateCode, final int fromYear,
+                                            final int toYear) {
+        cancelPendingDecode();
+        final int generation = decodeGeneration;
 
-        if (dateCode.length() == 4) conveyanceType = "Ocean";
-        if (dateCode.length() == 3) {
-            if (dateCode.substring(0, 1).toUpperCase().matches("\\d")) conveyanceType = "Surface";
-        }
-
-        return conveyanceType;
+        pendingDecode = decodeExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+                // Infer conveyance type from the format of the entered value and validate it
+                final DecodeTable table = DecodeTable.forCurrentYear();
+                final int[] hours = new int[DateCodes.MAX_CANDIDATES];
+                final int result = decodeCache.decode(dateCode, table, hours, 0);
+                historyStore.record(DateCodeBuilderFactory.getClock().currentTimeMillis(),
+                        dateCode, result, hours);
+                if (Thread.currentThread().isInterrupted()) return;
+
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation != decodeGeneration || isFinishing()) return;
+                        pendingDecode = null;
+                        launchDateResultsActivityWithCode(dateCode, result, hours, table,
+                                fromYear, toYear);
+                    }
+                });
+            }
+        });
     }
 
-    private void launchDateResultsActivityWithCode(String dateCode) {
-        List<Date> dates;
-
-        try {
-            // Verify length is either 3 or 4
-            validateDateCodeLength(dateCode);
-
-            // Infer conveyance type based on format of entered value
-            String conveyanceType = getConveyanceTypeFromDateCode(dateCode);
-
-            // Get list of dates corresponding with date code
-            dates = DateCodeBuilderFactory
-                    .getDateCodeBuilder(conveyanceType)
-                    .getCalendarDatesForCode(dateCode);
+    /**
+     * Shows the decoded candidates, or pages through a window of years when one was entered. A
+     * missing end of the window falls back to the last day decode keeps, so Air candidates after
+     * the reference day are left out as they are from the decoded candidates.
+     */
+    private void launchDateResultsActivityWithCode(String dateCode, int result, int[] hours,
+                                                   DecodeTable table, int fromYear, int toYear) {
+        if (!DateCodeParser.isValid(result)) {
+            showExceptionMessage(dateCode);
+            return;
+        }
 
-            // Convert date list to string list
-            List<String> values = new ArrayList<>();
-            for (Date date : dates) {
-                values.add(dateFormat.format(date));
+        int type = DateCodeParser.type(result);
+
+        Bundle bundle = new Bundle();
+        bundle.putString("DateCode", dateCode);
+        bundle.putString("ConveyanceType", DateCodes.conveyanceName(type));
+        if (fromYear == 0 && toYear == 0) {
+            // The cached candidates are the whole result; no need to decode them again
+            TimeZone timeZone = DateCodeBuilderFactory.getTimeZone();
+            long[] dates = new long[DateCodeParser.count(result)];
+            for (int i = 0; i < dates.length; i++) {
+                dates[i] = Zones.codeHourToUtcMillis(type, timeZone, hours[i]);
             }
-
-            // Prepare bundle to pass to intent
-            Bundle bundle = new Bundle();
-            bundle.putString("DateCode", dateCode);
-            bundle.putString("ConveyanceType", conveyanceType);
-            bundle.putStringArrayList("DateList", (ArrayList)values);
-
-            // Prepare intent and start
-            Intent intent = new Intent(this, DateResultsActivity.class);
-            intent.putExtras(bundle);
-            startActivity(intent);
-        } catch (NumberFormatException numberFormatException) {
-            showExceptionMessage(dateCode);
-        } catch (IllegalArgumentException illegalArgumentException) {
-            showExceptionMessage(dateCode);
+            bundle.putLongArray("DateList", dates);
+        } else {
+            // Pass the window rather than the dates; the results screen pages through it
+            bundle.putInt("FromEpochDay", fromYear > 0
+                    ? DateCodes.epochDayOf(fromYear, 1, 1)
+                    : CandidateIterator.defaultWindowStart(type, table.getReferenceYear()));
+            bundle.putInt("ToEpochDay", toYear > 0
+                    ? DateCodes.epochDayOf(toYear, 12, 31)
+                    : CandidateIterator.defaultWindowEnd(type, table.getReferenceDay(type)));
         }
+
+        // Prepare intent and start
+        Intent intent = new Intent(this, DateResultsActivity.class);
+        intent.putExtras(bundle);
+        startActivity(intent);
     }
 
     @Override
     public void onPositiveClick(DialogFragment dialog) {
-        String dateCode = ((DateCodeInputDialogFragment) dialog).getDateCode();
-        launchDateResultsActivityWithCode(dateCode);
+        DateCodeInputDialogFragment inputDialog = (DateCodeInputDialogFragment) dialog;
+        decodeDateCodeInBackground(inputDialog.getDateCode(), inputDialog.getFromYear(),
+                inputDialog.getToYear());
     }
 
     @Override
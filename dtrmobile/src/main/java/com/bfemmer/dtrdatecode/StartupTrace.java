@@ -0,0 +1,87 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.dtrdatecode;
+
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+
+/**
+ * Cold start instrumentation. Sections show up in systrace under the names given to
+ * {@link #beginSection(String)}, and milestones are logged with the time since the process
+ * started, ending with the first frame that shows a code.
+ */
+final class StartupTrace {
+    /**
+     * Time from process start to the first frame showing a code that startup should stay within.
+     */
+    static final long FIRST_CODE_BUDGET_MILLIS = 500;
+
+    private static final String TAG = "StartupTrace";
+
+    // Earliest point app code runs; set again from DTRApplication's static initializer
+    private static long processStartMillis = SystemClock.uptimeMillis();
+    private static boolean firstCodeReported;
+
+    private StartupTrace() {
+    }
+
+    static void processStarted(long uptimeMillis) {
+        processStartMillis = uptimeMillis;
+    }
+
+    static void beginSection(String name) {
+        Trace.beginSection(name);
+    }
+
+    static void endSection() {
+        Trace.endSection();
+    }
+
+    static void mark(String milestone) {
+        Log.i(TAG, milestone + " at " + elapsedMillis() + " ms");
+    }
+
+    /**
+     * Logs the time to the first frame showing a code, once per process, and warns if it is
+     * over {@link #FIRST_CODE_BUDGET_MILLIS}.
+     */
+    static void firstCodeDrawn() {
+        if (firstCodeReported) return;
+        firstCodeReported = true;
+
+        long elapsed = elapsedMillis();
+        String message = "first code drawn at " + elapsed + " ms (budget "
+                + FIRST_CODE_BUDGET_MILLIS + " ms)";
+        if (elapsed > FIRST_CODE_BUDGET_MILLIS) {
+            Log.w(TAG, message);
+        } else {
+            Log.i(TAG, message);
+        }
+    }
+
+    private static long elapsedMillis() {
+        return SystemClock.uptimeMillis() - processStartMillis;
+    }
+}
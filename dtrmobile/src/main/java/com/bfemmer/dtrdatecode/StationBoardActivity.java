@@ -0,0 +1,188 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.dtrdatecode;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Bundle;
+import android.os.Handler;
+import android.preference.PreferenceManager;
+import android.support.v7.app.AppCompatActivity;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.ListView;
+import android.widget.TextView;
+
+import com.bfemmer.datecodes.DateCodeBuilderFactory;
+import com.bfemmer.datecodes.DateCodes;
+import com.bfemmer.datecodes.StationBoard;
+import com.bfemmer.datecodes.ZoneOffsets;
+
+import java.util.TimeZone;
+
+/**
+ * Live codes for the stations in {@code R.array.stations}: Ocean codes if that is the selected
+ * conveyance type, Surface codes otherwise. Air codes are in Zulu time and the same at every
+ * station, so they are not shown per station. A single callback is posted for the earliest code
+ * transition on the board, and only the rows whose code changed are rebound.
+ */
+public class StationBoardActivity extends AppCompatActivity {
+    private final Handler handler = new Handler();
+    private StationBoard board;
+    private int[] changedStations;
+    private ListView stationListView;
+    private StationAdapter stationAdapter;
+
+    private final Runnable updateRunnable = new Runnable() {
+        @Override
+        public void run() {
+            long now = DateCodeBuilderFactory.getClock().currentTimeMillis();
+            int count = board.update(now, changedStations);
+            for (int i = 0; i < count; i++) {
+                refreshRow(changedStations[i]);
+            }
+            scheduleUpdate();
+        }
+    };
+
+    private final BroadcastReceiver timeChangedReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            // Zone rules or the clock changed, so every transition on the board may have moved
+            ZoneOffsets.invalidateAll();
+            board.invalidateAll(DateCodeBuilderFactory.getClock().currentTimeMillis());
+            stationAdapter.notifyDataSetChanged();
+            scheduleUpdate();
+        }
+    };
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_station_board);
+
+        // Build the board from the "Name|Zone" entries of the station list
+        long now = DateCodeBuilderFactory.getClock().currentTimeMillis();
+        String[] stations = getResources().getStringArray(R.array.stations);
+        board = new StationBoard(boardConveyanceType());
+        for (String station : stations) {
+            int separator = station.indexOf('|');
+            board.addStation(station.substring(0, separator),
+                    TimeZone.getTimeZone(station.substring(separator + 1)), now);
+        }
+        changedStations = new int[board.size()];
+
+        stationListView = (ListView) findViewById(R.id.stationListView);
+        stationAdapter = new StationAdapter(this);
+        stationListView.setAdapter(stationAdapter);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+
+        // Codes may have changed while the activity was in the background
+        IntentFilter filter = new IntentFilter(Intent.ACTION_TIME_CHANGED);
+        filter.addAction(Intent.ACTION_TIMEZONE_CHANGED);
+        registerReceiver(timeChangedReceiver, filter);
+        updateRunnable.run();
+        stationAdapter.notifyDataSetChanged();
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        handler.removeCallbacks(updateRunnable);
+        unregisterReceiver(timeChangedReceiver);
+    }
+
+    /**
+     * @return Ocean if it is the selected conveyance type, Surface otherwise; both change at
+     * local midnight, so stations in different zones show different codes
+     */
+    private int boardConveyanceType() {
+        String name = PreferenceManager.getDefaultSharedPreferences(this)
+                .getString("conveyance_list", "Air");
+        return DateCodes.conveyanceType(name) == DateCodes.OCEAN
+                ? DateCodes.OCEAN : DateCodes.SURFACE;
+    }
+
+    private void scheduleUpdate() {
+        handler.removeCallbacks(updateRunnable);
+        long delay = board.getNextTransitionMillis()
+                - DateCodeBuilderFactory.getClock().currentTimeMillis();
+        handler.postDelayed(updateRunnable, Math.max(0, delay));
+    }
+
+    /**
+     * Rebinds the row of a station if it is currently on screen.
+     */
+    private void refreshRow(int station) {
+        int index = station - stationListView.getFirstVisiblePosition();
+        if (index >= 0 && index < stationListView.getChildCount()) {
+            stationAdapter.bindView(station, stationListView.getChildAt(index));
+        }
+    }
+
+    private class StationAdapter extends BaseAdapter {
+        private final LayoutInflater inflater;
+
+        StationAdapter(Context context) {
+            inflater = LayoutInflater.from(context);
+        }
+
+        @Override
+        public int getCount() {
+            return board.size();
+        }
+
+        @Override
+        public Object getItem(int position) {
+            return board.getCode(position);
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return position;
+        }
+
+        @Override
+        public View getView(int position, View convertView, ViewGroup parent) {
+            View view = convertView != null ? convertView
+                    : inflater.inflate(android.R.layout.simple_list_item_2, parent, false);
+            bindView(position, view);
+            return view;
+        }
+
+        void bindView(int station, View view) {
+            ((TextView) view.findViewById(android.R.id.text1)).setText(board.getCode(station));
+            ((TextView) view.findViewById(android.R.id.text2)).setText(board.getName(station)
+                    + " (" + board.getZone(station).getID() + ")");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.dtrdatecode;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.bfemmer.datecodes.SettingsTransport;
+import com.google.android.gms.common.ConnectionResult;
+import com.google.android.gms.common.api.GoogleApiClient;
+import com.google.android.gms.wearable.DataApi;
+import com.google.android.gms.wearable.PutDataMapRequest;
+import com.google.android.gms.wearable.PutDataRequest;
+import com.google.android.gms.wearable.Wearable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SettingsTransport} over the Wearable Data Layer. Each path is one data item holding its
+ * value under {@link #KEY_VALUE}; the Data Layer itself skips items whose contents did not change.
+ * Puts are made in order on a background thread that connects only when there is something to
+ * send, and their outcome is reported to the caller's callback from that thread.
+ */
+final class WearableSettingsTransport implements SettingsTransport {
+    static final String KEY_VALUE = "value";
+
+    private static final String TAG = "WearableSettings";
+    private static final long CONNECT_TIMEOUT_SECONDS = 30;
+
+    private final GoogleApiClient client;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    WearableSettingsTransport(Context context) {
+        client = new GoogleApiClient.Builder(context.getApplicationContext())
+                .addApi(Wearable.API)
+                .build();
+    }
+
+    @Override
+    public void put(final String path, final String value, final PutCallback callback) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                // Reported even if the Data Layer throws, so the sync does not wait forever
+                boolean success = false;
+                try {
+                    success = putDataItem(path, value);
+                } finally {
+                    callback.onPutComplete(success);
+                }
+            }
+        });
+    }
+
+    private boolean putDataItem(String path, String value) {
+        ConnectionResult connection =
+                client.blockingConnect(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        if (!connection.isSuccess()) {
+            Log.w(TAG, "Could not connect to put " + path + ": " + connection);
+            return false;
+        }
+
+        try {
+            // Settings are changed by hand and rarely, so deliver now instead of batching
+            PutDataMapRequest dataMapRequest = PutDataMapRequest.create(path);
+            dataMapRequest.getDataMap().putString(KEY_VALUE, value);
+            PutDataRequest request = dataMapRequest.asPutDataRequest().setUrgent();
+            DataApi.DataItemResult result =
+                    Wearable.DataApi.putDataItem(client, request).await();
+            if (!result.getStatus().isSuccess()) {
+                Log.w(TAG, "Could not put " + path + ": " + result.getStatus());
+                return false;
+            }
+            return true;
+        } finally {
+            client.disconnect();
+        }
+    }
+}
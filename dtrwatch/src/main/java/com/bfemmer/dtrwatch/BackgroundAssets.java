@@ -0,0 +1,140 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.dtrwatch;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+/**
+ * Background bitmaps of the watch face for one surface size: the background color and the patch
+ * composited into a single opaque layer for interactive mode, and the patch's alpha alone for
+ * ambient mode. The patch is decoded with sampling to about the size it is drawn at, scaled the
+ * rest of the way, and dropped once both bitmaps are made, so only those two are ever kept.
+ */
+class BackgroundAssets {
+    private static final int PATCH_MARGIN_X = 30;
+    private static final int PATCH_MARGIN_Y = 10;
+
+    /**
+     * Interactive layer, opaque so it can be held at 16 bits per pixel.
+     */
+    private Bitmap mInteractiveLayer;
+
+    /**
+     * Patch shape for ambient mode, 8 bits per pixel and drawn in a single dim color.
+     */
+    private Bitmap mAmbientPatch;
+    private int mWidth;
+    private int mHeight;
+
+    boolean isComposedFor(int width, int height) {
+        return mInteractiveLayer != null && mWidth == width && mHeight == height;
+    }
+
+    /**
+     * Builds the bitmaps for a surface size, recycling those of the previous size.
+     */
+    void compose(Resources resources, int patchResId, int backgroundColor, int width,
+                 int height) {
+        recycle();
+        mWidth = width;
+        mHeight = height;
+
+        int patchWidth = width - 2 * PATCH_MARGIN_X;
+        int patchHeight = height - 2 * PATCH_MARGIN_Y;
+        Bitmap patch = decodeScaled(resources, patchResId, patchWidth, patchHeight);
+
+        mInteractiveLayer = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+        Canvas layerCanvas = new Canvas(mInteractiveLayer);
+        layerCanvas.drawColor(backgroundColor);
+        Paint ditherPaint = new Paint(Paint.DITHER_FLAG | Paint.FILTER_BITMAP_FLAG);
+        layerCanvas.drawBitmap(patch, PATCH_MARGIN_X, PATCH_MARGIN_Y, ditherPaint);
+
+        mAmbientPatch = patch.extractAlpha();
+        patch.recycle();
+    }
+
+    void drawInteractive(Canvas canvas) {
+        canvas.drawBitmap(mInteractiveLayer, 0, 0, null);
+    }
+
+    /**
+     * Draws the patch shape in the color of {@code paint}.
+     */
+    void drawAmbient(Canvas canvas, Paint paint) {
+        canvas.drawBitmap(mAmbientPatch, PATCH_MARGIN_X, PATCH_MARGIN_Y, paint);
+    }
+
+    void recycle() {
+        if (mInteractiveLayer != null) {
+            mInteractiveLayer.recycle();
+            mInteractiveLayer = null;
+        }
+        if (mAmbientPatch != null) {
+            mAmbientPatch.recycle();
+            mAmbientPatch = null;
+        }
+    }
+
+    /**
+     * Decodes a bitmap resource to exactly {@code width} x {@code height}, sampling while
+     * decoding so no full resolution copy is made.
+     */
+    static Bitmap decodeScaled(Resources resources, int resId, int width, int height) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        options.inScaled = false;
+        BitmapFactory.decodeResource(resources, resId, options);
+
+        options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight,
+                width, height);
+        options.inJustDecodeBounds = false;
+        Bitmap sampled = BitmapFactory.decodeResource(resources, resId, options);
+        if (sampled.getWidth() == width && sampled.getHeight() == height) {
+            return sampled;
+        }
+
+        Bitmap scaled = Bitmap.createScaledBitmap(sampled, width, height, true /* filter */);
+        if (scaled != sampled) {
+            sampled.recycle();
+        }
+        return scaled;
+    }
+
+    /**
+     * @return largest power of two the source can be divided by while staying at least as large
+     * as the requested size in both dimensions
+     */
+    static int calculateInSampleSize(int sourceWidth, int sourceHeight, int width, int height) {
+        int sampleSize = 1;
+        while (sourceWidth / (sampleSize * 2) >= width
+                && sourceHeight / (sampleSize * 2) >= height) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+}
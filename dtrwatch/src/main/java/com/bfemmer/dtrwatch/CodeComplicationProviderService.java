@@ -0,0 +1,77 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.dtrwatch;
+
+import android.content.Context;
+import android.support.wearable.complications.ComplicationData;
+import android.support.wearable.complications.ComplicationManager;
+import android.support.wearable.complications.ComplicationProviderService;
+import android.support.wearable.complications.ComplicationText;
+
+import com.bfemmer.datecodes.DateCodeBuilderFactory;
+import com.bfemmer.datecodes.DateCodeSchedule;
+import com.bfemmer.datecodes.DateCodes;
+
+/**
+ * Complication provider for the current date code of the conveyance type synced from the phone,
+ * so the code can be shown on any watch face. The provider declares no update period; instead
+ * each update schedules the next one for the instant the code changes, with
+ * {@link CodeComplicationUpdateReceiver}.
+ */
+public class CodeComplicationProviderService extends ComplicationProviderService {
+    // Shared by every update in the process, so the code is only recalculated at a transition.
+    // Only used on the main thread.
+    private static DateCodeSchedule sCodeSchedule;
+
+    static DateCodeSchedule getCodeSchedule(Context context) {
+        int type = ConveyanceTypeListenerService.getConveyanceType(context.getSharedPreferences(
+                ConveyanceTypeListenerService.PREFERENCES_NAME, MODE_PRIVATE));
+        if (sCodeSchedule == null) {
+            sCodeSchedule = new DateCodeSchedule(type);
+        } else {
+            sCodeSchedule.setConveyanceType(type);
+        }
+        return sCodeSchedule;
+    }
+
+    @Override
+    public void onComplicationUpdate(int complicationId, int dataType,
+                                     ComplicationManager complicationManager) {
+        if (dataType != ComplicationData.TYPE_SHORT_TEXT) {
+            complicationManager.noUpdateRequired(complicationId);
+            return;
+        }
+
+        DateCodeSchedule schedule = getCodeSchedule(this);
+        String code = schedule.getCode(DateCodeBuilderFactory.getClock().currentTimeMillis());
+        ComplicationData data = new ComplicationData.Builder(ComplicationData.TYPE_SHORT_TEXT)
+                .setShortText(ComplicationText.plainText(code))
+                .setShortTitle(ComplicationText.plainText(
+                        DateCodes.conveyanceName(schedule.getConveyanceType())))
+                .build();
+        complicationManager.updateComplicationData(complicationId, data);
+
+        CodeComplicationUpdateReceiver.scheduleUpdate(this, schedule.getNextTransitionMillis());
+    }
+}
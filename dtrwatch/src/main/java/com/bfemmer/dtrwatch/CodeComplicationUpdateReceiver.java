@@ -0,0 +1,78 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.dtrwatch;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.BroadcastReceiver;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.support.wearable.complications.ProviderUpdateRequester;
+
+import com.bfemmer.datecodes.DateCodeBuilderFactory;
+import com.bfemmer.datecodes.ZoneOffsets;
+
+import java.util.TimeZone;
+
+/**
+ * Asks the system to update the code complications when the code changes, and when the clock or
+ * time zone is changed.
+ */
+public class CodeComplicationUpdateReceiver extends BroadcastReceiver {
+    private static final String ACTION_UPDATE = "com.bfemmer.dtrwatch.action.UPDATE_COMPLICATIONS";
+
+    /**
+     * Schedules an update of every code complication at {@code timeMillis}, replacing any update
+     * already scheduled. The alarm does not wake the device; while the screen is off it is
+     * delivered with the next ambient update, which is as soon as the new code could be seen.
+     */
+    static void scheduleUpdate(Context context, long timeMillis) {
+        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        alarmManager.setExact(AlarmManager.RTC, timeMillis, createUpdateIntent(context));
+    }
+
+    static void requestUpdate(Context context) {
+        new ProviderUpdateRequester(context,
+                new ComponentName(context, CodeComplicationProviderService.class))
+                .requestUpdateAll();
+    }
+
+    private static PendingIntent createUpdateIntent(Context context) {
+        Intent intent = new Intent(context, CodeComplicationUpdateReceiver.class)
+                .setAction(ACTION_UPDATE);
+        return PendingIntent.getBroadcast(context, 0, intent, PendingIntent.FLAG_UPDATE_CURRENT);
+    }
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        if (!ACTION_UPDATE.equals(intent.getAction())) {
+            // The next code transition moves with the clock and zone
+            ZoneOffsets.invalidateAll();
+            DateCodeBuilderFactory.setTimeZone(TimeZone.getDefault());
+            CodeComplicationProviderService.getCodeSchedule(context).invalidate();
+        }
+        requestUpdate(context);
+    }
+}
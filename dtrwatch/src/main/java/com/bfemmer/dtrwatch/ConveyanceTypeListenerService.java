@@ -0,0 +1,79 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.dtrwatch;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.bfemmer.datecodes.ConveyanceTypeSync;
+import com.bfemmer.datecodes.DateCodes;
+import com.google.android.gms.wearable.DataEvent;
+import com.google.android.gms.wearable.DataEventBuffer;
+import com.google.android.gms.wearable.DataItem;
+import com.google.android.gms.wearable.DataMapItem;
+import com.google.android.gms.wearable.WearableListenerService;
+
+/**
+ * Receives the conveyance type pushed by the phone over the Data Layer and caches it in local
+ * preferences, where the watch face picks it up. Started by the system only when the item
+ * changes, so the watch never asks the phone for it.
+ */
+public class ConveyanceTypeListenerService extends WearableListenerService {
+    static final String PREFERENCES_NAME = "synced_settings";
+    static final String KEY_CONVEYANCE_TYPE = "conveyance_type";
+
+    // Data map key the phone's WearableSettingsTransport puts the value under
+    private static final String KEY_VALUE = "value";
+
+    /**
+     * @return conveyance type last received from the phone, Air until one has been
+     */
+    static int getConveyanceType(SharedPreferences preferences) {
+        int type = DateCodes.conveyanceType(preferences.getString(KEY_CONVEYANCE_TYPE, null));
+        return type == DateCodes.UNKNOWN ? DateCodes.AIR : type;
+    }
+
+    @Override
+    public void onDataChanged(DataEventBuffer dataEvents) {
+        final SharedPreferences preferences =
+                getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        ConveyanceTypeSync sync = new ConveyanceTypeSync(null, new ConveyanceTypeSync.Callback() {
+            @Override
+            public void onConveyanceTypeChanged(int conveyanceType) {
+                preferences.edit()
+                        .putString(KEY_CONVEYANCE_TYPE, DateCodes.conveyanceName(conveyanceType))
+                        .apply();
+                CodeComplicationUpdateReceiver.requestUpdate(
+                        ConveyanceTypeListenerService.this);
+            }
+        }, getConveyanceType(preferences));
+
+        for (DataEvent event : dataEvents) {
+            if (event.getType() != DataEvent.TYPE_CHANGED) continue;
+            DataItem item = event.getDataItem();
+            sync.onItemChanged(item.getUri().getPath(),
+                    DataMapItem.fromDataItem(item).getDataMap().getString(KEY_VALUE));
+        }
+    }
+}
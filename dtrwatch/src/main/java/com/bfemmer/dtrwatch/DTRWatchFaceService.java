@@ -20,26 +20,30 @@ import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
+import android.content.SharedPreferences;
 import android.content.res.Resources;
-import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Rect;
 import android.graphics.Typeface;
-import android.graphics.drawable.BitmapDrawable;
-import android.graphics.drawable.Drawable;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Message;
 import android.support.wearable.watchface.CanvasWatchFaceService;
 import android.support.wearable.watchface.WatchFaceStyle;
-import android.text.format.Time;
+import android.util.Log;
 import android.view.SurfaceHolder;
 import android.view.WindowInsets;
 
 import com.bfemmer.datecodes.DateCodeBuilderFactory;
+import com.bfemmer.datecodes.DateCodeSchedule;
+import com.bfemmer.datecodes.DateCodes;
+import com.bfemmer.datecodes.ZoneOffsets;
 
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
@@ -49,9 +53,26 @@ import java.util.concurrent.TimeUnit;
  * low-bit ambient mode, the text is drawn without anti-aliasing in ambient mode.
  */
 public class DTRWatchFaceService extends CanvasWatchFaceService {
+    private static final String TAG = "DTRWatchFaceService";
+
+    /**
+     * File the instrumentation report is appended to, in the app's external files directory so
+     * it can be pulled with adb.
+     */
+    private static final String STATS_FILE_NAME = "watchface_stats.txt";
     private static final Typeface NORMAL_TYPEFACE =
             Typeface.create(Typeface.SANS_SERIF, Typeface.NORMAL);
 
+    /**
+     * Glyphs the time is drawn with; their widths are cached whenever the text size changes.
+     */
+    private static final String TIME_GLYPHS = "0123456789:";
+
+    /**
+     * Representative time text used to lay out the time and date code rows.
+     */
+    private static final String TIME_LAYOUT_TEXT = "00:00:00";
+
     /**
      * Update rate in milliseconds for interactive mode. We update once a second since seconds are
      * displayed in interactive mode.
@@ -63,6 +84,11 @@ public class DTRWatchFaceService extends CanvasWatchFaceService {
      */
     private static final int MSG_UPDATE_TIME = 0;
 
+    /**
+     * Handler message id for updating the date code when it next changes.
+     */
+    private static final int MSG_UPDATE_CODE = 1;
+
     @Override
     public Engine onCreateEngine() {
         return new Engine();
@@ -83,6 +109,9 @@ public class DTRWatchFaceService extends CanvasWatchFaceService {
                     case MSG_UPDATE_TIME:
                         engine.handleUpdateTimeMessage();
                         break;
+                    case MSG_UPDATE_CODE:
+                        engine.handleUpdateCodeMessage();
+                        break;
                 }
             }
         }
@@ -93,29 +122,85 @@ public class DTRWatchFaceService extends CanvasWatchFaceService {
         boolean mRegisteredTimeZoneReceiver = false;
         Paint mBackgroundPaint;
         Paint mTextPaint;
+        Paint mOverlayPaint;
+        Paint mAmbientPatchPaint;
         boolean mAmbient;
-        Bitmap mBackgroundBitmap;
-        Bitmap mBackgroundScaledBitmap;
-        Time mTime;
+
+        /**
+         * Background color and scaled patch, composited once per surface size.
+         */
+        final BackgroundAssets mBackgroundAssets = new BackgroundAssets();
+        ZoneOffsets mZoneOffsets;
         String dateCode;
+        final DateCodeSchedule mCodeSchedule = new DateCodeSchedule(DateCodes.AIR);
         final BroadcastReceiver mTimeZoneReceiver = new BroadcastReceiver() {
             @Override
             public void onReceive(Context context, Intent intent) {
-                mTime.clear(intent.getStringExtra("time-zone"));
-                mTime.setToNow();
+                // Zone rules may have been updated along with the zone
+                ZoneOffsets.invalidateAll();
+                updateTimeZone();
+
+                // The next code transition moves with the zone
+                mCodeSchedule.invalidate();
+                updateCodeTimer();
+                invalidate();
             }
         };
+        SharedPreferences mSyncedSettings;
+        final SharedPreferences.OnSharedPreferenceChangeListener mSyncedSettingsListener =
+                new SharedPreferences.OnSharedPreferenceChangeListener() {
+                    @Override
+                    public void onSharedPreferenceChanged(SharedPreferences preferences,
+                                                          String key) {
+                        if (!ConveyanceTypeListenerService.KEY_CONVEYANCE_TYPE.equals(key)) {
+                            return;
+                        }
+
+                        // The phone pushed a new conveyance type
+                        mCodeSchedule.setConveyanceType(
+                                ConveyanceTypeListenerService.getConveyanceType(preferences));
+                        updateCodeTimer();
+                        invalidate();
+                    }
+                };
         int mTapCount;
 
         float mXOffset;
         float mYOffset;
 
+        /**
+         * Text layout, recalculated only when the bounds or text size change. The date code is
+         * re-measured only when the code itself changes.
+         */
+        boolean mLayoutValid;
+        int mLayoutWidth;
+        int mLayoutHeight;
+        float mCenterX;
+        float mTimeYOffset;
+        float mDateYOffset;
+        float mDateXOffset;
+        String mLaidOutDateCode;
+        final Rect mTextBounds = new Rect();
+        final float[] mGlyphWidths = new float[TIME_GLYPHS.length()];
+        final char[] mTimeChars = new char[TIME_LAYOUT_TEXT.length()];
+
         /**
          * Whether the display supports fewer bits for each color in ambient mode. When true, we
          * disable anti-aliasing in ambient mode.
          */
         boolean mLowBitAmbient;
 
+        /**
+         * Whether the display needs burn-in protection, in which case the patch is not drawn in
+         * ambient mode.
+         */
+        boolean mBurnInProtection;
+
+        /**
+         * Instrumentation, non-null only while debugging has been switched on with a tap.
+         */
+        WatchFaceStats mStats;
+
         @Override
         public void onCreate(SurfaceHolder holder) {
             super.onCreate(holder);
@@ -135,15 +220,39 @@ public class DTRWatchFaceService extends CanvasWatchFaceService {
             mTextPaint = new Paint();
             mTextPaint = createTextPaint(resources.getColor(R.color.digital_text));
 
-            Drawable backgroundDrawable = resources.getDrawable(R.drawable.usaf38th_aps_patch_trans, null /* theme */);
-            mBackgroundBitmap = ((BitmapDrawable) backgroundDrawable).getBitmap();
+            mOverlayPaint = createTextPaint(resources.getColor(R.color.digital_text));
+            mOverlayPaint.setTextSize(resources.getDimension(R.dimen.debug_text_size));
+
+            mAmbientPatchPaint = new Paint();
+            mAmbientPatchPaint.setColor(resources.getColor(R.color.ambient_patch));
 
-            mTime = new Time();
+            // Conveyance type last pushed from the phone, and any later pushes
+            mSyncedSettings = getSharedPreferences(
+                    ConveyanceTypeListenerService.PREFERENCES_NAME, MODE_PRIVATE);
+            mCodeSchedule.setConveyanceType(
+                    ConveyanceTypeListenerService.getConveyanceType(mSyncedSettings));
+            mSyncedSettings.registerOnSharedPreferenceChangeListener(mSyncedSettingsListener);
+
+            updateTimeZone();
+        }
+
+        private void updateTimeZone() {
+            TimeZone zone = TimeZone.getDefault();
+            mZoneOffsets = ZoneOffsets.forZone(zone);
+            DateCodeBuilderFactory.setTimeZone(zone);
         }
 
         @Override
         public void onDestroy() {
+            mSyncedSettings.unregisterOnSharedPreferenceChangeListener(mSyncedSettingsListener);
             mUpdateTimeHandler.removeMessages(MSG_UPDATE_TIME);
+            mUpdateTimeHandler.removeMessages(MSG_UPDATE_CODE);
+            mBackgroundAssets.recycle();
+            if (mStats != null) {
+                dumpStats(mStats.getReport(DateCodeBuilderFactory.getClock().currentTimeMillis(),
+                        mCodeSchedule.getRecalculationCount()));
+                mStats = null;
+            }
             super.onDestroy();
         }
 
@@ -163,8 +272,8 @@ public class DTRWatchFaceService extends CanvasWatchFaceService {
                 registerReceiver();
 
                 // Update time zone in case it changed while we weren't visible.
-                mTime.clear(TimeZone.getDefault().getID());
-                mTime.setToNow();
+                updateTimeZone();
+                mCodeSchedule.invalidate();
             } else {
                 unregisterReceiver();
             }
@@ -172,6 +281,7 @@ public class DTRWatchFaceService extends CanvasWatchFaceService {
             // Whether the timer should be running depends on whether we're visible (as well as
             // whether we're in ambient mode), so we may need to start or stop the timer.
             updateTimer();
+            updateCodeTimer();
         }
 
         private void registerReceiver() {
@@ -204,17 +314,22 @@ public class DTRWatchFaceService extends CanvasWatchFaceService {
                     ? R.dimen.digital_text_size_round : R.dimen.digital_text_size);
 
             mTextPaint.setTextSize(textSize);
+            mLayoutValid = false;
         }
 
         @Override
         public void onPropertiesChanged(Bundle properties) {
             super.onPropertiesChanged(properties);
             mLowBitAmbient = properties.getBoolean(PROPERTY_LOW_BIT_AMBIENT, false);
+            mBurnInProtection = properties.getBoolean(PROPERTY_BURN_IN_PROTECTION, false);
         }
 
         @Override
         public void onTimeTick() {
             super.onTimeTick();
+            if (mStats != null) {
+                mStats.recordWakeup(WatchFaceStats.WAKEUP_TIME_TICK);
+            }
             invalidate();
         }
 
@@ -225,6 +340,7 @@ public class DTRWatchFaceService extends CanvasWatchFaceService {
                 mAmbient = inAmbientMode;
                 if (mLowBitAmbient) {
                     mTextPaint.setAntiAlias(!inAmbientMode);
+                    mAmbientPatchPaint.setFilterBitmap(!inAmbientMode);
                 }
 
                 invalidate();
@@ -236,87 +352,181 @@ public class DTRWatchFaceService extends CanvasWatchFaceService {
         }
 
         /**
-         * Captures tap event (and tap type) and toggles the background color if the user finishes
-         * a tap.
+         * Captures tap event (and tap type) and switches the instrumentation overlay on or off if
+         * the user finishes a tap. Switching it off appends the collected stats to
+         * {@link #STATS_FILE_NAME}.
          */
         @Override
         public void onTapCommand(int tapType, int x, int y, long eventTime) {
-//            Resources resources = DTRWatchFaceService.this.getResources();
-//            switch (tapType) {
-//                case TAP_TYPE_TOUCH:
-//                    // The user has started touching the screen.
-//                    break;
-//                case TAP_TYPE_TOUCH_CANCEL:
-//                    // The user has started a different gesture or otherwise cancelled the tap.
-//                    break;
-//                case TAP_TYPE_TAP:
-//                    // The user has completed the tap gesture.
-//                    mTapCount++;
-//                    mBackgroundPaint.setColor(resources.getColor(mTapCount % 2 == 0 ?
-//                            R.color.background : R.color.background2));
-//                    break;
-//            }
-//            invalidate();
+            switch (tapType) {
+                case TAP_TYPE_TAP:
+                    // The user has completed the tap gesture.
+                    long timeMs = DateCodeBuilderFactory.getClock().currentTimeMillis();
+                    if (mStats == null) {
+                        mStats = new WatchFaceStats(timeMs, mCodeSchedule.getRecalculationCount());
+                    } else {
+                        dumpStats(mStats.getReport(timeMs, mCodeSchedule.getRecalculationCount()));
+                        mStats = null;
+                    }
+                    invalidate();
+                    break;
+            }
+        }
+
+        /**
+         * Appends a stats report to {@link #STATS_FILE_NAME} on a background thread.
+         */
+        private void dumpStats(final String report) {
+            File directory = getExternalFilesDir(null);
+            if (directory == null) {
+                directory = getFilesDir();
+            }
+            final File file = new File(directory, STATS_FILE_NAME);
+
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    FileWriter writer = null;
+                    try {
+                        writer = new FileWriter(file, true /* append */);
+                        writer.write(report);
+                    } catch (IOException e) {
+                        Log.e(TAG, "Unable to write " + file, e);
+                    } finally {
+                        if (writer != null) {
+                            try {
+                                writer.close();
+                            } catch (IOException e) {
+                                Log.e(TAG, "Unable to close " + file, e);
+                            }
+                        }
+                    }
+                }
+            }, "WatchFaceStatsDump").start();
+        }
+
+        /**
+         * Draws the instrumentation overlay along the bottom of the screen. Only called while
+         * debugging, so it is allowed to allocate.
+         */
+        private void drawStatsOverlay(Canvas canvas, Rect bounds) {
+            String[] lines = mStats.getOverlayLines(mCodeSchedule.getRecalculationCount());
+            float lineHeight = mOverlayPaint.getTextSize() * 1.2f;
+            float y = bounds.height() - lineHeight * lines.length;
+            for (String line : lines) {
+                float x = mCenterX - (mOverlayPaint.measureText(line) / 2.0f);
+                canvas.drawText(line, x, y, mOverlayPaint);
+                y += lineHeight;
+            }
         }
 
         @Override
         public void onSurfaceChanged(SurfaceHolder holder, int format, int width, int height) {
-            if (mBackgroundScaledBitmap == null
-                    || mBackgroundScaledBitmap.getWidth() != width
-                    || mBackgroundScaledBitmap.getHeight() != height) {
-                mBackgroundScaledBitmap = Bitmap.createScaledBitmap(mBackgroundBitmap,
-                        width - 60, height - 20, true /* filter */);
+            if (!mBackgroundAssets.isComposedFor(width, height)) {
+                mBackgroundAssets.compose(getResources(), R.drawable.usaf38th_aps_patch_trans,
+                        mBackgroundPaint.getColor(), width, height);
             }
+            mLayoutValid = false;
             super.onSurfaceChanged(holder, format, width, height);
         }
 
         @Override
         public void onDraw(Canvas canvas, Rect bounds) {
+            long drawStartNanos = mStats != null ? System.nanoTime() : 0;
+
             // Draw the background.
             if (isInAmbientMode()) {
                 canvas.drawColor(Color.BLACK);
+                if (!mBurnInProtection) {
+                    mBackgroundAssets.drawAmbient(canvas, mAmbientPatchPaint);
+                }
             } else {
-                canvas.drawRect(0, 0, bounds.width(), bounds.height(), mBackgroundPaint);
-                // Draw the background, scaled to fit.
-                canvas.drawBitmap(mBackgroundScaledBitmap, 30, 10, null);
+                mBackgroundAssets.drawInteractive(canvas);
+            }
+
+            if (!mLayoutValid
+                    || bounds.width() != mLayoutWidth
+                    || bounds.height() != mLayoutHeight) {
+                updateLayout(bounds);
             }
 
             // Draw H:MM in ambient mode or H:MM:SS in interactive mode.
-            mTime.setToNow();
-            String timeText = mAmbient
-                    ? String.format("%d:%02d", mTime.hour, mTime.minute)
-                    : String.format("%d:%02d:%02d", mTime.hour, mTime.minute, mTime.second);
-
-            mXOffset = computeXOffset(timeText, mTextPaint, bounds);
-            mYOffset = computeTimeYOffset(timeText, mTextPaint, bounds);
-            canvas.drawText(timeText, mXOffset, mYOffset, mTextPaint);
-
-            dateCode = DateCodeBuilderFactory.getDateCodeBuilder("Air").getCode();
-            mXOffset = computeXOffset(dateCode, mTextPaint, bounds);
-            mYOffset = computeDateYOffset(timeText, mTextPaint, bounds);
-            canvas.drawText(dateCode, mXOffset, mYOffset, mTextPaint);
+            // Local time from the cached zone transitions rather than through Calendar
+            long now = DateCodeBuilderFactory.getClock().currentTimeMillis();
+            long localSeconds = DateCodes.floorDiv(mZoneOffsets.toLocalMillis(now), 1000);
+            int secondOfDay =
+                    (int) (localSeconds - DateCodes.floorDiv(localSeconds, 86400) * 86400);
+            int timeLength = formatTime(secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60,
+                    !mAmbient);
+            float timeXOffset = mCenterX - (measureTime(timeLength) / 2.0f);
+            canvas.drawText(mTimeChars, 0, timeLength, timeXOffset, mTimeYOffset, mTextPaint);
+
+            // Only recalculated once the cached code's transition has passed
+            dateCode = mCodeSchedule.getCode(now);
+            if (dateCode != mLaidOutDateCode) {
+                mDateXOffset = mCenterX - (mTextPaint.measureText(dateCode) / 2.0f);
+                mLaidOutDateCode = dateCode;
+            }
+            canvas.drawText(dateCode, mDateXOffset, mDateYOffset, mTextPaint);
+
+            if (mStats != null) {
+                mStats.recordDraw(System.nanoTime() - drawStartNanos);
+                drawStatsOverlay(canvas, bounds);
+            }
         }
 
-        private float computeXOffset(String text, Paint paint, Rect watchBounds) {
-            float centerX = watchBounds.exactCenterX();
-            float timeLength = paint.measureText(text);
-            return centerX - (timeLength / 2.0f);
+        /**
+         * Calculates the text rows and glyph widths for the current bounds and text size. The
+         * time row is centered vertically and the date code sits above it.
+         */
+        private void updateLayout(Rect bounds) {
+            mLayoutWidth = bounds.width();
+            mLayoutHeight = bounds.height();
+            mCenterX = bounds.exactCenterX();
+
+            float centerY = bounds.exactCenterY();
+            mTextPaint.getTextBounds(TIME_LAYOUT_TEXT, 0, TIME_LAYOUT_TEXT.length(), mTextBounds);
+            int textHeight = mTextBounds.height();
+            mTimeYOffset = centerY + (textHeight / 2.0f);
+            mDateYOffset = centerY - (textHeight / 1.5f);
+
+            mTextPaint.getTextWidths(TIME_GLYPHS, mGlyphWidths);
+            mLaidOutDateCode = null;
+            mLayoutValid = true;
         }
 
-        private float computeTimeYOffset(String timeText, Paint timePaint, Rect watchBounds) {
-            float centerY = watchBounds.exactCenterY();
-            Rect textBounds = new Rect();
-            timePaint.getTextBounds(timeText, 0, timeText.length(), textBounds);
-            int textHeight = textBounds.height();
-            return centerY + (textHeight / 2.0f);
+        /**
+         * Writes H:MM or H:MM:SS into {@link #mTimeChars}.
+         *
+         * @return number of characters written
+         */
+        private int formatTime(int hour, int minute, int second, boolean showSeconds) {
+            int length = 0;
+            if (hour >= 10) {
+                mTimeChars[length++] = (char) ('0' + hour / 10);
+            }
+            mTimeChars[length++] = (char) ('0' + hour % 10);
+            mTimeChars[length++] = ':';
+            mTimeChars[length++] = (char) ('0' + minute / 10);
+            mTimeChars[length++] = (char) ('0' + minute % 10);
+            if (showSeconds) {
+                mTimeChars[length++] = ':';
+                mTimeChars[length++] = (char) ('0' + second / 10);
+                mTimeChars[length++] = (char) ('0' + second % 10);
+            }
+            return length;
         }
 
-        private float computeDateYOffset(String dateCode, Paint datePaint, Rect watchBounds) {
-            float centerY = watchBounds.exactCenterY();
-            Rect textBounds = new Rect();
-            datePaint.getTextBounds(dateCode, 0, dateCode.length(), textBounds);
-            int textHeight = textBounds.height();
-            return centerY - (textHeight / 1.5f);
+        /**
+         * Measures the first {@code length} characters of {@link #mTimeChars} from the cached
+         * glyph widths.
+         */
+        private float measureTime(int length) {
+            float width = 0;
+            for (int i = 0; i < length; i++) {
+                width += mGlyphWidths[TIME_GLYPHS.indexOf(mTimeChars[i])];
+            }
+            return width;
         }
 
         /**
@@ -342,14 +552,42 @@ public class DTRWatchFaceService extends CanvasWatchFaceService {
          * Handle updating the time periodically in interactive mode.
          */
         private void handleUpdateTimeMessage() {
-            dateCode = DateCodeBuilderFactory.getDateCodeBuilder("Air").getCode();
+            if (mStats != null) {
+                mStats.recordWakeup(WatchFaceStats.WAKEUP_INTERACTIVE);
+            }
             invalidate();
             if (shouldTimerBeRunning()) {
-                long timeMs = System.currentTimeMillis();
+                long timeMs = DateCodeBuilderFactory.getClock().currentTimeMillis();
                 long delayMs = INTERACTIVE_UPDATE_RATE_MS
                         - (timeMs % INTERACTIVE_UPDATE_RATE_MS);
                 mUpdateTimeHandler.sendEmptyMessageDelayed(MSG_UPDATE_TIME, delayMs);
             }
         }
+
+        /**
+         * Posts a single {@link #MSG_UPDATE_CODE} message for the instant the date code next
+         * changes while we're visible, replacing any message already pending.
+         */
+        private void updateCodeTimer() {
+            mUpdateTimeHandler.removeMessages(MSG_UPDATE_CODE);
+            if (isVisible()) {
+                long timeMs = DateCodeBuilderFactory.getClock().currentTimeMillis();
+                dateCode = mCodeSchedule.getCode(timeMs);
+                long delayMs = mCodeSchedule.getNextTransitionMillis() - timeMs;
+                mUpdateTimeHandler.sendEmptyMessageDelayed(MSG_UPDATE_CODE, delayMs);
+            }
+        }
+
+        /**
+         * Handle the date code changing, in both interactive and ambient mode.
+         */
+        private void handleUpdateCodeMessage() {
+            if (mStats != null) {
+                mStats.recordWakeup(isInAmbientMode()
+                        ? WatchFaceStats.WAKEUP_AMBIENT : WatchFaceStats.WAKEUP_INTERACTIVE);
+            }
+            invalidate();
+            updateCodeTimer();
+        }
     }
 }
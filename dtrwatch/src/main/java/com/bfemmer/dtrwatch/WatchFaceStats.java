@@ -0,0 +1,122 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Bill Femmer
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.bfemmer.dtrwatch;
+
+import com.bfemmer.datecodes.LatencyHistogram;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in instrumentation for the watch face engine: draw latency, wakeups by source, missed frame
+ * deadlines, and date code recalculations. Only created while debugging is switched on, so the
+ * engine pays nothing for it otherwise. Not thread-safe; used from the engine's thread.
+ */
+class WatchFaceStats {
+    static final int WAKEUP_INTERACTIVE = 0;
+    static final int WAKEUP_AMBIENT = 1;
+    static final int WAKEUP_TIME_TICK = 2;
+
+    /**
+     * Draws taking longer than one 60 Hz frame are counted as missed deadlines.
+     */
+    static final long FRAME_DEADLINE_NANOS = TimeUnit.SECONDS.toNanos(1) / 60;
+
+    private static final String[] WAKEUP_NAMES = {"interactive", "ambient", "timeTick"};
+
+    private final LatencyHistogram mDrawLatency = new LatencyHistogram();
+    private final long[] mWakeups = new long[WAKEUP_NAMES.length];
+    private final long mStartMillis;
+    private final long mStartRecalculationCount;
+    private long mMissedDeadlines;
+
+    /**
+     * @param startRecalculationCount code recalculations already done before recording started
+     */
+    WatchFaceStats(long startMillis, long startRecalculationCount) {
+        mStartMillis = startMillis;
+        mStartRecalculationCount = startRecalculationCount;
+    }
+
+    void recordDraw(long elapsedNanos) {
+        mDrawLatency.recordValue(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        if (elapsedNanos > FRAME_DEADLINE_NANOS) {
+            mMissedDeadlines++;
+        }
+    }
+
+    void recordWakeup(int source) {
+        mWakeups[source]++;
+    }
+
+    /**
+     * Short lines for the on-screen overlay.
+     */
+    String[] getOverlayLines(long recalculationCount) {
+        return new String[]{
+                String.format(Locale.US, "draw p50 %.1f p99 %.1f ms",
+                        mDrawLatency.getValueAtPercentile(50) / 1000.0,
+                        mDrawLatency.getValueAtPercentile(99) / 1000.0),
+                String.format(Locale.US, "wake %d/%d/%d miss %d",
+                        mWakeups[WAKEUP_INTERACTIVE], mWakeups[WAKEUP_AMBIENT],
+                        mWakeups[WAKEUP_TIME_TICK], mMissedDeadlines),
+                String.format(Locale.US, "code calc %d",
+                        recalculationCount - mStartRecalculationCount)
+        };
+    }
+
+    /**
+     * Full report for the dump file.
+     */
+    String getReport(long nowMillis, long recalculationCount) {
+        DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss Z", Locale.US);
+        StringBuilder report = new StringBuilder();
+
+        report.append("period: ").append(dateFormat.format(new Date(mStartMillis)))
+                .append(" - ").append(dateFormat.format(new Date(nowMillis)))
+                .append(" (").append(TimeUnit.MILLISECONDS.toSeconds(nowMillis - mStartMillis))
+                .append(" s)\n");
+        report.append("draws: ").append(mDrawLatency.getTotalCount())
+                .append(", missed deadlines: ").append(mMissedDeadlines).append('\n');
+        report.append(String.format(Locale.US,
+                "draw latency us: mean %.0f p50 %d p90 %d p99 %d p99.9 %d max %d%n",
+                mDrawLatency.getMean(),
+                mDrawLatency.getValueAtPercentile(50),
+                mDrawLatency.getValueAtPercentile(90),
+                mDrawLatency.getValueAtPercentile(99),
+                mDrawLatency.getValueAtPercentile(99.9),
+                mDrawLatency.getMaxValue()));
+        report.append("wakeups:");
+        for (int i = 0; i < WAKEUP_NAMES.length; i++) {
+            report.append(' ').append(WAKEUP_NAMES[i]).append(' ').append(mWakeups[i]);
+        }
+        report.append('\n');
+        report.append("code recalculations: ")
+                .append(recalculationCount - mStartRecalculationCount).append("\n\n");
+        return report.toString();
+    }
+}